@@ -0,0 +1,39 @@
+package com.willowtech.debezium.benchmarks.converter;
+
+import com.willowtech.debezium.benchmarks.support.CapturingRegistration;
+import com.willowtech.debezium.benchmarks.support.StubColumn;
+import com.willowtech.debezium.converter.IsbnConverter;
+import io.debezium.spi.converter.CustomConverter;
+import org.openjdk.jmh.annotations.*;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IsbnConverter注册的lambda，作为“几乎不做事”的converter的基线
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IsbnConverterBenchmark {
+
+    private CustomConverter.Converter converter;
+    private Object isbn;
+
+    @Setup
+    public void setup() {
+        Properties props = new Properties();
+        props.setProperty("schema.name", "io.debezium.postgresql.type.Isbn");
+        IsbnConverter isbnConverter = new IsbnConverter();
+        isbnConverter.configure(props);
+        converter = CapturingRegistration.register(isbnConverter, StubColumn.of("public.books", "isbn", "isbn"));
+        isbn = "978-7-111-54742-6";
+    }
+
+    @Benchmark
+    public Object isbn() {
+        return converter.convert(isbn);
+    }
+}
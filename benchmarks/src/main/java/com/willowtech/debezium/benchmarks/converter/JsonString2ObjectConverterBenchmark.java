@@ -0,0 +1,86 @@
+package com.willowtech.debezium.benchmarks.converter;
+
+import com.willowtech.debezium.benchmarks.support.CapturingRegistration;
+import com.willowtech.debezium.benchmarks.support.StubColumn;
+import com.willowtech.debezium.converter.JsonString2ObjectConverter;
+import io.debezium.spi.converter.CustomConverter;
+import org.openjdk.jmh.annotations.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonString2ObjectConverter注册的lambda：字符串数组、数字数组以及byte[]输入
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonString2ObjectConverterBenchmark {
+
+    private static final int SIZE = 256;
+    private static final int MASK = SIZE - 1;
+
+    /**
+     * 数组元素个数
+     */
+    @Param({"2", "16"})
+    public int elements;
+
+    private CustomConverter.Converter converter;
+    private String[] stringArrays;
+    private String[] numberArrays;
+    private byte[][] byteArrays;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        Properties props = new Properties();
+        props.setProperty("transfer.field", "num_array");
+        JsonString2ObjectConverter jsonConverter = new JsonString2ObjectConverter();
+        jsonConverter.configure(props);
+        converter = CapturingRegistration.register(jsonConverter, StubColumn.of("goods.t_mountain", "num_array", "VARCHAR"));
+
+        Random random = new Random(42);
+        stringArrays = new String[SIZE];
+        numberArrays = new String[SIZE];
+        byteArrays = new byte[SIZE][];
+        for (int i = 0; i < SIZE; i++) {
+            StringBuilder strings = new StringBuilder("[");
+            StringBuilder numbers = new StringBuilder("[");
+            for (int j = 0; j < elements; j++) {
+                if (j > 0) {
+                    strings.append(',');
+                    numbers.append(',');
+                }
+                strings.append('"').append(Long.toHexString(random.nextLong())).append('"');
+                numbers.append(Math.abs(random.nextLong() % 10_000_000_000_000L));
+            }
+            stringArrays[i] = strings.append(']').toString();
+            numberArrays[i] = numbers.append(']').toString();
+            byteArrays[i] = stringArrays[i].getBytes(StandardCharsets.UTF_16);
+        }
+    }
+
+    private int next() {
+        return cursor++ & MASK;
+    }
+
+    @Benchmark
+    public Object stringArray() {
+        return converter.convert(stringArrays[next()]);
+    }
+
+    @Benchmark
+    public Object numberArray() {
+        return converter.convert(numberArrays[next()]);
+    }
+
+    @Benchmark
+    public Object bytes() {
+        return converter.convert(byteArrays[next()]);
+    }
+}
@@ -0,0 +1,90 @@
+package com.willowtech.debezium.benchmarks.converter;
+
+import com.willowtech.debezium.benchmarks.support.CapturingRegistration;
+import com.willowtech.debezium.benchmarks.support.StubColumn;
+import com.willowtech.debezium.benchmarks.support.TemporalInputs;
+import com.willowtech.debezium.converter.MySqlDateTimeConverter;
+import io.debezium.spi.converter.CustomConverter;
+import org.openjdk.jmh.annotations.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MySqlDateTimeConverter各类型注册的lambda，配置同README中的示例
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MySqlDateTimeConverterBenchmark {
+
+    private CustomConverter.Converter dateConverter;
+    private CustomConverter.Converter timeConverter;
+    private CustomConverter.Converter datetimeConverter;
+    private CustomConverter.Converter timestampConverter;
+
+    private LocalDate[] localDates;
+    private Integer[] epochDays;
+    private Duration[] durations;
+    private LocalDateTime[] localDateTimes;
+    private ZonedDateTime[] zonedDateTimes;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        Properties props = new Properties();
+        props.setProperty("format.date", "yyyy-MM-dd");
+        props.setProperty("format.time", "HH:mm:ss");
+        props.setProperty("format.datetime", "yyyy-MM-dd HH:mm:ss");
+        props.setProperty("format.timestamp", "yyyy-MM-dd HH:mm:ss");
+        props.setProperty("format.timestamp.zone", "UTC+8");
+        MySqlDateTimeConverter converter = new MySqlDateTimeConverter();
+        converter.configure(props);
+
+        dateConverter = CapturingRegistration.register(converter, StubColumn.of("goods.t_mountain", "open_date", "DATE"));
+        timeConverter = CapturingRegistration.register(converter, StubColumn.of("goods.t_mountain", "open_time", "TIME"));
+        datetimeConverter = CapturingRegistration.register(converter, StubColumn.of("goods.t_mountain", "create_time", "DATETIME"));
+        timestampConverter = CapturingRegistration.register(converter, StubColumn.of("goods.t_mountain", "update_time", "TIMESTAMP"));
+
+        localDates = TemporalInputs.localDates(1);
+        epochDays = TemporalInputs.epochDays(2);
+        durations = TemporalInputs.durations(3);
+        localDateTimes = TemporalInputs.localDateTimes(4);
+        zonedDateTimes = TemporalInputs.utcZonedDateTimes(5);
+    }
+
+    private int next() {
+        return cursor++ & TemporalInputs.MASK;
+    }
+
+    @Benchmark
+    public Object dateFromLocalDate() {
+        return dateConverter.convert(localDates[next()]);
+    }
+
+    @Benchmark
+    public Object dateFromEpochDay() {
+        return dateConverter.convert(epochDays[next()]);
+    }
+
+    @Benchmark
+    public Object time() {
+        return timeConverter.convert(durations[next()]);
+    }
+
+    @Benchmark
+    public Object datetime() {
+        return datetimeConverter.convert(localDateTimes[next()]);
+    }
+
+    @Benchmark
+    public Object timestamp() {
+        return timestampConverter.convert(zonedDateTimes[next()]);
+    }
+}
@@ -0,0 +1,77 @@
+package com.willowtech.debezium.benchmarks.converter;
+
+import com.willowtech.debezium.benchmarks.support.CapturingRegistration;
+import com.willowtech.debezium.benchmarks.support.StubColumn;
+import com.willowtech.debezium.converter.TinyIntOneToBooleanConverter;
+import io.debezium.spi.converter.CustomConverter;
+import org.openjdk.jmh.annotations.*;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TinyIntOneToBooleanConverter注册的lambda：binlog里的Short/Integer、快照里的Boolean以及字符串输入
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TinyIntOneToBooleanConverterBenchmark {
+
+    private static final int SIZE = 1024;
+    private static final int MASK = SIZE - 1;
+    private static final String[] STRING_VALUES = {"0", "1", "true", "false"};
+
+    private CustomConverter.Converter converter;
+    private CustomConverter.Converter requiredConverter;
+    private Object[] numbers;
+    private Object[] booleans;
+    private Object[] strings;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        TinyIntOneToBooleanConverter booleanConverter = new TinyIntOneToBooleanConverter();
+        booleanConverter.configure(new Properties());
+        converter = CapturingRegistration.register(booleanConverter,
+                StubColumn.of("goods.t_mountain", "is_open", "TINYINT").withLength(1));
+        requiredConverter = CapturingRegistration.register(booleanConverter,
+                StubColumn.of("goods.t_mountain", "is_deleted", "TINYINT").withLength(1).required().withDefault((short) 0));
+
+        Random random = new Random(42);
+        numbers = new Object[SIZE];
+        booleans = new Object[SIZE];
+        strings = new Object[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            numbers[i] = random.nextBoolean() ? Short.valueOf((short) 1) : Integer.valueOf(0);
+            booleans[i] = random.nextBoolean();
+            strings[i] = STRING_VALUES[random.nextInt(STRING_VALUES.length)];
+        }
+    }
+
+    private int next() {
+        return cursor++ & MASK;
+    }
+
+    @Benchmark
+    public Object number() {
+        return converter.convert(numbers[next()]);
+    }
+
+    @Benchmark
+    public Object bool() {
+        return converter.convert(booleans[next()]);
+    }
+
+    @Benchmark
+    public Object string() {
+        return converter.convert(strings[next()]);
+    }
+
+    @Benchmark
+    public Object nullWithDefault() {
+        return requiredConverter.convert(null);
+    }
+}
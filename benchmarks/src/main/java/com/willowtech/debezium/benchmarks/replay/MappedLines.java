@@ -0,0 +1,74 @@
+package com.willowtech.debezium.benchmarks.replay;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 按行读取内存映射的文件：每次映射一个窗口(默认256MB)，窗口末尾不完整的行从下一个窗口重新开始，
+ * 大于2GB的文件也能处理，读取过程中不经过BufferedReader和String的逐字符解码
+ */
+final class MappedLines {
+
+    private static final long WINDOW = 256L * 1024 * 1024;
+
+    interface LineHandler {
+        /**
+         * @param lineNumber 从1开始的行号
+         * @param line       去掉行尾\r\n的UTF-8字节
+         */
+        void line(long lineNumber, byte[] line) throws IOException;
+    }
+
+    private MappedLines() {
+    }
+
+    /**
+     * 空行跳过，但行号照常计数
+     */
+    static void forEach(Path path, LineHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            long lineNumber = 0;
+            while (position < size) {
+                int length = (int) Math.min(WINDOW, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean last = position + length == size;
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (buffer.get(i) == '\n') {
+                        emit(buffer, lineStart, i, ++lineNumber, handler);
+                        lineStart = i + 1;
+                    }
+                }
+                if (last) {
+                    if (lineStart < length) {
+                        emit(buffer, lineStart, length, ++lineNumber, handler);
+                    }
+                    break;
+                }
+                if (lineStart == 0) {
+                    throw new IOException("Line " + (lineNumber + 1) + " of " + path + " is longer than " + WINDOW + " bytes");
+                }
+                position += lineStart;
+            }
+        }
+    }
+
+    private static void emit(MappedByteBuffer buffer, int start, int end, long lineNumber, LineHandler handler) throws IOException {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (end == start) {
+            return;
+        }
+        byte[] line = new byte[end - start];
+        for (int i = 0; i < line.length; i++) {
+            line[i] = buffer.get(start + i);
+        }
+        handler.line(lineNumber, line);
+    }
+}
@@ -0,0 +1,201 @@
+package com.willowtech.debezium.benchmarks.replay;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 离线回放：不连MySQL和Kafka，把抓取的列值和变更记录(JSON lines，格式见{@link ReplayInput})
+ * 交给配置的converter和transform(配置写法见{@link ReplayPlugins})执行，输出吞吐、单条耗时分位数、分配速率，
+ * 并与上一次的输出(baseline)逐条对比
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.willowtech.debezium.benchmarks.replay.ReplayHarness \
+ *     --input rows.jsonl --config replay.properties [--output out.txt] [--baseline base.txt] [--warmup 2] [--iterations 5]
+ * </pre>
+ * 输入文件通过内存映射读取，计时前全部解析完成；--output每行一条输出(与输入顺序一致)，可作为下一次的--baseline
+ */
+public final class ReplayHarness {
+
+    private static final int MAX_REPORTED_MISMATCHES = 10;
+
+    private ReplayHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path input = null;
+        Path config = null;
+        Path output = null;
+        Path baseline = null;
+        int warmup = 2;
+        int iterations = 5;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--input":
+                    input = Paths.get(value);
+                    break;
+                case "--config":
+                    config = Paths.get(value);
+                    break;
+                case "--output":
+                    output = Paths.get(value);
+                    break;
+                case "--baseline":
+                    baseline = Paths.get(value);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(value);
+                    break;
+                case "--iterations":
+                    iterations = Math.max(1, Integer.parseInt(value));
+                    break;
+                default:
+                    usage("Unknown option " + args[i]);
+                    return;
+            }
+            i++;
+        }
+        if (input == null || config == null) {
+            usage("--input and --config are required");
+            return;
+        }
+
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(config, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+        try (ReplayPlugins plugins = ReplayPlugins.load(props)) {
+            ReplayInput replayInput = new ReplayInput(plugins);
+            long parseStart = System.nanoTime();
+            MappedLines.forEach(input, replayInput::parse);
+            List<ReplayInput.ReplayItem> items = replayInput.items();
+            System.out.printf("loaded %d items (%d column values, %d records, %d column values not converted) in %d ms%n",
+                    items.size(), replayInput.columns(), replayInput.records(), replayInput.unconverted(),
+                    (System.nanoTime() - parseStart) / 1_000_000);
+            if (items.isEmpty()) {
+                return;
+            }
+
+            for (int i = 0; i < warmup; i++) {
+                run(items, null, 0, null);
+            }
+            String[] outputs = new String[items.size()];
+            long[] latencies = new long[items.size() * iterations];
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            long allocatedBefore = allocatedBytes(threads);
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                run(items, latencies, i * items.size(), i == 0 ? outputs : null);
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedBytes(threads) - allocatedBefore;
+
+            report(items.size() * (long) iterations, elapsed, latencies, allocatedBefore < 0 ? -1 : allocated);
+            if (output != null) {
+                Files.write(output, Arrays.asList(outputs), StandardCharsets.UTF_8);
+                System.out.println("outputs written to " + output);
+            }
+            if (baseline != null) {
+                compare(items, outputs, baseline);
+            }
+        }
+    }
+
+    /**
+     * 执行一遍全部条目；latencies不为null时从offset开始记录单条耗时，outputs不为null时记录输出
+     */
+    private static void run(List<ReplayInput.ReplayItem> items, long[] latencies, int offset, String[] outputs) {
+        for (int i = 0; i < items.size(); i++) {
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = items.get(i).run();
+            } catch (RuntimeException e) {
+                result = "ERROR " + e;
+            }
+            if (latencies != null) {
+                latencies[offset + i] = System.nanoTime() - start;
+            }
+            if (outputs != null) {
+                outputs[i] = render(result);
+            }
+        }
+    }
+
+    private static String render(Object value) {
+        String text = value instanceof byte[] ? Arrays.toString((byte[]) value) : String.valueOf(value);
+        return text.replace("\\", "\\\\").replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+            if (sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled()) {
+                return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static void report(long count, long elapsedNanos, long[] latencies, long allocated) {
+        Arrays.sort(latencies);
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("throughput: %.0f items/s (%d items in %.3f s)%n", count / seconds, count, seconds);
+        System.out.printf("latency per item (ns): p50=%d p90=%d p99=%d p999=%d max=%d%n",
+                percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), latencies[latencies.length - 1]);
+        if (allocated >= 0) {
+            System.out.printf("allocation: %.1f bytes/item, %.1f MB/s%n", (double) allocated / count,
+                    allocated / seconds / (1024 * 1024));
+        } else {
+            System.out.println("allocation: not supported by this JVM");
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static void compare(List<ReplayInput.ReplayItem> items, String[] outputs, Path baseline) throws IOException {
+        List<String> expected = new ArrayList<>(outputs.length);
+        MappedLines.forEach(baseline, (lineNumber, line) -> {
+            while (expected.size() < lineNumber - 1) {
+                // 空输出在文件里是空行，MappedLines会跳过
+                expected.add("");
+            }
+            expected.add(new String(line, StandardCharsets.UTF_8));
+        });
+        int mismatches = 0;
+        for (int i = 0; i < outputs.length; i++) {
+            String base = i < expected.size() ? expected.get(i) : null;
+            if (!outputs[i].equals(base)) {
+                if (mismatches < MAX_REPORTED_MISMATCHES) {
+                    System.out.printf("mismatch at %s%n  baseline: %s%n  current:  %s%n", items.get(i).describe(), base, outputs[i]);
+                }
+                mismatches++;
+            }
+        }
+        if (expected.size() != outputs.length) {
+            System.out.printf("baseline has %d outputs, current run has %d%n", expected.size(), outputs.length);
+        }
+        System.out.printf("mismatches vs baseline: %d of %d%n", mismatches, outputs.length);
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("usage: ReplayHarness --input <rows.jsonl> --config <replay.properties> "
+                + "[--output <out.txt>] [--baseline <out.txt>] [--warmup N] [--iterations N]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,271 @@
+package com.willowtech.debezium.benchmarks.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.willowtech.debezium.benchmarks.support.StubColumn;
+import com.willowtech.debezium.json.JsonSchemas;
+import com.willowtech.debezium.json.JsonStructReader;
+import io.debezium.spi.converter.CustomConverter;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 解析回放文件(JSON lines)，计时前把每一行解析成可以直接执行的{@link ReplayItem}
+ * <p>
+ * 列值：column为converterFor看到的列元数据，valueType为binlog解析出的Java类型(默认按JSON类型推断)，
+ * converter可选，指定只交给哪个converter
+ * <pre>
+ * {"type":"column","converter":"datetime","column":{"dataCollection":"goods.t_mountain","name":"create_time","typeName":"DATETIME","optional":true},"valueType":"LocalDateTime","value":"2024-03-15T12:00:00"}
+ * </pre>
+ * 记录：row为行schema(语法见{@link JsonSchemas})，按Debezium的格式组装成envelope(before/after/op/ts_ms)；
+ * 也可以用value给出无schema的记录
+ * <pre>
+ * {"type":"record","topic":"goods.goods.t_mountain","row":"id:int64,num_array:string","before":null,"after":{"id":1,"num_array":"[1,2]"},"op":"c"}
+ * {"type":"record","topic":"goods.goods.t_mountain","value":{"before":null,"after":{"id":1,"num_array":"[1,2]"},"op":"c"}}
+ * </pre>
+ * valueType支持：string、boolean、byte、short、int、long、float、double、decimal、bytes(base64)、
+ * LocalDate、LocalTime、LocalDateTime、ZonedDateTime、Duration(ISO-8601文本)
+ */
+final class ReplayInput {
+
+    interface ReplayItem {
+        Object run();
+
+        String describe();
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ReplayPlugins plugins;
+    private final List<ReplayItem> items = new ArrayList<>();
+    private final Map<String, RowType> rowTypes = new HashMap<>();
+    private int columns;
+    private int records;
+    private int unconverted;
+
+    ReplayInput(ReplayPlugins plugins) {
+        this.plugins = plugins;
+    }
+
+    void parse(long lineNumber, byte[] line) throws IOException {
+        JsonNode node = mapper.readTree(line);
+        String type = node.path("type").asText("");
+        try {
+            switch (type) {
+                case "column":
+                    parseColumn(lineNumber, node);
+                    break;
+                case "record":
+                    parseRecord(lineNumber, node);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown type '" + type + "', expected column or record");
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid replay line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    List<ReplayItem> items() {
+        return items;
+    }
+
+    int columns() {
+        return columns;
+    }
+
+    int records() {
+        return records;
+    }
+
+    /**
+     * 没有任何converter接管的列值，Debezium不会调用converter，这里也不计入
+     */
+    int unconverted() {
+        return unconverted;
+    }
+
+    private void parseColumn(long lineNumber, JsonNode node) {
+        JsonNode meta = node.path("column");
+        StubColumn column = StubColumn.of(text(meta, "dataCollection"), text(meta, "name"), text(meta, "typeName"));
+        if (meta.has("jdbcType")) {
+            column = column.withJdbcType(meta.get("jdbcType").asInt());
+        }
+        if (meta.has("length")) {
+            column = column.withLength(meta.get("length").asInt());
+        }
+        if (meta.has("scale")) {
+            column = column.withScale(meta.get("scale").asInt());
+        }
+        if (!meta.path("optional").asBoolean(true)) {
+            column = column.required();
+        }
+        if (meta.has("default")) {
+            column = column.withDefault(value(meta.get("default"), meta.path("defaultType").asText(null)));
+        }
+        String converterName = node.hasNonNull("converter") ? node.get("converter").asText() : null;
+        CustomConverter.Converter converter = plugins.converterFor(converterName, column);
+        if (converter == null) {
+            unconverted++;
+            return;
+        }
+        Object value = value(node.get("value"), node.path("valueType").asText(null));
+        String description = "line " + lineNumber + " " + column.dataCollection() + "." + column.name();
+        items.add(new ReplayItem() {
+            @Override
+            public Object run() {
+                return converter.convert(value);
+            }
+
+            @Override
+            public String describe() {
+                return description;
+            }
+        });
+        columns++;
+    }
+
+    private void parseRecord(long lineNumber, JsonNode node) {
+        String topic = node.path("topic").asText("replay");
+        SourceRecord record;
+        try {
+            if (node.has("row")) {
+                RowType rowType = rowTypes.computeIfAbsent(node.path("table").asText(topic) + "|" + node.get("row").asText(),
+                        k -> new RowType(node.path("table").asText(topic), node.get("row").asText()));
+                Struct envelope = new Struct(rowType.envelopeSchema)
+                        .put("before", rowType.read(node.get("before")))
+                        .put("after", rowType.read(node.get("after")))
+                        .put("op", node.path("op").asText("u"))
+                        .put("ts_ms", node.path("ts_ms").asLong(0));
+                record = new SourceRecord(Collections.emptyMap(), Collections.emptyMap(), topic, null, null, null,
+                        rowType.envelopeSchema, envelope);
+            } else {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> value = mapper.convertValue(node.get("value"), Map.class);
+                record = new SourceRecord(Collections.emptyMap(), Collections.emptyMap(), topic, null, null, null, null, value);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        String description = "line " + lineNumber + " " + topic;
+        items.add(new ReplayItem() {
+            @Override
+            public Object run() {
+                SourceRecord output = plugins.transform(record);
+                return output == null ? null : output.value();
+            }
+
+            @Override
+            public String describe() {
+                return description;
+            }
+        });
+        records++;
+    }
+
+    private static String text(JsonNode node, String field) {
+        if (!node.hasNonNull(field)) {
+            throw new IllegalArgumentException("Missing column." + field);
+        }
+        return node.get(field).asText();
+    }
+
+    static Object value(JsonNode node, String type) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (type == null) {
+            if (node.isTextual()) {
+                return node.asText();
+            }
+            if (node.isBoolean()) {
+                return node.asBoolean();
+            }
+            if (node.isIntegralNumber()) {
+                return node.canConvertToInt() ? (Object) node.asInt() : (Object) node.asLong();
+            }
+            if (node.isNumber()) {
+                return node.asDouble();
+            }
+            return node.toString();
+        }
+        String text = node.asText();
+        try {
+            switch (type.toLowerCase(Locale.ROOT)) {
+                case "string":
+                    return node.isTextual() ? text : node.toString();
+                case "boolean":
+                    return node.asBoolean();
+                case "byte":
+                    return (byte) node.asInt();
+                case "short":
+                    return (short) node.asInt();
+                case "int":
+                case "integer":
+                    return node.asInt();
+                case "long":
+                    return node.asLong();
+                case "float":
+                    return (float) node.asDouble();
+                case "double":
+                    return node.asDouble();
+                case "decimal":
+                    return new BigDecimal(text);
+                case "bytes":
+                    return node.binaryValue();
+                case "localdate":
+                    return LocalDate.parse(text);
+                case "localtime":
+                    return LocalTime.parse(text);
+                case "localdatetime":
+                    return LocalDateTime.parse(text);
+                case "zoneddatetime":
+                    return ZonedDateTime.parse(text);
+                case "duration":
+                    return Duration.parse(text);
+                default:
+                    throw new IllegalArgumentException("Unknown valueType " + type);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid " + type + " value " + node, e);
+        }
+    }
+
+    /**
+     * 某张表的行schema和envelope schema，schema名与Debezium一致：&lt;topic&gt;.Value / &lt;topic&gt;.Envelope
+     */
+    private static final class RowType {
+        final Schema envelopeSchema;
+        final JsonStructReader reader;
+
+        RowType(String table, String definition) {
+            Schema rowSchema = JsonSchemas.parse(definition, table + ".Value").build();
+            this.envelopeSchema = SchemaBuilder.struct().name(table + ".Envelope")
+                    .field("before", rowSchema)
+                    .field("after", rowSchema)
+                    .field("op", Schema.STRING_SCHEMA)
+                    .field("ts_ms", Schema.OPTIONAL_INT64_SCHEMA)
+                    .build();
+            this.reader = new JsonStructReader(rowSchema, StandardCharsets.UTF_8);
+        }
+
+        Struct read(JsonNode row) throws IOException {
+            return row == null || row.isNull() ? null : (Struct) reader.read(row.toString());
+        }
+    }
+}
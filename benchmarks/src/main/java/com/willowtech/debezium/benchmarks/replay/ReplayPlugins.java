@@ -0,0 +1,151 @@
+package com.willowtech.debezium.benchmarks.replay;
+
+import com.willowtech.debezium.benchmarks.support.CapturingRegistration;
+import io.debezium.spi.converter.CustomConverter;
+import io.debezium.spi.converter.RelationalColumn;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.kafka.connect.transforms.Transformation;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 按连接器配置的写法加载converter和transform：
+ * <pre>
+ * converters=datetime
+ * datetime.type=com.willowtech.debezium.converter.MySqlDateTimeConverter
+ * datetime.format.datetime=yyyy-MM-dd HH:mm:ss
+ * transforms=s2a
+ * transforms.s2a.type=com.willowtech.debezium.transforms.String2ArrayTransform
+ * transforms.s2a.fields=num_array
+ * </pre>
+ * 与Debezium一样，converter拿到的是去掉"名字."前缀的配置；type可以只写类名，默认在converter/transforms包下查找
+ */
+final class ReplayPlugins implements AutoCloseable {
+
+    private static final String CONVERTER_PACKAGE = "com.willowtech.debezium.converter.";
+    private static final String TRANSFORM_PACKAGE = "com.willowtech.debezium.transforms.";
+
+    private final Map<String, CustomConverter<SchemaBuilder, RelationalColumn>> converters = new LinkedHashMap<>();
+    private final List<Transformation<SourceRecord>> transforms = new ArrayList<>();
+    /**
+     * 同一列只调用一次converterFor，与Debezium按表结构注册一次相同
+     */
+    private final Map<String, CustomConverter.Converter> registrations = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    static ReplayPlugins load(Properties props) throws ReflectiveOperationException {
+        ReplayPlugins plugins = new ReplayPlugins();
+        for (String name : list(props.getProperty("converters"))) {
+            CustomConverter<SchemaBuilder, RelationalColumn> converter = (CustomConverter<SchemaBuilder, RelationalColumn>)
+                    instantiate(required(props, name + ".type"), CONVERTER_PACKAGE);
+            converter.configure(subset(props, name + "."));
+            plugins.converters.put(name, converter);
+        }
+        for (String name : list(props.getProperty("transforms"))) {
+            String prefix = "transforms." + name + ".";
+            Transformation<SourceRecord> transform = (Transformation<SourceRecord>)
+                    instantiate(required(props, prefix + "type"), TRANSFORM_PACKAGE);
+            Map<String, Object> configs = new HashMap<>();
+            subset(props, prefix).forEach((k, v) -> configs.put((String) k, v));
+            transform.configure(configs);
+            plugins.transforms.add(transform);
+        }
+        return plugins;
+    }
+
+    Map<String, CustomConverter<SchemaBuilder, RelationalColumn>> converters() {
+        return converters;
+    }
+
+    List<Transformation<SourceRecord>> transforms() {
+        return transforms;
+    }
+
+    /**
+     * converterName为空时按配置顺序，取第一个接管该列的converter；没有converter接管时返回null
+     */
+    CustomConverter.Converter converterFor(String converterName, RelationalColumn column) {
+        String key = converterName + "|" + column.dataCollection() + "|" + column.name() + "|" + column.typeName()
+                + "|" + column.length() + "|" + column.scale() + "|" + column.isOptional() + "|" + column.defaultValue();
+        if (registrations.containsKey(key)) {
+            return registrations.get(key);
+        }
+        CustomConverter.Converter registered = null;
+        for (Map.Entry<String, CustomConverter<SchemaBuilder, RelationalColumn>> entry : converters.entrySet()) {
+            if (converterName != null && !converterName.equals(entry.getKey())) {
+                continue;
+            }
+            CapturingRegistration registration = new CapturingRegistration();
+            entry.getValue().converterFor(column, registration);
+            if (registration.converter() != null) {
+                registered = registration.converter();
+                break;
+            }
+        }
+        registrations.put(key, registered);
+        return registered;
+    }
+
+    /**
+     * 依次执行所有transform，某个transform返回null(过滤掉)时结果为null
+     */
+    SourceRecord transform(SourceRecord record) {
+        for (Transformation<SourceRecord> transform : transforms) {
+            if (record == null) {
+                return null;
+            }
+            record = transform.apply(record);
+        }
+        return record;
+    }
+
+    @Override
+    public void close() {
+        transforms.forEach(Transformation::close);
+    }
+
+    private static Object instantiate(String type, String defaultPackage) throws ReflectiveOperationException {
+        Class<?> clazz;
+        try {
+            clazz = Class.forName(type);
+        } catch (ClassNotFoundException e) {
+            clazz = Class.forName(defaultPackage + type);
+        }
+        return clazz.getDeclaredConstructor().newInstance();
+    }
+
+    private static String required(Properties props, String key) {
+        String value = props.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing replay setting " + key);
+        }
+        return value.trim();
+    }
+
+    private static Properties subset(Properties props, String prefix) {
+        Properties subset = new Properties();
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(prefix)) {
+                subset.setProperty(key.substring(prefix.length()), props.getProperty(key));
+            }
+        }
+        return subset;
+    }
+
+    private static List<String> list(String value) {
+        List<String> names = new ArrayList<>();
+        if (value != null) {
+            for (String name : value.split(",")) {
+                if (!name.trim().isEmpty()) {
+                    names.add(name.trim());
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,42 @@
+package com.willowtech.debezium.benchmarks.support;
+
+import io.debezium.spi.converter.CustomConverter;
+import io.debezium.spi.converter.RelationalColumn;
+import org.apache.kafka.connect.data.SchemaBuilder;
+
+/**
+ * 基准测试用的{@link CustomConverter.ConverterRegistration}桩：记录converterFor注册的schema和lambda，
+ * 之后直接调用lambda，测的就是Debezium每行数据实际会走的那段代码
+ */
+public class CapturingRegistration implements CustomConverter.ConverterRegistration<SchemaBuilder> {
+
+    private SchemaBuilder schema;
+    private CustomConverter.Converter converter;
+
+    @Override
+    public void register(SchemaBuilder fieldSchema, CustomConverter.Converter converter) {
+        this.schema = fieldSchema;
+        this.converter = converter;
+    }
+
+    public SchemaBuilder schema() {
+        return schema;
+    }
+
+    public CustomConverter.Converter converter() {
+        return converter;
+    }
+
+    /**
+     * 对指定列调用converterFor，返回注册的lambda；列没有被该converter接管时直接报错，避免测了个寂寞
+     */
+    public static CustomConverter.Converter register(CustomConverter<SchemaBuilder, RelationalColumn> customConverter,
+                                                     RelationalColumn column) {
+        CapturingRegistration registration = new CapturingRegistration();
+        customConverter.converterFor(column, registration);
+        if (registration.converter == null) {
+            throw new IllegalStateException("No converter registered for column " + column);
+        }
+        return registration.converter;
+    }
+}
@@ -0,0 +1,158 @@
+package com.willowtech.debezium.benchmarks.support;
+
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按String2ArrayTransform注释里的goods.goods.t_mountain样例构造Debezium envelope
+ */
+public final class Envelopes {
+
+    public static final String TOPIC = "goods.goods.t_mountain";
+
+    public static final Schema ROW_SCHEMA = SchemaBuilder.struct().name("goods.goods.t_mountain.Value").optional()
+            .field("id", Schema.INT64_SCHEMA)
+            .field("name", Schema.OPTIONAL_STRING_SCHEMA)
+            .field("location", Schema.OPTIONAL_STRING_SCHEMA)
+            .field("latitude", Schema.OPTIONAL_STRING_SCHEMA)
+            .field("logtitude", Schema.OPTIONAL_STRING_SCHEMA)
+            .field("altitude", Decimal.builder(2).optional().build())
+            .field("create_user", Schema.OPTIONAL_INT64_SCHEMA)
+            .field("create_time", Schema.OPTIONAL_INT64_SCHEMA)
+            .field("update_time", Schema.OPTIONAL_INT64_SCHEMA)
+            .field("ticket", Decimal.builder(2).optional().build())
+            .field("desc", Schema.OPTIONAL_STRING_SCHEMA)
+            .field("num_array", Schema.OPTIONAL_STRING_SCHEMA)
+            .build();
+
+    public static final Schema SOURCE_SCHEMA = SchemaBuilder.struct().name("io.debezium.connector.mysql.Source")
+            .field("version", Schema.STRING_SCHEMA)
+            .field("connector", Schema.STRING_SCHEMA)
+            .field("name", Schema.STRING_SCHEMA)
+            .field("ts_ms", Schema.INT64_SCHEMA)
+            .field("db", Schema.STRING_SCHEMA)
+            .field("table", Schema.OPTIONAL_STRING_SCHEMA)
+            .field("server_id", Schema.INT64_SCHEMA)
+            .field("file", Schema.STRING_SCHEMA)
+            .field("pos", Schema.INT64_SCHEMA)
+            .field("row", Schema.INT32_SCHEMA)
+            .field("thread", Schema.OPTIONAL_INT64_SCHEMA)
+            .build();
+
+    public static final Schema ENVELOPE_SCHEMA = SchemaBuilder.struct().name("goods.goods.t_mountain.Envelope")
+            .field("before", ROW_SCHEMA)
+            .field("after", ROW_SCHEMA)
+            .field("source", SOURCE_SCHEMA)
+            .field("op", Schema.STRING_SCHEMA)
+            .field("ts_ms", Schema.OPTIONAL_INT64_SCHEMA)
+            .build();
+
+    public static final Schema KEY_SCHEMA = SchemaBuilder.struct().name("goods.goods.t_mountain.Key")
+            .field("id", Schema.INT64_SCHEMA)
+            .build();
+
+    private Envelopes() {
+    }
+
+    public static Struct row(long id, String numArray) {
+        return new Struct(ROW_SCHEMA)
+                .put("id", id)
+                .put("name", "少华山")
+                .put("location", "34.497647,110.073028")
+                .put("latitude", "34.497647")
+                .put("logtitude", "110.073028")
+                .put("altitude", new BigDecimal("1200.00"))
+                .put("create_user", 111111L)
+                .put("create_time", 1710419563000L)
+                .put("update_time", 1710420074000L)
+                .put("ticket", new BigDecimal("0.00"))
+                .put("desc", "少华山在陕西渭南华州区")
+                .put("num_array", numArray);
+    }
+
+    public static Struct source(long pos) {
+        return new Struct(SOURCE_SCHEMA)
+                .put("version", "1.9.4.Final")
+                .put("connector", "mysql")
+                .put("name", "goods")
+                .put("ts_ms", 1710816449000L)
+                .put("db", "goods")
+                .put("table", "t_mountain")
+                .put("server_id", 1L)
+                .put("file", "mysql-bin.000080")
+                .put("pos", pos)
+                .put("row", 0)
+                .put("thread", 118L);
+    }
+
+    /**
+     * op=u 的变更事件，before/after都带上，覆盖transform需要处理两侧的情况
+     */
+    public static Struct envelope(long id, String beforeArray, String afterArray) {
+        return new Struct(ENVELOPE_SCHEMA)
+                .put("before", beforeArray == null ? null : row(id, beforeArray))
+                .put("after", row(id, afterArray))
+                .put("source", source(17105L))
+                .put("op", beforeArray == null ? "c" : "u")
+                .put("ts_ms", 1710821872668L);
+    }
+
+    public static SourceRecord record(Struct envelope) {
+        long id = envelope.getStruct("after").getInt64("id");
+        return new SourceRecord(Collections.singletonMap("server", "goods"), sourceOffset(), TOPIC, null,
+                KEY_SCHEMA, new Struct(KEY_SCHEMA).put("id", id), ENVELOPE_SCHEMA, envelope);
+    }
+
+    /**
+     * schemaless(JsonConverter schemas.enable=false)时envelope是嵌套的Map
+     */
+    public static Map<String, Object> schemalessEnvelope(long id, String beforeArray, String afterArray) {
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("before", beforeArray == null ? null : schemalessRow(id, beforeArray));
+        envelope.put("after", schemalessRow(id, afterArray));
+        envelope.put("op", beforeArray == null ? "c" : "u");
+        envelope.put("ts_ms", 1710821872668L);
+        return envelope;
+    }
+
+    public static SourceRecord schemalessRecord(Map<String, Object> envelope) {
+        return new SourceRecord(Collections.singletonMap("server", "goods"), sourceOffset(), TOPIC, null,
+                null, null, null, envelope);
+    }
+
+    private static Map<String, Object> schemalessRow(long id, String numArray) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        row.put("name", "少华山");
+        row.put("location", "34.497647,110.073028");
+        row.put("latitude", "34.497647");
+        row.put("logtitude", "110.073028");
+        row.put("altitude", "1200.00");
+        row.put("create_user", 111111L);
+        row.put("create_time", 1710419563000L);
+        row.put("update_time", 1710420074000L);
+        row.put("ticket", "0.00");
+        row.put("desc", "少华山在陕西渭南华州区");
+        row.put("num_array", numArray);
+        return row;
+    }
+
+    private static Map<String, Object> sourceOffset() {
+        Map<String, Object> offset = new HashMap<>();
+        offset.put("ts_sec", 1710816449L);
+        offset.put("file", "mysql-bin.000080");
+        offset.put("pos", 16948L);
+        offset.put("row", 1);
+        offset.put("server_id", 1L);
+        offset.put("event", 2);
+        return offset;
+    }
+}
@@ -0,0 +1,119 @@
+package com.willowtech.debezium.benchmarks.support;
+
+import io.debezium.spi.converter.RelationalColumn;
+import java.sql.Types;
+import java.util.OptionalInt;
+
+/**
+ * 基准测试用的{@link RelationalColumn}桩，只提供converterFor会读取的元数据
+ */
+public class StubColumn implements RelationalColumn {
+
+    private final String dataCollection;
+    private final String name;
+    private final String typeName;
+    private final int jdbcType;
+    private final OptionalInt length;
+    private final OptionalInt scale;
+    private final boolean optional;
+    private final Object defaultValue;
+    private final boolean hasDefaultValue;
+
+    private StubColumn(String dataCollection, String name, String typeName, int jdbcType, OptionalInt length,
+                       OptionalInt scale, boolean optional, Object defaultValue, boolean hasDefaultValue) {
+        this.dataCollection = dataCollection;
+        this.name = name;
+        this.typeName = typeName;
+        this.jdbcType = jdbcType;
+        this.length = length;
+        this.scale = scale;
+        this.optional = optional;
+        this.defaultValue = defaultValue;
+        this.hasDefaultValue = hasDefaultValue;
+    }
+
+    public static StubColumn of(String dataCollection, String name, String typeName) {
+        return new StubColumn(dataCollection, name, typeName, Types.OTHER, OptionalInt.empty(), OptionalInt.empty(),
+                true, null, false);
+    }
+
+    public StubColumn withJdbcType(int jdbcType) {
+        return new StubColumn(dataCollection, name, typeName, jdbcType, length, scale, optional, defaultValue, hasDefaultValue);
+    }
+
+    public StubColumn withLength(int length) {
+        return new StubColumn(dataCollection, name, typeName, jdbcType, OptionalInt.of(length), scale, optional, defaultValue, hasDefaultValue);
+    }
+
+    public StubColumn withScale(int scale) {
+        return new StubColumn(dataCollection, name, typeName, jdbcType, length, OptionalInt.of(scale), optional, defaultValue, hasDefaultValue);
+    }
+
+    public StubColumn required() {
+        return new StubColumn(dataCollection, name, typeName, jdbcType, length, scale, false, defaultValue, hasDefaultValue);
+    }
+
+    public StubColumn withDefault(Object defaultValue) {
+        return new StubColumn(dataCollection, name, typeName, jdbcType, length, scale, optional, defaultValue, true);
+    }
+
+    @Override
+    public int jdbcType() {
+        return jdbcType;
+    }
+
+    @Override
+    public int nativeType() {
+        return -1;
+    }
+
+    @Override
+    public String typeName() {
+        return typeName;
+    }
+
+    @Override
+    public String typeExpression() {
+        return typeName;
+    }
+
+    @Override
+    public OptionalInt length() {
+        return length;
+    }
+
+    @Override
+    public OptionalInt scale() {
+        return scale;
+    }
+
+    @Override
+    public boolean isOptional() {
+        return optional;
+    }
+
+    @Override
+    public Object defaultValue() {
+        return defaultValue;
+    }
+
+    @Override
+    public boolean hasDefaultValue() {
+        return hasDefaultValue;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public String dataCollection() {
+        return dataCollection;
+    }
+
+    @Override
+    public String toString() {
+        return dataCollection + "." + name + " " + typeName;
+    }
+}
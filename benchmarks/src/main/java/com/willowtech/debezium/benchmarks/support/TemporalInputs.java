@@ -0,0 +1,78 @@
+package com.willowtech.debezium.benchmarks.support;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+/**
+ * 生成binlog里常见形态的时间值：Debezium MySQL connector交给converter的是
+ * LocalDate/Integer(DATE)、Duration(TIME)、LocalDateTime(DATETIME)、UTC的ZonedDateTime(TIMESTAMP)
+ */
+public final class TemporalInputs {
+
+    /**
+     * 2^n，方便用位运算循环取值
+     */
+    public static final int SIZE = 1024;
+    public static final int MASK = SIZE - 1;
+
+    private static final long BASE_EPOCH_SECOND = LocalDateTime.of(2022, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final long SPAN_SECONDS = 3L * 365 * 86400;
+
+    private TemporalInputs() {
+    }
+
+    public static LocalDate[] localDates(long seed) {
+        Random random = new Random(seed);
+        LocalDate[] values = new LocalDate[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = LocalDate.ofEpochDay(Math.floorDiv(randomEpochSecond(random), 86400L));
+        }
+        return values;
+    }
+
+    public static Integer[] epochDays(long seed) {
+        Random random = new Random(seed);
+        Integer[] values = new Integer[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = (int) Math.floorDiv(randomEpochSecond(random), 86400L);
+        }
+        return values;
+    }
+
+    public static Duration[] durations(long seed) {
+        Random random = new Random(seed);
+        Duration[] values = new Duration[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            // 一半带毫秒，对应TIME(3)列
+            long nanos = random.nextBoolean() ? random.nextInt(1000) * 1_000_000L : 0L;
+            values[i] = Duration.ofSeconds(random.nextInt(86400), nanos);
+        }
+        return values;
+    }
+
+    public static LocalDateTime[] localDateTimes(long seed) {
+        Random random = new Random(seed);
+        LocalDateTime[] values = new LocalDateTime[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = LocalDateTime.ofEpochSecond(randomEpochSecond(random), 0, ZoneOffset.UTC);
+        }
+        return values;
+    }
+
+    public static ZonedDateTime[] utcZonedDateTimes(long seed) {
+        Random random = new Random(seed);
+        ZonedDateTime[] values = new ZonedDateTime[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = LocalDateTime.ofEpochSecond(randomEpochSecond(random), 0, ZoneOffset.UTC).atZone(ZoneOffset.UTC);
+        }
+        return values;
+    }
+
+    private static long randomEpochSecond(Random random) {
+        return BASE_EPOCH_SECOND + (long) (random.nextDouble() * SPAN_SECONDS);
+    }
+}
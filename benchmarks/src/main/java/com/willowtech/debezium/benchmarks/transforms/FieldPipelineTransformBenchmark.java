@@ -0,0 +1,56 @@
+package com.willowtech.debezium.benchmarks.transforms;
+
+import com.willowtech.debezium.benchmarks.support.Envelopes;
+import com.willowtech.debezium.transforms.FieldPipelineTransform;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.openjdk.jmh.annotations.*;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FieldPipelineTransform.apply：4个操作合并成一次遍历，和String2ArrayTransformBenchmark对比可以看出串联多个SMT的代价
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldPipelineTransformBenchmark {
+
+    private static final int SIZE = 256;
+    private static final int MASK = SIZE - 1;
+
+    private FieldPipelineTransform<SourceRecord> transform;
+    private SourceRecord[] updates;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setupTransform() {
+        transform = new FieldPipelineTransform<>();
+        transform.configure(Collections.singletonMap(FieldPipelineTransform.OPERATIONS_PREFIX + "t_mountain",
+                "toArray:num_array,rename:num_array:nums,cast:latitude:float64,drop:desc"));
+    }
+
+    @Setup(Level.Trial)
+    public void setupRecords() {
+        updates = new SourceRecord[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            updates[i] = Envelopes.record(Envelopes.envelope(i, "[\"100\"]", "[\"100\",\"" + i + "\"]"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        transform.close();
+    }
+
+    private int next() {
+        return cursor++ & MASK;
+    }
+
+    @Benchmark
+    public SourceRecord update() {
+        return transform.apply(updates[next()]);
+    }
+}
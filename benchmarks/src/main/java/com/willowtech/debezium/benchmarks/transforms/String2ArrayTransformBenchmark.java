@@ -0,0 +1,71 @@
+package com.willowtech.debezium.benchmarks.transforms;
+
+import com.willowtech.debezium.benchmarks.support.Envelopes;
+import com.willowtech.debezium.transforms.String2ArrayTransform;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.openjdk.jmh.annotations.*;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * String2ArrayTransform.apply，输入为t_mountain的变更事件
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class String2ArrayTransformBenchmark {
+
+    private static final int SIZE = 256;
+    private static final int MASK = SIZE - 1;
+
+    private String2ArrayTransform<SourceRecord> transform;
+    private SourceRecord[] inserts;
+    private SourceRecord[] updates;
+    private SourceRecord[] schemalessUpdates;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setupTransform() {
+        transform = new String2ArrayTransform<>();
+        transform.configure(Collections.singletonMap(String2ArrayTransform.FIELDS_CONFIG, "num_array"));
+    }
+
+    @Setup(Level.Trial)
+    public void setupRecords() {
+        inserts = new SourceRecord[SIZE];
+        updates = new SourceRecord[SIZE];
+        schemalessUpdates = new SourceRecord[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            inserts[i] = Envelopes.record(Envelopes.envelope(i, null, "[\"100\",\"" + i + "\"]"));
+            updates[i] = Envelopes.record(Envelopes.envelope(i, "[\"100\"]", "[\"100\",\"" + i + "\"]"));
+            schemalessUpdates[i] = Envelopes.schemalessRecord(Envelopes.schemalessEnvelope(i, "[\"100\"]", "[\"100\",\"" + i + "\"]"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        transform.close();
+    }
+
+    private int next() {
+        return cursor++ & MASK;
+    }
+
+    @Benchmark
+    public SourceRecord insert() {
+        return transform.apply(inserts[next()]);
+    }
+
+    @Benchmark
+    public SourceRecord update() {
+        return transform.apply(updates[next()]);
+    }
+
+    @Benchmark
+    public SourceRecord schemalessUpdate() {
+        return transform.apply(schemalessUpdates[next()]);
+    }
+}
@@ -0,0 +1,94 @@
+package com.willowtech.debezium.cache;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 按引用(==)比较key的有界LRU缓存，用于按输入Schema缓存推导结果：
+ * ConnectSchema的equals/hashCode会递归比较所有字段，每条记录算一次代价太高，而同一个topic的记录共享同一个Schema实例
+ * <p>
+ * 最近一次命中的条目单独保存，连续相同schema的记录不需要加锁
+ *
+ * @param <K> key类型
+ * @param <V> 缓存值类型
+ */
+public final class IdentityLruCache<K, V> {
+
+    private final int capacity;
+    private final Map<K, Node<K, V>> map;
+    /**
+     * 双向链表的哨兵，head.next为最近使用，head.prev为最久未使用
+     */
+    private final Node<K, V> head = new Node<>(null, null);
+    private volatile Node<K, V> last;
+
+    public IdentityLruCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.map = new IdentityHashMap<>(capacity);
+        head.next = head;
+        head.prev = head;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Node<K, V> node = last;
+        if (node != null && node.key == key) {
+            return node.value;
+        }
+        synchronized (this) {
+            node = map.get(key);
+            if (node == null) {
+                node = new Node<>(key, loader.apply(key));
+                map.put(key, node);
+                if (map.size() > capacity) {
+                    Node<K, V> eldest = head.prev;
+                    unlink(eldest);
+                    map.remove(eldest.key);
+                }
+            } else {
+                unlink(node);
+            }
+            linkFirst(node);
+        }
+        last = node;
+        return node.value;
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        head.next = head;
+        head.prev = head;
+        last = null;
+    }
+
+    private void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+    }
+
+    private void linkFirst(Node<K, V> node) {
+        node.next = head.next;
+        node.prev = head;
+        head.next.prev = node;
+        head.next = node;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.willowtech.debezium.cache;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * 以long为key的有界缓存，用于epoch-day、epoch-second这类低基数的值到格式化结果的映射
+ * <p>
+ * 淘汰策略：
+ * 1、{@link Eviction#DIRECT}：直接映射，按key的哈希落到固定槽位，冲突时覆盖旧值；查找不装箱、不加锁、无分配
+ * 2、{@link Eviction#LRU}：按访问顺序淘汰最久未使用的值，命中率更稳定，但需要加锁(按key分段，见{@link StripedLru})并且key会装箱
+ *
+ * @param <V> 缓存值类型
+ */
+public abstract class LongKeyCache<V> {
+
+    public enum Eviction {
+        DIRECT,
+        LRU;
+
+        public static Eviction parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    protected LongKeyCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public static <V> LongKeyCache<V> create(int capacity, Eviction eviction) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        switch (eviction) {
+            case LRU:
+                return new Lru<>(capacity);
+            case DIRECT:
+            default:
+                return new Direct<>(capacity);
+        }
+    }
+
+    /**
+     * 取缓存值，未命中时调用loader计算并放入缓存；loader应返回非null值
+     */
+    public final V get(long key, LongFunction<V> loader) {
+        V value = lookup(key);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        value = loader.apply(key);
+        store(key, value);
+        return value;
+    }
+
+    protected abstract V lookup(long key);
+
+    protected abstract void store(long key, V value);
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{capacity=" + capacity + ", hits=" + hits() + ", misses=" + misses() + "}";
+    }
+
+    /**
+     * 槽位里放不可变的Entry，多线程下读到旧Entry或新Entry都是正确的，不需要加锁
+     */
+    private static final class Direct<V> extends LongKeyCache<V> {
+
+        private final Entry<V>[] table;
+        private final int mask;
+
+        @SuppressWarnings("unchecked")
+        Direct(int capacity) {
+            super(capacity);
+            int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+            this.table = (Entry<V>[]) new Entry<?>[size];
+            this.mask = size - 1;
+        }
+
+        @Override
+        protected V lookup(long key) {
+            Entry<V> entry = table[index(key)];
+            return entry != null && entry.key == key ? entry.value : null;
+        }
+
+        @Override
+        protected void store(long key, V value) {
+            table[index(key)] = new Entry<>(key, value);
+        }
+
+        private int index(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+
+    private static final class Entry<V> {
+        final long key;
+        final V value;
+
+        Entry(long key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class Lru<V> extends LongKeyCache<V> {
+
+        private final StripedLru<Long, V> stripes;
+
+        Lru(int capacity) {
+            super(capacity);
+            this.stripes = new StripedLru<>(capacity);
+        }
+
+        @Override
+        protected V lookup(long key) {
+            return stripes.get(key, Long.hashCode(key));
+        }
+
+        @Override
+        protected void store(long key, V value) {
+            stripes.put(key, Long.hashCode(key), value);
+        }
+    }
+}
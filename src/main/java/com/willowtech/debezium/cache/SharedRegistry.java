@@ -0,0 +1,69 @@
+package com.willowtech.debezium.cache;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Worker(JVM)级别的共享注册表：同一个worker里多个连接器、多个task配置相同时，共用同一份不可变的格式化器、时区表和缓存，
+ * 不再每个实例各建一份
+ * <p>
+ * 1、key由 所属类 + 规范化后的配置 组成，见{@link #normalize(Properties, String...)}
+ * 2、放入的对象必须是不可变的(字段都是final)，或者本身是线程安全的(如{@link LongKeyCache}、{@link StringKeyCache})；
+ * 通过ConcurrentHashMap发布，其他线程拿到的一定是构造完成的对象
+ * 3、没有用computeIfAbsent：factory里允许再次调用get(如核心对象里再取共享的时区表)。
+ * 并发首次创建时factory可能执行多次，最终只保留先放入的一个
+ * 4、配置种类有限，注册表不淘汰
+ */
+public final class SharedRegistry {
+
+    private static final ConcurrentMap<String, Object> ENTRIES = new ConcurrentHashMap<>();
+
+    private SharedRegistry() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T get(Class<?> owner, String key, Supplier<T> factory) {
+        final String fullKey = owner.getName() + '|' + key;
+        Object value = ENTRIES.get(fullKey);
+        if (value == null) {
+            Object created = factory.get();
+            value = ENTRIES.putIfAbsent(fullKey, created);
+            if (value == null) {
+                value = created;
+            }
+        }
+        return (T) value;
+    }
+
+    /**
+     * 取出以prefixes开头的配置，去掉首尾空白、跳过空值，按key排序拼成 k=v;k=v，
+     * 配置的书写顺序和空白不影响共享
+     */
+    public static String normalize(Properties props, String... prefixes) {
+        final Map<String, String> selected = new TreeMap<>();
+        for (String name : props.stringPropertyNames()) {
+            for (String prefix : prefixes) {
+                if (name.startsWith(prefix)) {
+                    String value = props.getProperty(name).trim();
+                    if (!value.isEmpty()) {
+                        selected.put(name, value);
+                    }
+                    break;
+                }
+            }
+        }
+        final StringBuilder key = new StringBuilder();
+        for (Map.Entry<String, String> entry : selected.entrySet()) {
+            key.append(entry.getKey()).append('=').append(entry.getValue()).append(';');
+        }
+        return key.toString();
+    }
+
+    public static int size() {
+        return ENTRIES.size();
+    }
+}
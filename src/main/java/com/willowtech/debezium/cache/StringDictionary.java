@@ -0,0 +1,205 @@
+package com.willowtech.debezium.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有界的字符串字典，把相等的字符串归一成同一个实例，用于状态、类型、城市这类低基数的列
+ * <p>
+ * 淘汰策略与{@link LongKeyCache}相同：
+ * 1、{@link LongKeyCache.Eviction#DIRECT}：按哈希落到固定槽位(槽位数取不小于容量2倍的2的幂)，冲突时覆盖；无锁
+ * 2、{@link LongKeyCache.Eviction#LRU}：最多保留capacity个不同的值，淘汰最久未使用的；需要加锁
+ * <p>
+ * 高基数保护：每sampleSize次查找统计一次未命中率，超过maxMissRatio说明这一列不是低基数，
+ * 字典永久关闭并释放已缓存的值，之后直接返回输入
+ */
+public abstract class StringDictionary {
+
+    private final int capacity;
+    private final int sampleSize;
+    private final double maxMissRatio;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    /**
+     * 当前统计窗口内的查找次数和未命中次数，窗口满时由恰好数到sampleSize的线程判断并清零
+     */
+    private final AtomicInteger windowLookups = new AtomicInteger();
+    private final AtomicInteger windowMisses = new AtomicInteger();
+    private volatile boolean enabled = true;
+    private volatile Runnable disabledListener = () -> {
+    };
+
+    protected StringDictionary(int capacity, int sampleSize, double maxMissRatio) {
+        this.capacity = capacity;
+        this.sampleSize = sampleSize;
+        this.maxMissRatio = maxMissRatio;
+    }
+
+    public static StringDictionary create(int capacity, LongKeyCache.Eviction eviction, int sampleSize, double maxMissRatio) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Dictionary capacity must be positive: " + capacity);
+        }
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("Dictionary sample size must be positive: " + sampleSize);
+        }
+        if (maxMissRatio < 0 || maxMissRatio > 1) {
+            throw new IllegalArgumentException("Dictionary miss ratio must be between 0 and 1: " + maxMissRatio);
+        }
+        switch (eviction) {
+            case LRU:
+                return new Lru(capacity, sampleSize, maxMissRatio);
+            case DIRECT:
+            default:
+                return new Direct(capacity, sampleSize, maxMissRatio);
+        }
+    }
+
+    /**
+     * 返回字典中与value相等的实例；未命中时把value放入字典并原样返回。字典关闭后直接返回value
+     */
+    public final String intern(String value) {
+        if (!enabled || value == null) {
+            return value;
+        }
+        String cached = lookup(value);
+        boolean miss = cached == null;
+        if (miss) {
+            misses.increment();
+            store(value);
+            cached = value;
+        } else {
+            hits.increment();
+        }
+        sample(miss);
+        return cached;
+    }
+
+    private void sample(boolean miss) {
+        int windowMissCount = miss ? windowMisses.incrementAndGet() : windowMisses.get();
+        if (windowLookups.incrementAndGet() != sampleSize) {
+            return;
+        }
+        if (windowMissCount > sampleSize * maxMissRatio) {
+            enabled = false;
+            clear();
+            disabledListener.run();
+        }
+        windowMisses.set(0);
+        windowLookups.set(0);
+    }
+
+    /**
+     * 字典因高基数关闭时回调一次，例如记录日志
+     */
+    public StringDictionary onDisabled(Runnable listener) {
+        this.disabledListener = listener;
+        return this;
+    }
+
+    protected abstract String lookup(String value);
+
+    protected abstract void store(String value);
+
+    protected abstract void clear();
+
+    /**
+     * 因高基数被关闭后返回false
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{capacity=" + capacity + ", enabled=" + enabled
+                + ", hits=" + hits() + ", misses=" + misses() + "}";
+    }
+
+    /**
+     * String不可变，槽位直接放字符串本身，多线程下读到旧值或新值都是正确的
+     */
+    private static final class Direct extends StringDictionary {
+
+        private final AtomicReferenceArray<String> table;
+        private final int shift;
+
+        Direct(int capacity, int sampleSize, double maxMissRatio) {
+            super(capacity, sampleSize, maxMissRatio);
+            int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 2;
+            this.table = new AtomicReferenceArray<>(size);
+            this.shift = 32 - Integer.numberOfTrailingZeros(size);
+        }
+
+        @Override
+        protected String lookup(String value) {
+            String cached = table.get(index(value));
+            return value.equals(cached) ? cached : null;
+        }
+
+        @Override
+        protected void store(String value) {
+            table.lazySet(index(value), value);
+        }
+
+        @Override
+        protected void clear() {
+            for (int i = 0; i < table.length(); i++) {
+                table.lazySet(i, null);
+            }
+        }
+
+        /**
+         * 取乘积的高位：短字符串(如s1、s2)的hashCode往往是连续的，取低位容易冲突
+         */
+        private int index(String value) {
+            return (value.hashCode() * 0x9E3779B9) >>> shift;
+        }
+    }
+
+    private static final class Lru extends StringDictionary {
+
+        private final Map<String, String> map;
+
+        Lru(final int capacity, int sampleSize, double maxMissRatio) {
+            super(capacity, sampleSize, maxMissRatio);
+            this.map = new LinkedHashMap<String, String>(capacity * 4 / 3 + 1, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        @Override
+        protected synchronized String lookup(String value) {
+            return map.get(value);
+        }
+
+        @Override
+        protected synchronized void store(String value) {
+            map.put(value, value);
+        }
+
+        @Override
+        protected synchronized void clear() {
+            map.clear();
+        }
+    }
+}
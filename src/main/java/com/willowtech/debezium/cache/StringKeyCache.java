@@ -0,0 +1,134 @@
+package com.willowtech.debezium.cache;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 以字符串为key的有界缓存，用于同一个列值反复出现时复用解析结果(如拆分后的数组)
+ * <p>
+ * 淘汰策略与{@link LongKeyCache}相同：DIRECT直接映射、冲突覆盖、无锁；LRU按访问顺序淘汰、分段加锁。
+ * 缓存值会被多条记录共享，调用方应放入不可变的值
+ *
+ * @param <V> 缓存值类型
+ */
+public abstract class StringKeyCache<V> {
+
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    protected StringKeyCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public static <V> StringKeyCache<V> create(int capacity, LongKeyCache.Eviction eviction) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        switch (eviction) {
+            case LRU:
+                return new Lru<>(capacity);
+            case DIRECT:
+            default:
+                return new Direct<>(capacity);
+        }
+    }
+
+    /**
+     * 取缓存值，未命中时调用loader计算并放入缓存；loader应返回非null值
+     */
+    public final V get(String key, Function<String, V> loader) {
+        V value = lookup(key);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        value = loader.apply(key);
+        store(key, value);
+        return value;
+    }
+
+    protected abstract V lookup(String key);
+
+    protected abstract void store(String key, V value);
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{capacity=" + capacity + ", hits=" + hits() + ", misses=" + misses() + "}";
+    }
+
+    /**
+     * 槽位里放不可变的Entry，多线程下读到旧Entry或新Entry都是正确的，不需要加锁
+     */
+    private static final class Direct<V> extends StringKeyCache<V> {
+
+        private final AtomicReferenceArray<Entry<V>> table;
+        private final int shift;
+
+        Direct(int capacity) {
+            super(capacity);
+            int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+            this.table = new AtomicReferenceArray<>(size);
+            this.shift = 32 - Integer.numberOfTrailingZeros(size);
+        }
+
+        @Override
+        protected V lookup(String key) {
+            Entry<V> entry = table.get(index(key));
+            return entry != null && entry.key.equals(key) ? entry.value : null;
+        }
+
+        @Override
+        protected void store(String key, V value) {
+            table.lazySet(index(key), new Entry<>(key, value));
+        }
+
+        private int index(String key) {
+            return (key.hashCode() * 0x9E3779B9) >>> shift;
+        }
+    }
+
+    private static final class Entry<V> {
+        final String key;
+        final V value;
+
+        Entry(String key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class Lru<V> extends StringKeyCache<V> {
+
+        private final StripedLru<String, V> stripes;
+
+        Lru(int capacity) {
+            super(capacity);
+            this.stripes = new StripedLru<>(capacity);
+        }
+
+        @Override
+        protected V lookup(String key) {
+            return stripes.get(key, key.hashCode());
+        }
+
+        @Override
+        protected void store(String key, V value) {
+            stripes.put(key, key.hashCode(), value);
+        }
+    }
+}
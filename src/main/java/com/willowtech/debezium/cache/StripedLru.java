@@ -0,0 +1,65 @@
+package com.willowtech.debezium.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 分段的LRU：按key的哈希分到多个段，每段一个按访问顺序淘汰的LinkedHashMap，各自加锁。
+ * 通过{@link SharedRegistry}被多个task共用时，锁竞争分散到各段
+ * <p>
+ * 淘汰是段内的LRU；每段容量向上取整，总容量最多比capacity多 段数-1 个
+ */
+final class StripedLru<K, V> {
+
+    private static final int MAX_STRIPES = 16;
+    /**
+     * 每段至少这么多个值，小缓存只有一段，与不分段时的LRU完全一致
+     */
+    private static final int MIN_STRIPE_CAPACITY = 64;
+
+    private final Map<K, V>[] stripes;
+    private final int mask;
+
+    @SuppressWarnings("unchecked")
+    StripedLru(int capacity) {
+        int count = 1;
+        while (count < MAX_STRIPES && capacity / (count << 1) >= MIN_STRIPE_CAPACITY) {
+            count <<= 1;
+        }
+        final int stripeCapacity = (capacity + count - 1) / count;
+        this.stripes = (Map<K, V>[]) new Map<?, ?>[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new LinkedHashMap<K, V>(stripeCapacity * 4 / 3 + 1, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > stripeCapacity;
+                }
+            };
+        }
+        this.mask = count - 1;
+    }
+
+    V get(K key, int hash) {
+        final Map<K, V> stripe = stripeFor(hash);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    void put(K key, int hash, V value) {
+        final Map<K, V> stripe = stripeFor(hash);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    private Map<K, V> stripeFor(int hash) {
+        return stripes[((hash * 0x9E3779B9) >>> 16) & mask];
+    }
+}
@@ -0,0 +1,267 @@
+package com.willowtech.debezium.converter;
+
+import com.willowtech.debezium.error.ErrorHandler;
+import com.willowtech.debezium.error.ErrorPolicy;
+import com.willowtech.debezium.error.StacklessDataException;
+import com.willowtech.debezium.metrics.ColumnMetrics;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.selector.ColumnSelector;
+import io.debezium.spi.converter.CustomConverter;
+import io.debezium.spi.converter.RelationalColumn;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * DECIMAL列转数值：Debezium默认把DECIMAL编码成 bytes+scale(org.apache.kafka.connect.data.Decimal)，下游解码代价高
+ * <p>
+ * 1、要处理的列用selector/selector.exclude选择(见{@link ColumnSelector})，处理DECIMAL/NUMERIC列
+ * 2、decimal.mode：
+ * --string(默认)：toPlainString，不会出现科学计数法
+ * --double：float64
+ * --int64：按列的scale放大后的整数(unscaled value)，如DECIMAL(10,2)的12.34输出1234，schema参数scale记录列的scale
+ * 3、int64的快速路径：精度不超过18的列，值的scale与列一致时直接取unscaled value；String输入直接按字符累加成long；
+ * 都不创建新的BigDecimal。scale比列大(需要舍入，HALF_UP)或精度超过18时走BigDecimal
+ * 4、decimal.overflow：int64放不下时的处理，fail(默认，抛DataException)或null
+ * 5、无法解析的值按error.policy处理(见{@link ErrorPolicy})，默认null，也可以是fail；没有合适的兜底值，default和passthrough同null。
+ * 解析失败和溢出都按列计数、限频汇总日志，不逐行打印
+ *
+ * @since 1.0.0
+ */
+@Slf4j
+public class DecimalConverter implements CustomConverter<SchemaBuilder, RelationalColumn> {
+
+    private static final Set<String> DECIMAL_TYPES = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    /**
+     * 精度不超过18的DECIMAL，unscaled value一定在long范围内
+     */
+    private static final int MAX_LONG_PRECISION = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_LONG_PRECISION + 1];
+
+    static {
+        DECIMAL_TYPES.addAll(Arrays.asList("DECIMAL", "DECIMAL UNSIGNED", "NUMERIC", "NUMERIC UNSIGNED", "DEC", "FIXED"));
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    enum Mode {
+        STRING,
+        DOUBLE,
+        INT64
+    }
+
+    private Mode mode = Mode.STRING;
+    private ErrorPolicy errorPolicy;
+    private ErrorPolicy overflowPolicy;
+    private ColumnSelector selector = ColumnSelector.ALL;
+    private PluginMetrics metrics = PluginMetrics.DISABLED;
+
+    @Override
+    public void configure(Properties props) {
+        metrics = PluginMetrics.forConverter(props, getClass());
+        selector = ColumnSelector.fromProperties(props);
+        String modeSetting = props.getProperty("decimal.mode", "string").trim();
+        String overflowSetting = props.getProperty("decimal.overflow", "fail").trim().toLowerCase(Locale.ROOT);
+        try {
+            mode = Mode.valueOf(modeSetting.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            log.error("The \"{}\" setting is illegal:{}", "decimal.mode", modeSetting);
+            throw e;
+        }
+        if (!"fail".equals(overflowSetting) && !"null".equals(overflowSetting)) {
+            log.error("The \"{}\" setting is illegal:{}", "decimal.overflow", overflowSetting);
+            throw new IllegalArgumentException("Unknown decimal.overflow: " + overflowSetting);
+        }
+        errorPolicy = ErrorPolicy.fromProperties(props, ErrorPolicy.Mode.NULL);
+        overflowPolicy = errorPolicy.withMode("null".equals(overflowSetting) ? ErrorPolicy.Mode.NULL : ErrorPolicy.Mode.FAIL);
+        log.info("decimal mode {}, overflow {}, error policy {}", mode, overflowSetting, errorPolicy);
+    }
+
+    @Override
+    public void converterFor(RelationalColumn column, ConverterRegistration<SchemaBuilder> registration) {
+        if (!DECIMAL_TYPES.contains(column.typeName()) || !selector.matches(column)) {
+            return;
+        }
+        final String columnName = column.dataCollection() + "." + column.name();
+        final ColumnMetrics columnMetrics = metrics.column(columnName);
+        final int precision = column.length().orElse(Integer.MAX_VALUE);
+        final int scale = column.scale().orElse(0);
+        final ErrorHandler errorHandler = errorPolicy.handler(columnName, columnMetrics, () -> null, null);
+        SchemaBuilder schemaBuilder;
+        Converter converter;
+        switch (mode) {
+            case DOUBLE:
+                schemaBuilder = SchemaBuilder.float64().optional().name("com.willowtech.debezium.decimal.float64");
+                converter = input -> toDouble(input, errorHandler);
+                break;
+            case INT64:
+                schemaBuilder = SchemaBuilder.int64().optional().name("com.willowtech.debezium.decimal.int64")
+                        .parameter("scale", Integer.toString(scale));
+                final ErrorHandler overflowHandler = overflowPolicy.handler(columnName, columnMetrics, () -> null, null);
+                converter = input -> toScaledLong(input, precision, scale, errorHandler, overflowHandler);
+                break;
+            case STRING:
+            default:
+                schemaBuilder = SchemaBuilder.string().optional().name("com.willowtech.debezium.decimal.string");
+                converter = DecimalConverter::toPlainString;
+                break;
+        }
+        registration.register(schemaBuilder, PluginMetrics.instrument(columnMetrics, converter));
+        log.info("register decimal converter for column {} ({},{}) to schema {}", columnName,
+                precision == Integer.MAX_VALUE ? "?" : precision, scale, schemaBuilder.name());
+    }
+
+    private static Object toPlainString(Object input) {
+        if (input instanceof BigDecimal) {
+            return ((BigDecimal) input).toPlainString();
+        }
+        return input == null ? null : input.toString().trim();
+    }
+
+    /**
+     * BigDecimal.doubleValue对unscaled value较小的值只做一次除法
+     */
+    private static Object toDouble(Object input, ErrorHandler errorHandler) {
+        if (input == null) {
+            return null;
+        }
+        if (input instanceof Number) {
+            return ((Number) input).doubleValue();
+        }
+        if (input instanceof CharSequence) {
+            try {
+                return Double.parseDouble(input.toString().trim());
+            } catch (NumberFormatException e) {
+                return errorHandler.onError(input, e);
+            }
+        }
+        return errorHandler.onError(input, unsupported(input));
+    }
+
+    private static Object toScaledLong(Object input, int precision, int scale, ErrorHandler errorHandler, ErrorHandler overflowHandler) {
+        if (input == null) {
+            return null;
+        }
+        if (input instanceof BigDecimal) {
+            BigDecimal value = (BigDecimal) input;
+            if (precision <= MAX_LONG_PRECISION && value.scale() == scale && value.precision() <= MAX_LONG_PRECISION) {
+                return value.unscaledValue().longValue();
+            }
+            if (precision <= MAX_LONG_PRECISION && value.scale() >= 0 && value.scale() < scale
+                    && value.precision() + scale - value.scale() <= MAX_LONG_PRECISION) {
+                return value.unscaledValue().longValue() * POWERS_OF_TEN[scale - value.scale()];
+            }
+            try {
+                return value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            } catch (ArithmeticException e) {
+                return overflow(input, overflowHandler);
+            }
+        }
+        if (input instanceof Long || input instanceof Integer || input instanceof Short || input instanceof Byte) {
+            long value = ((Number) input).longValue();
+            if (scale > MAX_LONG_PRECISION) {
+                return overflow(input, overflowHandler);
+            }
+            try {
+                return Math.multiplyExact(value, POWERS_OF_TEN[scale]);
+            } catch (ArithmeticException e) {
+                return overflow(input, overflowHandler);
+            }
+        }
+        if (input instanceof CharSequence) {
+            Long value;
+            try {
+                value = parseScaled((CharSequence) input, scale);
+            } catch (ArithmeticException e) {
+                return overflow(input, overflowHandler);
+            }
+            return value != null ? value : errorHandler.onError(input, new StacklessDataException("Not a plain decimal number"));
+        }
+        if (input instanceof Number) {
+            BigDecimal value;
+            try {
+                value = new BigDecimal(input.toString());
+            } catch (NumberFormatException e) {
+                // NaN、Infinity
+                return errorHandler.onError(input, e);
+            }
+            return toScaledLong(value, precision, scale, errorHandler, overflowHandler);
+        }
+        return errorHandler.onError(input, unsupported(input));
+    }
+
+    /**
+     * decimal.overflow=fail时抛DataException，null时输出null；都由ErrorHandler计数
+     */
+    private static Object overflow(Object input, ErrorHandler overflowHandler) {
+        return overflowHandler.onError(input, new StacklessDataException("Decimal value '" + input + "' does not fit in int64"));
+    }
+
+    private static StacklessDataException unsupported(Object input) {
+        return new StacklessDataException("Unsupported input type " + input.getClass().getName());
+    }
+
+    /**
+     * 手写扫描十进制字符串，按scale放大成long：小数位不足时补0，多出的小数位按HALF_UP舍入(只看第一位被舍去的数字)，
+     * 不支持科学计数法。格式不对返回null，超出long范围抛ArithmeticException
+     */
+    static Long parseScaled(CharSequence text, int scale) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        int droppedDigits = 0;
+        boolean dot = false;
+        boolean roundUp = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (dot && fractionDigits == scale) {
+                    roundUp |= droppedDigits++ == 0 && c >= '5';
+                    continue;
+                }
+                // 负数按负方向累加，Long.MIN_VALUE也能表示
+                unscaled = Math.addExact(Math.multiplyExact(unscaled, 10), negative ? '0' - c : c - '0');
+                if (dot) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                return null;
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+        for (; fractionDigits < scale; fractionDigits++) {
+            unscaled = Math.multiplyExact(unscaled, 10);
+        }
+        if (roundUp) {
+            unscaled = Math.addExact(unscaled, negative ? -1 : 1);
+        }
+        return unscaled;
+    }
+}
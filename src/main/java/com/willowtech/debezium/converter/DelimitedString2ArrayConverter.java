@@ -0,0 +1,189 @@
+package com.willowtech.debezium.converter;
+
+import com.willowtech.debezium.cache.LongKeyCache;
+import com.willowtech.debezium.cache.SharedRegistry;
+import com.willowtech.debezium.cache.StringKeyCache;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.selector.ColumnSelector;
+import io.debezium.spi.converter.CustomConverter;
+import io.debezium.spi.converter.RelationalColumn;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 分隔符字符串转数组：把 'aaa,bbb,ccc' 转为 ["aaa","bbb","ccc"]，代替README中ES ingest pipeline的split处理器
+ * <p>
+ * 1、要处理的列用selector/selector.exclude选择(见{@link ColumnSelector})，只处理CHAR/VARCHAR/TEXT系列的列
+ * 2、split.delimiter：分隔符，可以是多个字符，默认','；按indexOf逐段查找，不用正则
+ * 3、split.trim：去掉每个元素首尾的空白，默认false；split.drop.empty：丢弃空元素，默认false；空字符串输出空数组
+ * 4、split.escape：转义字符(一个字符)，默认不启用；启用后 转义字符+分隔符 表示分隔符本身，转义字符+转义字符 表示转义字符本身，
+ * 只有包含转义字符的元素才逐字符处理
+ * 5、split.cache.size：按原始值缓存拆分结果(不可变List)，默认1024，0表示不缓存；split.cache.eviction：direct(默认)或lru；
+ * 超过256个字符的值不缓存；split.*配置相同的实例共用一个缓存
+ * 6、byte[]输入按split.charset解码，默认UTF-8
+ *
+ * @since 1.0.0
+ */
+@Slf4j
+public class DelimitedString2ArrayConverter implements CustomConverter<SchemaBuilder, RelationalColumn> {
+
+    private static final Set<String> SOURCE_TYPES = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private static final int MAX_CACHED_LENGTH = 256;
+    private static final int NO_ESCAPE = -1;
+
+    static {
+        Collections.addAll(SOURCE_TYPES, "CHAR", "VARCHAR", "TINYTEXT", "TEXT", "MEDIUMTEXT", "LONGTEXT");
+    }
+
+    private String delimiter = ",";
+    private int escape = NO_ESCAPE;
+    private boolean trim = false;
+    private boolean dropEmpty = false;
+    private int cacheSize = 1024;
+    private LongKeyCache.Eviction cacheEviction = LongKeyCache.Eviction.DIRECT;
+    private Charset charset = StandardCharsets.UTF_8;
+    private StringKeyCache<List<String>> cache;
+    private final Function<String, List<String>> cacheLoader = text -> Collections.unmodifiableList(split(text));
+    private ColumnSelector selector = ColumnSelector.ALL;
+    private PluginMetrics metrics = PluginMetrics.DISABLED;
+
+    @Override
+    public void configure(Properties props) {
+        metrics = PluginMetrics.forConverter(props, getClass());
+        selector = ColumnSelector.fromProperties(props);
+        // 分隔符允许是空白(如制表符)，不做trim
+        String delimiterSetting = props.getProperty("split.delimiter");
+        if (delimiterSetting != null && !delimiterSetting.isEmpty()) {
+            delimiter = delimiterSetting;
+        }
+        readProps(props, "split.escape", e -> {
+            if (e.length() != 1 || e.charAt(0) == delimiter.charAt(0)) {
+                throw new IllegalArgumentException("split.escape must be a single char different from the delimiter: " + e);
+            }
+            escape = e.charAt(0);
+        });
+        readProps(props, "split.trim", t -> trim = Boolean.parseBoolean(t));
+        readProps(props, "split.drop.empty", d -> dropEmpty = Boolean.parseBoolean(d));
+        readProps(props, "split.cache.size", s -> cacheSize = Integer.parseInt(s));
+        readProps(props, "split.cache.eviction", e -> cacheEviction = LongKeyCache.Eviction.parse(e));
+        readProps(props, "split.charset", c -> charset = Charset.forName(c));
+        if (cacheSize > 0) {
+            // 拆分结果只由生效的split.*决定，配置相同的连接器、task共用一个缓存；命中/未命中计数注册为cache=split的MBean。
+            // key用解析后的值而不是normalize(props)：后者会trim，把'\t'、' '这类分隔符当成默认值；分隔符放最后，不需要转义
+            final int size = cacheSize;
+            final LongKeyCache.Eviction eviction = cacheEviction;
+            String key = "escape=" + escape + ",trim=" + trim + ",drop.empty=" + dropEmpty + ",charset=" + charset.name()
+                    + ",cache.size=" + size + ",cache.eviction=" + eviction + ",delimiter=" + delimiter;
+            cache = SharedRegistry.get(DelimitedString2ArrayConverter.class, key, () -> StringKeyCache.create(size, eviction));
+            metrics.registerCache("split", cache.capacity(), cache::hits, cache::misses);
+        }
+        log.info("split delimiter '{}', escape {}, trim {}, drop empty {}, cache {}",
+                delimiter, escape == NO_ESCAPE ? "none" : "'" + (char) escape + "'", trim, dropEmpty, cache);
+    }
+
+    private void readProps(Properties properties, String settingKey, Consumer<String> callback) {
+        String settingValue = properties.getProperty(settingKey);
+        if (settingValue == null || settingValue.trim().isEmpty()) {
+            return;
+        }
+        try {
+            callback.accept(settingValue.trim());
+        } catch (IllegalArgumentException e) {
+            log.error("The \"{}\" setting is illegal:{}", settingKey, settingValue);
+            throw e;
+        }
+    }
+
+    @Override
+    public void converterFor(RelationalColumn column, ConverterRegistration<SchemaBuilder> registration) {
+        if (!SOURCE_TYPES.contains(column.typeName()) || !selector.matches(column)) {
+            return;
+        }
+        SchemaBuilder schemaBuilder = SchemaBuilder.array(Schema.STRING_SCHEMA).optional()
+                .name("com.willowtech.debezium.delimited.array");
+        registration.register(schemaBuilder, PluginMetrics.instrument(
+                metrics.column(column.dataCollection() + "." + column.name()), this::convert));
+        log.info("register split converter for column {}.{}", column.dataCollection(), column.name());
+    }
+
+    private List<String> convert(Object input) {
+        if (input == null) {
+            return null;
+        }
+        String text = input instanceof byte[] ? new String((byte[]) input, charset) : input.toString();
+        if (cache != null && text.length() <= MAX_CACHED_LENGTH) {
+            return cache.get(text, cacheLoader);
+        }
+        return split(text);
+    }
+
+    /**
+     * 单次扫描：每段用indexOf找下一个分隔符，段内出现转义字符时才逐字符处理这一段
+     */
+    List<String> split(String text) {
+        int length = text.length();
+        if (length == 0) {
+            return new ArrayList<>(0);
+        }
+        List<String> elements = new ArrayList<>();
+        int delimiterLength = delimiter.length();
+        int nextEscape = escape == NO_ESCAPE ? -1 : text.indexOf(escape);
+        int pos = 0;
+        while (true) {
+            int next = text.indexOf(delimiter, pos);
+            int end = next < 0 ? length : next;
+            if (nextEscape >= 0 && nextEscape < end) {
+                StringBuilder element = new StringBuilder(end - pos);
+                int i = pos;
+                while (i < length && !text.startsWith(delimiter, i)) {
+                    char c = text.charAt(i);
+                    if (c == escape && i + 1 < length) {
+                        element.append(text.charAt(i + 1));
+                        i += 2;
+                    } else {
+                        element.append(c);
+                        i++;
+                    }
+                }
+                add(elements, element, 0, element.length());
+                if (i >= length) {
+                    return elements;
+                }
+                pos = i + delimiterLength;
+                nextEscape = text.indexOf(escape, pos);
+            } else {
+                add(elements, text, pos, end);
+                if (next < 0) {
+                    return elements;
+                }
+                pos = next + delimiterLength;
+            }
+        }
+    }
+
+    private void add(List<String> elements, CharSequence source, int start, int end) {
+        if (trim) {
+            while (start < end && Character.isWhitespace(source.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(source.charAt(end - 1))) {
+                end--;
+            }
+        }
+        if (start == end && dropEmpty) {
+            return;
+        }
+        elements.add(source.subSequence(start, end).toString());
+    }
+}
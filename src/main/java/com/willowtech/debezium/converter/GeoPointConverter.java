@@ -0,0 +1,259 @@
+package com.willowtech.debezium.converter;
+
+import com.willowtech.debezium.error.ErrorHandler;
+import com.willowtech.debezium.error.ErrorPolicy;
+import com.willowtech.debezium.error.StacklessDataException;
+import com.willowtech.debezium.metrics.ColumnMetrics;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.selector.ColumnSelector;
+import io.debezium.spi.converter.CustomConverter;
+import io.debezium.spi.converter.RelationalColumn;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 经纬度字符串列转geo_point：如t_mountain表的location列 "34.497647,110.073028"，直接输出ES可识别的结构，
+ * 不再需要ingest pipeline拆分
+ * <p>
+ * 1、要处理的列用selector/selector.exclude选择(见{@link ColumnSelector})，只处理CHAR/VARCHAR列
+ * 2、geo.format：struct(默认，Struct{lat:float64,lon:float64}) 或 geohash(字符串，精度由geo.geohash.precision指定，默认12)
+ * 3、geo.order：latlon(默认) 或 lonlat，两个数之间用逗号或空白分隔
+ * 4、数字用手写扫描解析，不split、不创建中间String；纬度须在[-90,90]、经度须在[-180,180]
+ * 5、格式不对或超出范围时按error.policy处理(见{@link ErrorPolicy})，默认null；default同null，
+ * passthrough只用于geohash格式，输出原始字符串。失败按列计数、限频汇总日志，不逐行打印
+ * 6、byte[]输入按ASCII解码(数字和分隔符都是单字节)
+ *
+ * @since 1.0.0
+ */
+@Slf4j
+public class GeoPointConverter implements CustomConverter<SchemaBuilder, RelationalColumn> {
+
+    private static final Set<String> SOURCE_TYPES = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    private static final String GEOHASH_BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final int MAX_GEOHASH_PRECISION = 12;
+    /**
+     * 10的0~22次方都能用double精确表示，尾数不超过2^53时 尾数/10^scale 是正确舍入的结果
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private static final String SCHEMA_NAME = "com.willowtech.debezium.geo.point";
+    private static final Schema POINT_SCHEMA = SchemaBuilder.struct().name(SCHEMA_NAME).optional()
+            .field("lat", Schema.FLOAT64_SCHEMA)
+            .field("lon", Schema.FLOAT64_SCHEMA)
+            .build();
+
+    static {
+        Collections.addAll(SOURCE_TYPES, "CHAR", "VARCHAR");
+    }
+
+    private boolean geohash = false;
+    private int geohashPrecision = MAX_GEOHASH_PRECISION;
+    private boolean lonFirst = false;
+    private ColumnSelector selector = ColumnSelector.ALL;
+    private PluginMetrics metrics = PluginMetrics.DISABLED;
+    private ErrorPolicy errorPolicy;
+
+    @Override
+    public void configure(Properties props) {
+        metrics = PluginMetrics.forConverter(props, getClass());
+        errorPolicy = ErrorPolicy.fromProperties(props, ErrorPolicy.Mode.NULL);
+        selector = ColumnSelector.fromProperties(props);
+        String format = props.getProperty("geo.format", "struct").trim().toLowerCase(Locale.ROOT);
+        String order = props.getProperty("geo.order", "latlon").trim().toLowerCase(Locale.ROOT);
+        String precision = props.getProperty("geo.geohash.precision", String.valueOf(MAX_GEOHASH_PRECISION)).trim();
+        if (!"struct".equals(format) && !"geohash".equals(format)) {
+            log.error("The \"{}\" setting is illegal:{}", "geo.format", format);
+            throw new IllegalArgumentException("Unknown geo.format: " + format);
+        }
+        if (!"latlon".equals(order) && !"lonlat".equals(order)) {
+            log.error("The \"{}\" setting is illegal:{}", "geo.order", order);
+            throw new IllegalArgumentException("Unknown geo.order: " + order);
+        }
+        geohash = "geohash".equals(format);
+        lonFirst = "lonlat".equals(order);
+        try {
+            geohashPrecision = Integer.parseInt(precision);
+        } catch (NumberFormatException e) {
+            geohashPrecision = -1;
+        }
+        if (geohashPrecision < 1 || geohashPrecision > MAX_GEOHASH_PRECISION) {
+            log.error("The \"{}\" setting is illegal:{}", "geo.geohash.precision", precision);
+            throw new IllegalArgumentException("geo.geohash.precision must be between 1 and " + MAX_GEOHASH_PRECISION + ": " + precision);
+        }
+        log.info("geo point format {}, order {}, geohash precision {}, error policy {}", format, order, geohashPrecision, errorPolicy);
+    }
+
+    @Override
+    public void converterFor(RelationalColumn column, ConverterRegistration<SchemaBuilder> registration) {
+        if (!SOURCE_TYPES.contains(column.typeName()) || !selector.matches(column)) {
+            return;
+        }
+        final String columnName = column.dataCollection() + "." + column.name();
+        final ColumnMetrics columnMetrics = metrics.column(columnName);
+        if (geohash) {
+            final ErrorHandler errorHandler = errorPolicy.handler(columnName, columnMetrics, () -> null, GeoPointConverter::text);
+            registration.register(SchemaBuilder.string().optional().name("com.willowtech.debezium.geo.hash"),
+                    PluginMetrics.instrument(columnMetrics, input -> convert(input, null, errorHandler)));
+        } else {
+            // 每次注册新建，Struct按Debezium最终build出的schema创建，见RegisteredStruct
+            final RegisteredStruct point = RegisteredStruct.copyOf(POINT_SCHEMA);
+            final ErrorHandler errorHandler = errorPolicy.handler(columnName, columnMetrics, () -> null, null);
+            registration.register(point, PluginMetrics.instrument(columnMetrics, input -> convert(input, point.built(), errorHandler)));
+        }
+        log.info("register geo point converter for column {}.{}", column.dataCollection(), column.name());
+    }
+
+    /**
+     * @param pointSchema struct格式时为Debezium build出的schema，build之前(Debezium转换列默认值时)为null，输出null
+     */
+    private Object convert(Object input, Schema pointSchema, ErrorHandler errorHandler) {
+        if (input == null || (!geohash && pointSchema == null)) {
+            return null;
+        }
+        CharSequence text = text(input);
+        int end = text.length();
+        int separator = separatorIndex(text, 0, end);
+        if (separator < 0) {
+            return errorHandler.onError(input, new StacklessDataException("No separator between latitude and longitude"));
+        }
+        double first = parseDecimal(text, 0, separator);
+        double second = parseDecimal(text, text.charAt(separator) == ',' ? separator + 1 : separator, end);
+        double lat = lonFirst ? second : first;
+        double lon = lonFirst ? first : second;
+        if (!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180)) {
+            return errorHandler.onError(input, new StacklessDataException("Coordinate missing or out of range"));
+        }
+        return geohash ? geohash(lat, lon, geohashPrecision) : new Struct(pointSchema).put("lat", lat).put("lon", lon);
+    }
+
+    private static String text(Object input) {
+        return input instanceof byte[] ? new String((byte[]) input, StandardCharsets.US_ASCII) : input.toString();
+    }
+
+    /**
+     * 逗号优先；没有逗号时取两个数之间的第一个空白
+     */
+    static int separatorIndex(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ',') {
+                return i;
+            }
+        }
+        int i = start;
+        while (i < end && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        while (i < end && !Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i < end ? i : -1;
+    }
+
+    /**
+     * 解析[start,end)中的十进制数，忽略首尾空白；格式不对时返回NaN。
+     * 常见的经纬度(不超过15位有效数字、无指数)只做整数运算和一次除法，其它情况退回Double.parseDouble
+     */
+    static double parseDecimal(CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (mantissa >= MAX_EXACT_MANTISSA / 10) {
+                    return parseSlow(text, start, end);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (dot) {
+                    scale++;
+                }
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else if (c == 'e' || c == 'E') {
+                return parseSlow(text, start, end);
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0 || scale >= POWERS_OF_TEN.length) {
+            return digits == 0 ? Double.NaN : parseSlow(text, start, end);
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static double parseSlow(CharSequence text, int start, int end) {
+        try {
+            return Double.parseDouble(text.subSequence(start, end).toString());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * 标准geohash：经度、纬度的二分位交替，每5位一个base32字符
+     */
+    static String geohash(double lat, double lon, int precision) {
+        char[] hash = new char[precision];
+        double latMin = -90, latMax = 90;
+        double lonMin = -180, lonMax = 180;
+        boolean even = true;
+        int bit = 0;
+        int ch = 0;
+        int length = 0;
+        while (length < precision) {
+            if (even) {
+                double mid = (lonMin + lonMax) / 2;
+                if (lon >= mid) {
+                    ch = (ch << 1) | 1;
+                    lonMin = mid;
+                } else {
+                    ch <<= 1;
+                    lonMax = mid;
+                }
+            } else {
+                double mid = (latMin + latMax) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    latMin = mid;
+                } else {
+                    ch <<= 1;
+                    latMax = mid;
+                }
+            }
+            even = !even;
+            if (++bit == 5) {
+                hash[length++] = GEOHASH_BASE32.charAt(ch);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return new String(hash);
+    }
+}
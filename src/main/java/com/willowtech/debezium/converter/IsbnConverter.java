@@ -1,5 +1,7 @@
 package com.willowtech.debezium.converter;
 
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.selector.ColumnSelector;
 import io.debezium.spi.converter.CustomConverter;
 import io.debezium.spi.converter.RelationalColumn;
 import org.apache.kafka.connect.data.SchemaBuilder;
@@ -21,9 +23,13 @@ import java.util.Properties;
 public class IsbnConverter implements CustomConverter<SchemaBuilder, RelationalColumn> {
 
     private SchemaBuilder isbnSchema;
+    private PluginMetrics metrics = PluginMetrics.DISABLED;
+    private ColumnSelector selector = ColumnSelector.ALL;
 
     @Override
     public void configure(Properties props) {
+        metrics = PluginMetrics.forConverter(props, getClass());
+        selector = ColumnSelector.fromProperties(props);
         isbnSchema = SchemaBuilder.string().name(props.getProperty("schema.name"));
     }
 
@@ -31,8 +37,9 @@ public class IsbnConverter implements CustomConverter<SchemaBuilder, RelationalC
     public void converterFor(RelationalColumn column,
                              CustomConverter.ConverterRegistration<SchemaBuilder> registration) {
 
-        if ("isbn".equals(column.typeName())) {
-            registration.register(isbnSchema, x -> x.toString());
+        if ("isbn".equals(column.typeName()) && selector.matches(column)) {
+            registration.register(isbnSchema, PluginMetrics.instrument(
+                    metrics.column(column.dataCollection() + "." + column.name()), x -> x.toString()));
         }
     }
 }
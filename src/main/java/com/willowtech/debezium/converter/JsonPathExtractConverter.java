@@ -0,0 +1,166 @@
+package com.willowtech.debezium.converter;
+
+import com.willowtech.debezium.error.ErrorHandler;
+import com.willowtech.debezium.error.ErrorPolicy;
+import com.willowtech.debezium.json.JsonPathReader;
+import com.willowtech.debezium.metrics.ColumnMetrics;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.selector.ColumnSelector;
+import io.debezium.spi.converter.CustomConverter;
+import io.debezium.spi.converter.RelationalColumn;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按JSON路径抽取字段：大JSON列只需要其中几个key时使用，不必像{@link JsonString2ObjectConverter}那样解析整个文档
+ * <p>
+ * 1、要处理的列用paths.&lt;列&gt;或paths.&lt;库.表.列&gt;声明路径(语法见{@link JsonPathReader})，没有声明路径的列不处理；
+ * 可以再用selector/selector.exclude限定(见{@link ColumnSelector})；处理JSON/CHAR/VARCHAR/TEXT系列的列
+ * 2、输出只含声明字段的Struct，文档中不存在的路径输出null；类型不符或JSON格式错误时按error.policy处理(见{@link ErrorPolicy})，
+ * 默认整列输出null；default输出全null的Struct，passthrough时schema末尾多一个__raw字段，失败时只填原始文本
+ * 3、解析器和schema在第一次注册时创建，按dataCollection+列名缓存，表结构刷新重新注册时复用；交给Debezium的SchemaBuilder每次注册新建，
+ * 输出的Struct按Debezium最终build出的schema创建，列映射(propagate.source.type)添加的参数不会导致schema不一致
+ * 4、byte[]输入按charset解码，默认UTF-8
+ *
+ * @since 1.0.0
+ */
+@Slf4j
+public class JsonPathExtractConverter implements CustomConverter<SchemaBuilder, RelationalColumn> {
+
+    private static final String PATHS_KEY_PREFIX = "paths.";
+    private static final Set<String> SOURCE_TYPES = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        SOURCE_TYPES.addAll(Arrays.asList("JSON", "CHAR", "VARCHAR", "TINYTEXT", "TEXT", "MEDIUMTEXT", "LONGTEXT"));
+    }
+
+    private Properties props = new Properties();
+    private Charset charset = StandardCharsets.UTF_8;
+    private ColumnSelector selector = ColumnSelector.ALL;
+    private PluginMetrics metrics = PluginMetrics.DISABLED;
+    private ErrorPolicy errorPolicy;
+    private final ConcurrentMap<String, PathColumn> columns = new ConcurrentHashMap<>();
+
+    @Override
+    public void configure(Properties props) {
+        this.props = props;
+        metrics = PluginMetrics.forConverter(props, getClass());
+        selector = ColumnSelector.fromProperties(props);
+        errorPolicy = ErrorPolicy.fromProperties(props, ErrorPolicy.Mode.NULL);
+        String charsetName = props.getProperty("charset");
+        if (charsetName != null && !charsetName.trim().isEmpty()) {
+            try {
+                charset = Charset.forName(charsetName.trim());
+            } catch (IllegalArgumentException e) {
+                log.error("The \"{}\" setting is illegal:{}", "charset", charsetName);
+                throw e;
+            }
+        }
+        // 提前校验全部路径配置，配置错误在启动时报出而不是等到第一次注册
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(PATHS_KEY_PREFIX)) {
+                createReader(key, key.substring(PATHS_KEY_PREFIX.length()));
+            }
+        }
+    }
+
+    @Override
+    public void converterFor(RelationalColumn column, ConverterRegistration<SchemaBuilder> registration) {
+        if (!SOURCE_TYPES.contains(column.typeName()) || !selector.matches(column)) {
+            return;
+        }
+        final String fullName = column.dataCollection() + "." + column.name();
+        String key = PATHS_KEY_PREFIX + fullName;
+        if (props.getProperty(key) == null) {
+            key = PATHS_KEY_PREFIX + column.name();
+            if (props.getProperty(key) == null) {
+                return;
+            }
+        }
+        final String pathsKey = key;
+        final PathColumn pathColumn = columns.computeIfAbsent(fullName, k -> new PathColumn(createReader(pathsKey, fullName), metrics.column(fullName)));
+        final PathTarget target = new PathTarget(pathColumn, fullName);
+        registration.register(target.registered, PluginMetrics.instrument(pathColumn.metrics, target::convert));
+        log.info("register json path converter for column {} to fields {}", fullName, pathColumn.reader.schema().fields());
+    }
+
+    private JsonPathReader createReader(String key, String fullName) {
+        String definition = props.getProperty(key);
+        try {
+            return new JsonPathReader(definition, "com.willowtech.debezium.jsonpath." + fullName, charset,
+                    errorPolicy.mode() == ErrorPolicy.Mode.PASSTHROUGH ? ErrorPolicy.RAW_FIELD : null);
+        } catch (IllegalArgumentException e) {
+            log.error("The \"{}\" setting is illegal:{}", key, definition);
+            throw e;
+        }
+    }
+
+    /**
+     * 一列的解析器和指标，按dataCollection+列名缓存，重新注册时复用；交给Debezium的SchemaBuilder每次注册新建，见{@link PathTarget}
+     */
+    private static final class PathColumn {
+        final JsonPathReader reader;
+        final ColumnMetrics metrics;
+
+        PathColumn(JsonPathReader reader, ColumnMetrics metrics) {
+            this.reader = reader;
+            this.metrics = metrics;
+        }
+    }
+
+    /**
+     * 一次注册的输出：Struct按Debezium最终build出的schema创建(见{@link RegisteredStruct})，build之前(Debezium转换列默认值时)输出null
+     */
+    private final class PathTarget {
+        final RegisteredStruct registered;
+        final JsonPathReader reader;
+        final ErrorHandler errorHandler;
+
+        PathTarget(PathColumn column, String fullName) {
+            this.reader = column.reader;
+            this.registered = RegisteredStruct.copyOf(reader.schema());
+            this.errorHandler = errorPolicy.handler(fullName, column.metrics, registered::emptyValue, this::rawValue);
+        }
+
+        Object convert(Object input) {
+            Schema schema = registered.built();
+            if (input == null || schema == null) {
+                return null;
+            }
+            try {
+                if (input instanceof String) {
+                    return reader.read((String) input, schema);
+                }
+                if (input instanceof byte[]) {
+                    return reader.read((byte[]) input, schema);
+                }
+            } catch (IOException | DataException e) {
+                return errorHandler.onError(input, e);
+            }
+            return null;
+        }
+
+        /**
+         * passthrough策略的输出：只填__raw的Struct，只在解析失败时才解码byte[]
+         */
+        private Object rawValue(Object input) {
+            Schema schema = registered.built();
+            if (schema == null) {
+                return null;
+            }
+            return new Struct(schema).put(ErrorPolicy.RAW_FIELD, input instanceof byte[] ? new String((byte[]) input, charset) : input.toString());
+        }
+    }
+}
@@ -1,19 +1,34 @@
 package com.willowtech.debezium.converter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.willowtech.debezium.error.ErrorHandler;
+import com.willowtech.debezium.error.ErrorPolicy;
+import com.willowtech.debezium.error.StacklessDataException;
+import com.willowtech.debezium.json.JsonArrayReader;
+import com.willowtech.debezium.json.JsonSchemas;
+import com.willowtech.debezium.json.JsonStructReader;
+import com.willowtech.debezium.metrics.ColumnMetrics;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.selector.ColumnSelector;
 import io.debezium.spi.converter.CustomConverter;
 import io.debezium.spi.converter.RelationalColumn;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * DEBEZIUM自定义Converter
@@ -22,6 +37,18 @@ import java.util.Properties;
  * 2、convertJsonString2Array方法返回List<String>,即把原始字符串转成List集合，转换成功！！！！！！！！
  * --支持将 '[111111111,2222222222222]' 转为  ["111111111","2222222222222"]
  * --支持将 '["aaaaaa","ccccccccccccc"]' 转为  ["aaaaaa","ccccccccccccc"]
+ * 3、解析改为{@link JsonArrayReader}单次流式解析；byte[]输入按transfer.charset解码(默认沿用原来的UTF-16)，
+ * Debezium的RelationalColumn不带列字符集，只能通过配置指定
+ * 4、transfer.mode=struct：把JSON/VARCHAR/TEXT列转成Struct(或Map)，目标schema由transfer.schema.&lt;列&gt;声明，
+ * 或给出样例文档推断(见{@link JsonSchemas})；未配置schema的列转成MAP&lt;STRING,STRING&gt;。
+ * schema定义在第一次注册时确定并按dataCollection+列名缓存，之后表结构刷新重新注册时复用；交给Debezium的SchemaBuilder每次注册都新建，
+ * Struct值按Debezium最终build出的schema创建(见{@link RegisteredStruct})，列映射添加的parameters不会导致schema不一致
+ * 5、大字段保护：transfer.max.size(或按列的transfer.max.size.&lt;列&gt;)配置长度上限，byte[]按字节、String按字符，
+ * 超限时不解析，按transfer.oversize.policy输出(见{@link LargeColumnGuard})：
+ * array模式输出null或只含前缀/哈希一个元素的数组；struct模式输出只有__oversize_size(原始长度)和__oversize_value(前缀/哈希)的Struct或Map
+ * 6、解析失败按error.policy处理(见{@link ErrorPolicy})：array模式默认default(空数组)，struct模式默认null；
+ * default输出的空数组/全null的Struct是注册时创建好的共用实例；passthrough只用于struct模式，
+ * 输出只有__raw(原始文本)的Struct或Map。失败按列计数、限频汇总打日志，不再逐条打印堆栈
  *
  * @author lhb
  * @date 2024/3/15
@@ -31,73 +58,312 @@ import java.util.Properties;
 public class JsonString2ObjectConverter implements CustomConverter<SchemaBuilder, RelationalColumn> {
 
     /**
-     * 在配置中使用的字段名
+     * 在配置中使用的字段名，多个用逗号分隔，可以写列名、库.表.列，也可以写通配符/正则(见{@link ColumnSelector})；
+     * 再与通用的selector/selector.exclude取交集
      */
-    private String fieldName;
+    private ColumnSelector fieldNames = ColumnSelector.includes(null);
+    private ColumnSelector selector = ColumnSelector.ALL;
     private static final String SETTING_KEY = "transfer.field";
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String CHARSET_KEY = "transfer.charset";
+    private static final String MODE_KEY = "transfer.mode";
+    private static final String SCHEMA_KEY_PREFIX = "transfer.schema.";
+    private static final String MAX_SIZE_KEY = "transfer.max.size";
+    private static final String OVERSIZE_POLICY_KEY = "transfer.oversize.policy";
+    private static final String OVERSIZE_PREFIX_KEY = "transfer.oversize.prefix.length";
+    static final String OVERSIZE_SIZE_FIELD = "__oversize_size";
+    static final String OVERSIZE_VALUE_FIELD = "__oversize_value";
+    private static final Set<String> STRUCT_SOURCE_TYPES = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        STRUCT_SOURCE_TYPES.addAll(Arrays.asList("JSON", "CHAR", "VARCHAR", "TINYTEXT", "TEXT", "MEDIUMTEXT", "LONGTEXT"));
+    }
+
+    /**
+     * array模式的schema与列无关，所有VARCHAR列共用(见{@link TypeDispatch})
+     */
+    private final TypeDispatch arrayDispatch = new TypeDispatch().register("VARCHAR",
+            () -> SchemaBuilder.array(Schema.STRING_SCHEMA).optional().name("com.willowtech.debezium.varchar.array"));
+
+    /**
+     * array：一维字符串数组(默认)；struct：按schema转成Struct/Map
+     */
+    private boolean structMode = false;
+    private Properties props = new Properties();
+    /**
+     * struct模式下每列的schema和解析器，key为dataCollection.name
+     */
+    private final ConcurrentMap<String, StructColumn> structColumns = new ConcurrentHashMap<>();
+    /**
+     * byte[]输入的字符集
+     * 记录一下：
+     * 时间：2024年3月21日17:03:54
+     * 原始字段存储的如果是中文，编码是：StandardCharsets.UTF_16LE
+     * 所以，这个需求还是交给es自己去处理比较好，使用ingest pipeline 中中的split方法完美解决。本例中有介绍！
+     */
+    private Charset charset = StandardCharsets.UTF_16;
+    private JsonArrayReader reader = new JsonArrayReader(charset);
+    private PluginMetrics metrics = PluginMetrics.DISABLED;
+    private LargeColumnGuard.Policy oversizePolicy = LargeColumnGuard.Policy.NULL;
+    private int oversizePrefixLength = 1024;
+    private ErrorPolicy errorPolicy;
+    /**
+     * array模式每列的失败处理器，key为dataCollection.name；struct模式的处理器在{@link StructColumn}中
+     */
+    private final ConcurrentMap<String, ErrorHandler> arrayErrorHandlers = new ConcurrentHashMap<>();
 
     @Override
     public void configure(Properties props) {
+        this.props = props;
+        metrics = PluginMetrics.forConverter(props, getClass());
         // 从配置中获取字段名
-        fieldName = (String) props.get(SETTING_KEY);
+        fieldNames = ColumnSelector.includes(props.getProperty(SETTING_KEY));
+        selector = ColumnSelector.fromProperties(props);
+        String mode = props.getProperty(MODE_KEY);
+        if (mode != null && !mode.trim().isEmpty()) {
+            if ("struct".equalsIgnoreCase(mode.trim())) {
+                structMode = true;
+            } else if (!"array".equalsIgnoreCase(mode.trim())) {
+                log.error("The \"{}\" setting is illegal:{}", MODE_KEY, mode);
+                throw new IllegalArgumentException("Unknown " + MODE_KEY + ": " + mode);
+            }
+        }
+        String charsetName = props.getProperty(CHARSET_KEY);
+        if (charsetName != null && !charsetName.trim().isEmpty()) {
+            charset = Charset.forName(charsetName.trim());
+            reader = new JsonArrayReader(charset);
+        }
+        String policy = props.getProperty(OVERSIZE_POLICY_KEY);
+        String prefixLength = props.getProperty(OVERSIZE_PREFIX_KEY);
+        try {
+            if (policy != null && !policy.trim().isEmpty()) {
+                oversizePolicy = LargeColumnGuard.Policy.parse(policy);
+            }
+            if (prefixLength != null && !prefixLength.trim().isEmpty()) {
+                oversizePrefixLength = Integer.parseInt(prefixLength.trim());
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("The \"{}\" or \"{}\" setting is illegal:{},{}", OVERSIZE_POLICY_KEY, OVERSIZE_PREFIX_KEY, policy, prefixLength);
+            throw e;
+        }
+        errorPolicy = ErrorPolicy.fromProperties(props, structMode ? ErrorPolicy.Mode.NULL : ErrorPolicy.Mode.DEFAULT);
+        if (!structMode && errorPolicy.mode() == ErrorPolicy.Mode.PASSTHROUGH) {
+            // 数组schema中没有位置放原始值
+            log.error("The \"{}\" setting is illegal:{}", ErrorPolicy.POLICY_CONFIG, errorPolicy);
+            throw new IllegalArgumentException(ErrorPolicy.POLICY_CONFIG + "=passthrough requires " + MODE_KEY + "=struct");
+        }
     }
 
     @Override
     public void converterFor(RelationalColumn field, ConverterRegistration<SchemaBuilder> registration) {
 
-        if (field.name().equals(fieldName)) {
-            String sqlType = field.typeName().toUpperCase();
+        if (!fieldNames.isMatchAll() && fieldNames.matches(field) && selector.matches(field)) {
+            String fullName = field.dataCollection() + "." + field.name();
 
             SchemaBuilder schemaBuilder = null;
             Converter converter = null;
-            if ("VARCHAR".equals(sqlType)) {
-                //一维字符串数组对象
-                schemaBuilder = SchemaBuilder.array(Schema.STRING_SCHEMA).optional().name("com.willowtech.debezium.varchar.array");
-                converter = this::convertJsonString2Array;
+            ColumnMetrics columnMetrics = metrics.column(fullName);
+            LargeColumnGuard guard = guardFor(field, fullName);
+            if (structMode) {
+                if (STRUCT_SOURCE_TYPES.contains(field.typeName())) {
+                    StructColumn structColumn = structColumns.computeIfAbsent(fullName, k -> createStructColumn(field, fullName, guard));
+                    StructTarget target = new StructTarget(structColumn, fullName, columnMetrics);
+                    schemaBuilder = target.schemaBuilder;
+                    converter = guard == null ? target::convert
+                            : input -> guard.isOversize(input) ? target.oversize(guard, input, columnMetrics) : target.convert(input);
+                }
+            } else {
+                TypeDispatch.Entry arrayEntry = arrayDispatch.forColumn(field);
+                if (arrayEntry != null) {
+                    //一维字符串数组对象
+                    schemaBuilder = arrayEntry.newSchema();
+                    ErrorHandler errorHandler = arrayErrorHandlers.computeIfAbsent(fullName,
+                            k -> errorPolicy.handler(fullName, columnMetrics, Collections::emptyList, null));
+                    converter = guard == null ? input -> convertJsonString2Array(input, errorHandler)
+                            : input -> guard.isOversize(input) ? oversizeArray(guard, input, columnMetrics)
+                            : convertJsonString2Array(input, errorHandler);
+                }
             }
 
             if (schemaBuilder != null) {
-                registration.register(schemaBuilder, converter);
-                log.info("register converter for sqlType {} to schema {}", sqlType, schemaBuilder.name());
+                registration.register(schemaBuilder, PluginMetrics.instrument(columnMetrics, converter));
+                log.info("register converter for sqlType {} to schema {}", field.typeName(), schemaBuilder.name());
             }
         }
 
     }
 
-    private List<String> convertJsonString2Array(Object input) {
-        if (input == null) {
+    /**
+     * 按列的transfer.max.size.库.表.列、transfer.max.size.列，再到全局的transfer.max.size，未配置或为0时不检查
+     */
+    private LargeColumnGuard guardFor(RelationalColumn field, String fullName) {
+        String maxSize = props.getProperty(MAX_SIZE_KEY + "." + fullName,
+                props.getProperty(MAX_SIZE_KEY + "." + field.name(), props.getProperty(MAX_SIZE_KEY)));
+        if (maxSize == null || maxSize.trim().isEmpty() || "0".equals(maxSize.trim())) {
             return null;
         }
-        if (input instanceof byte[]) {
-            byte[] bytes = (byte[]) input;
-            //记录一下：
-            //时间：2024年3月21日17:03:54
-            //原始字段存储的如果是中文，编码是：StandardCharsets.UTF_16LE
-            //所以，这个需求还是交给es自己去处理比较好，使用ingest pipeline 中中的split方法完美解决。本例中有介绍！
-            String originalString = new String(bytes, StandardCharsets.UTF_16);
-            String[] array = new String[0];
+        try {
+            LargeColumnGuard guard = new LargeColumnGuard(Integer.parseInt(maxSize.trim()), oversizePolicy, oversizePrefixLength, charset);
+            log.info("column {} guarded by {}", fullName, guard);
+            return guard;
+        } catch (IllegalArgumentException e) {
+            log.error("The \"{}\" setting is illegal:{}", MAX_SIZE_KEY, maxSize);
+            throw e;
+        }
+    }
+
+    private StructColumn createStructColumn(RelationalColumn field, String fullName, LargeColumnGuard guard) {
+        String definition = props.getProperty(SCHEMA_KEY_PREFIX + fullName, props.getProperty(SCHEMA_KEY_PREFIX + field.name()));
+        SchemaBuilder schemaBuilder;
+        if (definition == null || definition.trim().isEmpty()) {
+            schemaBuilder = mapSchemaBuilder();
+        } else {
             try {
-                array = objectMapper.readValue(originalString, String[].class);
-            } catch (JsonProcessingException e) {
-                log.error("byte transfer error", e);
+                schemaBuilder = JsonSchemas.parse(definition, "com.willowtech.debezium.json." + fullName);
+            } catch (IllegalArgumentException e) {
+                log.error("The \"{}\" setting is illegal:{}", SCHEMA_KEY_PREFIX + field.name(), definition);
+                throw e;
+            }
+            if (guard != null) {
+                // 超限时的标记字段，正常解析的值中为null
+                schemaBuilder.field(OVERSIZE_SIZE_FIELD, Schema.OPTIONAL_INT64_SCHEMA)
+                        .field(OVERSIZE_VALUE_FIELD, Schema.OPTIONAL_STRING_SCHEMA);
+            }
+            if (errorPolicy.mode() == ErrorPolicy.Mode.PASSTHROUGH) {
+                // 解析失败时放原始文本，正常解析的值中为null
+                schemaBuilder.field(ErrorPolicy.RAW_FIELD, Schema.OPTIONAL_STRING_SCHEMA);
+            }
+        }
+        Schema schema = schemaBuilder.build();
+        return new StructColumn(schema, new JsonStructReader(schema, charset));
+    }
+
+    private static SchemaBuilder mapSchemaBuilder() {
+        return SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.OPTIONAL_STRING_SCHEMA).optional()
+                .name("com.willowtech.debezium.json.map");
+    }
+
+    private List<String> oversizeArray(LargeColumnGuard guard, Object input, ColumnMetrics columnMetrics) {
+        String summary = guard.summarize(input);
+        if (summary == null) {
+            return null;
+        }
+        columnMetrics.recordFallback();
+        return Collections.singletonList(summary);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> convertJsonString2Array(Object input, ErrorHandler errorHandler) {
+        if (input == null) {
+            return null;
+        }
+        try {
+            if (input instanceof byte[]) {
+                return reader.read((byte[]) input);
+            }
+            if (input instanceof String) {
+                return reader.read((String) input);
+            }
+            return (List<String>) errorHandler.onError(input, new StacklessDataException("Unsupported input type " + input.getClass().getName()));
+        } catch (IOException e) {
+            return (List<String>) errorHandler.onError(input, e);
+        }
+    }
+
+    /**
+     * 按列缓存的schema定义和解析器，表结构刷新重新注册时复用；交给Debezium的SchemaBuilder每次注册新建，见{@link StructTarget}
+     */
+    private static final class StructColumn {
+        final Schema schema;
+        final JsonStructReader reader;
+
+        StructColumn(Schema schema, JsonStructReader reader) {
+            this.schema = schema;
+            this.reader = reader;
+        }
+    }
+
+    /**
+     * struct模式一次注册的输出：STRUCT值按Debezium最终build出的schema创建(见{@link RegisteredStruct})，
+     * build之前(Debezium转换列默认值时)输出null；MAP的值不带schema，沿用缓存的定义
+     */
+    private final class StructTarget {
+        final SchemaBuilder schemaBuilder;
+        final JsonStructReader reader;
+        final ErrorHandler errorHandler;
+        /**
+         * MAP时为null
+         */
+        private final RegisteredStruct registered;
+
+        StructTarget(StructColumn column, String fullName, ColumnMetrics columnMetrics) {
+            this.reader = column.reader;
+            if (column.schema.type() == Schema.Type.STRUCT) {
+                registered = RegisteredStruct.copyOf(column.schema);
+                schemaBuilder = registered;
+                errorHandler = errorPolicy.handler(fullName, columnMetrics, registered::emptyValue, this::rawValue);
+            } else {
+                registered = null;
+                schemaBuilder = mapSchemaBuilder();
+                errorHandler = errorPolicy.handler(fullName, columnMetrics, Collections::emptyMap, this::rawValue);
             }
-            return Arrays.asList(array);
         }
 
-        if (input instanceof String) {
-            String inputString = (String) input;
+        private Schema schema() {
+            return registered == null ? reader.schema() : registered.built();
+        }
+
+        Object convert(Object input) {
+            Schema schema = schema();
+            if (input == null || schema == null) {
+                return null;
+            }
             try {
-                // 将去除开始和结束的引号后的字符串转换为JSON
-                JsonNode jsonNode = objectMapper.readTree(inputString.substring(1, inputString.length() - 1));
-                // 输出去掉引号后的JSON
-                String str = jsonNode.toString();
-                return Arrays.asList(objectMapper.readValue(str, String[].class));
-            } catch (JsonProcessingException e) {
-                log.error("String transfer error", e);
+                if (input instanceof byte[]) {
+                    return reader.read((byte[]) input, schema);
+                }
+                if (input instanceof String) {
+                    return reader.read((String) input, schema);
+                }
+            } catch (IOException | DataException e) {
+                return errorHandler.onError(input, e);
+            }
+            return null;
+        }
+
+        /**
+         * 超限值不解析：只输出原始长度和摘要(前缀/哈希/null)
+         */
+        Object oversize(LargeColumnGuard guard, Object input, ColumnMetrics columnMetrics) {
+            Schema schema = schema();
+            if (schema == null) {
+                return null;
+            }
+            long size = LargeColumnGuard.sizeOf(input);
+            String summary = guard.summarize(input);
+            columnMetrics.recordFallback();
+            if (schema.type() == Schema.Type.MAP) {
+                Map<String, String> map = new HashMap<>(4);
+                map.put(OVERSIZE_SIZE_FIELD, Long.toString(size));
+                map.put(OVERSIZE_VALUE_FIELD, summary);
+                return map;
+            }
+            return new Struct(schema).put(OVERSIZE_SIZE_FIELD, size).put(OVERSIZE_VALUE_FIELD, summary);
+        }
+
+        /**
+         * passthrough策略的输出：只有__raw的Struct或Map，只在解析失败时才解码byte[]
+         */
+        private Object rawValue(Object input) {
+            Schema schema = schema();
+            if (schema == null) {
+                return null;
+            }
+            String raw = input instanceof byte[] ? new String((byte[]) input, charset) : String.valueOf(input);
+            if (schema.type() == Schema.Type.MAP) {
+                return Collections.singletonMap(ErrorPolicy.RAW_FIELD, raw);
             }
+            return new Struct(schema).put(ErrorPolicy.RAW_FIELD, raw);
         }
-        return new ArrayList<>();
     }
 
 }
@@ -0,0 +1,164 @@
+package com.willowtech.debezium.converter;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+/**
+ * 大字段保护：值的长度超过阈值时不再完整解析，按策略输出摘要
+ * <p>
+ * 长度判断不解码：byte[]输入按字节数，String输入按字符数，都是O(1)。
+ * 超限时的输出({@link Policy})：
+ * 1、NULL：输出null，由调用方设置标记
+ * 2、TRUNCATE：只解码前prefixLength个字符
+ * 3、HASH：原始值的SHA-256(String按UTF-8分块编码后计算，不生成完整的byte[])，格式为sha256:十六进制
+ * <p>
+ * 这样每条记录的内存和耗时上限由阈值决定，线程内复用的解析缓冲区也不会被个别大值撑大
+ */
+final class LargeColumnGuard {
+
+    enum Policy {
+        NULL,
+        TRUNCATE,
+        HASH;
+
+        static Policy parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final int ENCODE_CHUNK_SIZE = 8192;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<Hasher> HASHERS = ThreadLocal.withInitial(Hasher::new);
+
+    private final int maxSize;
+    private final Policy policy;
+    private final int prefixLength;
+    private final Charset charset;
+
+    LargeColumnGuard(int maxSize, Policy policy, int prefixLength, Charset charset) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+        }
+        if (prefixLength <= 0) {
+            throw new IllegalArgumentException("Prefix length must be positive: " + prefixLength);
+        }
+        this.maxSize = maxSize;
+        this.policy = policy;
+        this.prefixLength = Math.min(prefixLength, maxSize);
+        this.charset = charset;
+    }
+
+    Policy policy() {
+        return policy;
+    }
+
+    /**
+     * byte[]为字节数，String为字符数，其它类型为-1(不检查)
+     */
+    static long sizeOf(Object input) {
+        if (input instanceof byte[]) {
+            return ((byte[]) input).length;
+        }
+        if (input instanceof CharSequence) {
+            return ((CharSequence) input).length();
+        }
+        return -1;
+    }
+
+    boolean isOversize(Object input) {
+        return sizeOf(input) > maxSize;
+    }
+
+    /**
+     * 超限值的摘要：TRUNCATE为前缀，HASH为哈希，NULL策略返回null
+     */
+    String summarize(Object input) {
+        switch (policy) {
+            case TRUNCATE:
+                return prefix(input);
+            case HASH:
+                return HASHERS.get().hash(input);
+            case NULL:
+            default:
+                return null;
+        }
+    }
+
+    private String prefix(Object input) {
+        if (input instanceof byte[]) {
+            byte[] bytes = (byte[]) input;
+            // 多字节字符集下最多解码prefixLength*4个字节，再截到prefixLength个字符
+            String decoded = new String(bytes, 0, Math.min(bytes.length, prefixLength * 4), charset);
+            return decoded.length() > prefixLength ? decoded.substring(0, prefixLength) : decoded;
+        }
+        String text = input.toString();
+        return text.length() > prefixLength ? text.substring(0, prefixLength) : text;
+    }
+
+    @Override
+    public String toString() {
+        return "LargeColumnGuard{maxSize=" + maxSize + ", policy=" + policy + ", prefixLength=" + prefixLength + "}";
+    }
+
+    /**
+     * 线程内复用的MessageDigest、编码器和编码缓冲区
+     */
+    private static final class Hasher {
+
+        private final MessageDigest digest;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer chunk = ByteBuffer.allocate(ENCODE_CHUNK_SIZE);
+
+        Hasher() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        String hash(Object input) {
+            digest.reset();
+            if (input instanceof byte[]) {
+                digest.update((byte[]) input);
+            } else {
+                update(CharBuffer.wrap(input.toString()));
+            }
+            byte[] hash = digest.digest();
+            char[] hex = new char[7 + hash.length * 2];
+            "sha256:".getChars(0, 7, hex, 0);
+            for (int i = 0; i < hash.length; i++) {
+                hex[7 + i * 2] = HEX[(hash[i] >> 4) & 0xF];
+                hex[8 + i * 2] = HEX[hash[i] & 0xF];
+            }
+            return new String(hex);
+        }
+
+        private void update(CharBuffer chars) {
+            encoder.reset();
+            boolean endOfInput = false;
+            while (true) {
+                chunk.clear();
+                if (!endOfInput) {
+                    encoder.encode(chars, chunk, true);
+                    endOfInput = !chars.hasRemaining();
+                }
+                boolean flushed = endOfInput && encoder.flush(chunk).isUnderflow();
+                chunk.flip();
+                digest.update(chunk);
+                if (flushed) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.willowtech.debezium.converter;
 
+import com.willowtech.debezium.cache.SharedRegistry;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.selector.ColumnSelector;
+import com.willowtech.debezium.time.TemporalEncoding;
+import com.willowtech.debezium.time.ZoneOffsetCache;
 import io.debezium.spi.converter.CustomConverter;
 import io.debezium.spi.converter.RelationalColumn;
 import lombok.extern.slf4j.Slf4j;
@@ -7,7 +12,8 @@ import org.apache.kafka.connect.data.SchemaBuilder;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.Properties;
-import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 处理Debezium时间转换的问题：全部转成timestamp
@@ -26,29 +32,38 @@ import java.util.function.Consumer;
 @Slf4j
 public class MySqlDateTime2TimestampConverter implements CustomConverter<SchemaBuilder, RelationalColumn> {
 
-    private DateTimeFormatter dateFormatter = DateTimeFormatter.ISO_DATE;
-    private DateTimeFormatter timeFormatter = DateTimeFormatter.ISO_TIME;
-    private DateTimeFormatter datetimeFormatter = DateTimeFormatter.ISO_DATE_TIME;
-    private DateTimeFormatter timestampFormatter = DateTimeFormatter.ISO_DATE_TIME;
-
-    private ZoneId timestampZoneId = ZoneId.systemDefault();
+    private volatile Core core;
+    /**
+     * 分派表每个实例一份，由共用的{@link Core}创建；SchemaBuilder每次注册新建，见{@link TypeDispatch}
+     */
+    private volatile TypeDispatch dispatch = new TypeDispatch();
+    private volatile PluginMetrics metrics = PluginMetrics.DISABLED;
+    /**
+     * selector/selector.exclude限定要转换的列，默认全部
+     */
+    private volatile ColumnSelector selector = ColumnSelector.ALL;
 
+    /**
+     * 由format.*、encoding.*决定的不可变状态放在{@link Core}，配置相同的实例共用一份，见{@link SharedRegistry}
+     */
     @Override
     public void configure(Properties props) {
-        readProps(props, "format.date", p -> dateFormatter = DateTimeFormatter.ofPattern(p));
-        readProps(props, "format.time", p -> timeFormatter = DateTimeFormatter.ofPattern(p));
-        readProps(props, "format.datetime", p -> datetimeFormatter = DateTimeFormatter.ofPattern(p));
-        readProps(props, "format.timestamp", p -> timestampFormatter = DateTimeFormatter.ofPattern(p));
-        readProps(props, "format.timestamp.zone", z -> timestampZoneId = ZoneId.of(z));
+        metrics = PluginMetrics.forConverter(props, getClass());
+        selector = ColumnSelector.fromProperties(props);
+        final Core shared = SharedRegistry.get(MySqlDateTime2TimestampConverter.class,
+                SharedRegistry.normalize(props, "format.", "encoding."), () -> new Core(props));
+        log.info("resolved timestamp zone {}", shared.zoneOffsets);
+        core = shared;
+        dispatch = shared.createDispatch();
     }
 
-    private void readProps(Properties properties, String settingKey, Consumer<String> callback) {
+    private static <T> T readProps(Properties properties, String settingKey, Function<String, T> parser, T defaultValue) {
         String settingValue = (String) properties.get(settingKey);
         if (settingValue == null || settingValue.length() == 0) {
-            return;
+            return defaultValue;
         }
         try {
-            callback.accept(settingValue.trim());
+            return parser.apply(settingValue.trim());
         } catch (IllegalArgumentException | DateTimeException e) {
             log.error("The \"{}\" setting is illegal:{}", settingKey, settingValue);
             throw e;
@@ -57,52 +72,13 @@ public class MySqlDateTime2TimestampConverter implements CustomConverter<SchemaB
 
     @Override
     public void converterFor(RelationalColumn column, ConverterRegistration<SchemaBuilder> registration) {
-        String sqlType = column.typeName().toUpperCase();
-        SchemaBuilder schemaBuilder = null;
-        Converter converter = null;
-        if ("DATE".equals(sqlType)) {
-            schemaBuilder = SchemaBuilder.int64().optional().name("com.willowtech.debezium.date.int64");
-            converter = this::convertDate;
-        }
-        if ("TIME".equals(sqlType)) {
-            schemaBuilder = SchemaBuilder.int64().optional().name("com.willowtech.debezium.time.int64");
-            converter = this::convertTime;
-        }
-        if ("DATETIME".equals(sqlType)) {
-            schemaBuilder = SchemaBuilder.int64().optional().name("com.willowtech.debezium.datetime.int64");
-            converter = this::convertDateTime;
-        }
-        if ("TIMESTAMP".equals(sqlType)) {
-            schemaBuilder = SchemaBuilder.int64().optional().name("com.willowtech.debezium.timestamp.int64");
-            converter = this::convertTimestamp;
-        }
-        if (schemaBuilder != null) {
-            registration.register(schemaBuilder, converter);
-            log.info("register converter for sqlType {} to schema {}", sqlType, schemaBuilder.name());
-        }
-    }
-
-    private Long convertDate(Object input) {
-        if (input instanceof LocalDate) {
-
-            LocalDate localDate = (LocalDate) input;
-            return localDate.atStartOfDay(ZoneOffset.of(timestampZoneId.getId())).toInstant().toEpochMilli();
-
-        }
-        if (input instanceof Integer) {
-            LocalDate localDate = LocalDate.ofEpochDay((Integer) input);
-            return localDate.atStartOfDay(ZoneOffset.of(timestampZoneId.getId())).toInstant().toEpochMilli();
-        }
-        return null;
-    }
-
-    private Long convertTime(Object input) {
-        if (input instanceof Duration) {
-            Duration duration = (Duration) input;
-            long seconds = duration.getSeconds();
-            return seconds * 1000;
+        TypeDispatch.Entry entry = dispatch.forColumn(column);
+        if (entry == null || !selector.matches(column)) {
+            return;
         }
-        return null;
+        registration.register(entry.newSchema(),
+                PluginMetrics.instrument(metrics.column(column.dataCollection() + "." + column.name()), entry.converter));
+        log.info("register converter for sqlType {} to schema {}", entry.sqlType, entry.schemaName());
     }
 
     /**
@@ -112,21 +88,109 @@ public class MySqlDateTime2TimestampConverter implements CustomConverter<SchemaB
      * @return
      */
     public Long convertDateTime(Object input) {
-        if (input instanceof LocalDateTime) {
-            LocalDateTime localDateTime = (LocalDateTime) input;
-            return localDateTime.toInstant(ZoneOffset.of(timestampZoneId.getId())).toEpochMilli();
-        }
-        return null;
+        return core.convertDateTime(input);
     }
 
-    private Long convertTimestamp(Object input) {
-        if (input instanceof ZonedDateTime) {
-            // mysql的timestamp会转成UTC存储，这里的zonedDatetime都是UTC时间
-            ZonedDateTime zonedDateTime = (ZonedDateTime) input;
-            LocalDateTime localDateTime = zonedDateTime.toLocalDateTime();
-            return localDateTime.toInstant(ZoneOffset.of(timestampZoneId.getId())).toEpochMilli();
+    private static final class Core {
+
+        final DateTimeFormatter dateFormatter;
+        final DateTimeFormatter timeFormatter;
+        final DateTimeFormatter datetimeFormatter;
+        final DateTimeFormatter timestampFormatter;
+
+        /**
+         * 按format.timestamp.zone解析一次，支持+08:00这类固定偏移，也支持Asia/Shanghai这类地区时区(含夏令时)
+         */
+        final ZoneOffsetCache zoneOffsets;
+
+        /**
+         * encoding.date/time/datetime/timestamp：配置后该类型改为紧凑的数值编码(见{@link TemporalEncoding})，未配置时保持原来的输出
+         */
+        final TemporalEncoding dateEncoding;
+        final TemporalEncoding timeEncoding;
+        final TemporalEncoding datetimeEncoding;
+        final TemporalEncoding timestampEncoding;
+
+        Core(Properties props) {
+            dateFormatter = readProps(props, "format.date", DateTimeFormatter::ofPattern, DateTimeFormatter.ISO_DATE);
+            timeFormatter = readProps(props, "format.time", DateTimeFormatter::ofPattern, DateTimeFormatter.ISO_TIME);
+            datetimeFormatter = readProps(props, "format.datetime", DateTimeFormatter::ofPattern, DateTimeFormatter.ISO_DATE_TIME);
+            timestampFormatter = readProps(props, "format.timestamp", DateTimeFormatter::ofPattern, DateTimeFormatter.ISO_DATE_TIME);
+            zoneOffsets = ZoneOffsetCache.of(readProps(props, "format.timestamp.zone", ZoneId::of, ZoneId.systemDefault()));
+            dateEncoding = readProps(props, "encoding.date", e -> TemporalEncoding.parse("DATE", e), null);
+            timeEncoding = readProps(props, "encoding.time", e -> TemporalEncoding.parse("TIME", e), null);
+            datetimeEncoding = readProps(props, "encoding.datetime", e -> TemporalEncoding.parse("DATETIME", e), null);
+            timestampEncoding = readProps(props, "encoding.timestamp", e -> TemporalEncoding.parse("TIMESTAMP", e), null);
+        }
+
+        /**
+         * 按类型确定schema和转换函数，配置了encoding.*的类型改用{@link TemporalEncoding}
+         */
+        TypeDispatch createDispatch() {
+            TypeDispatch dispatch = new TypeDispatch();
+            register(dispatch, "DATE", () -> SchemaBuilder.int64().optional().name("com.willowtech.debezium.date.int64"), this::convertDate);
+            register(dispatch, "TIME", () -> SchemaBuilder.int64().optional().name("com.willowtech.debezium.time.int64"), this::convertTime);
+            register(dispatch, "DATETIME", () -> SchemaBuilder.int64().optional().name("com.willowtech.debezium.datetime.int64"), this::convertDateTime);
+            register(dispatch, "TIMESTAMP", () -> SchemaBuilder.int64().optional().name("com.willowtech.debezium.timestamp.int64"), this::convertTimestamp);
+            return dispatch;
+        }
+
+        private void register(TypeDispatch dispatch, String sqlType, Supplier<SchemaBuilder> schemaFactory, Converter converter) {
+            TemporalEncoding encoding = encodingFor(sqlType);
+            if (encoding != null) {
+                dispatch.register(sqlType, () -> encoding.schema(sqlType), encoding.converter(sqlType, zoneOffsets));
+            } else {
+                dispatch.register(sqlType, schemaFactory, converter);
+            }
+        }
+
+        private TemporalEncoding encodingFor(String sqlType) {
+            switch (sqlType) {
+                case "DATE":
+                    return dateEncoding;
+                case "TIME":
+                    return timeEncoding;
+                case "DATETIME":
+                    return datetimeEncoding;
+                default:
+                    return timestampEncoding;
+            }
+        }
+
+        private Long convertDate(Object input) {
+            if (input instanceof LocalDate) {
+                return zoneOffsets.startOfDayEpochMilli(((LocalDate) input).toEpochDay());
+            }
+            if (input instanceof Integer) {
+                return zoneOffsets.startOfDayEpochMilli((Integer) input);
+            }
+            return null;
+        }
+
+        private Long convertTime(Object input) {
+            if (input instanceof Duration) {
+                Duration duration = (Duration) input;
+                // 保留毫秒，原来只取getSeconds()会丢掉小数部分
+                return duration.getSeconds() * 1000 + duration.getNano() / 1_000_000;
+            }
+            return null;
+        }
+
+        private Long convertDateTime(Object input) {
+            if (input instanceof LocalDateTime) {
+                return zoneOffsets.toEpochMilli((LocalDateTime) input);
+            }
+            return null;
+        }
+
+        private Long convertTimestamp(Object input) {
+            if (input instanceof ZonedDateTime) {
+                // mysql的timestamp会转成UTC存储，这里的zonedDatetime都是UTC时间
+                ZonedDateTime zonedDateTime = (ZonedDateTime) input;
+                return zoneOffsets.toEpochMilli(zonedDateTime.toLocalDateTime());
+            }
+            return null;
         }
-        return null;
     }
 
 }
@@ -1,5 +1,12 @@
 package com.willowtech.debezium.converter;
 
+import com.willowtech.debezium.cache.LongKeyCache;
+import com.willowtech.debezium.cache.SharedRegistry;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.selector.ColumnSelector;
+import com.willowtech.debezium.time.FastTemporalFormatter;
+import com.willowtech.debezium.time.TemporalEncoding;
+import com.willowtech.debezium.time.ZoneOffsetCache;
 import io.debezium.spi.converter.CustomConverter;
 import io.debezium.spi.converter.RelationalColumn;
 import lombok.extern.slf4j.Slf4j;
@@ -7,7 +14,9 @@ import org.apache.kafka.connect.data.SchemaBuilder;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.Properties;
-import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
 
 /**
  * 处理Debezium时间转换的问题
@@ -26,29 +35,42 @@ import java.util.function.Consumer;
 @Slf4j
 public class MySqlDateTimeConverter implements CustomConverter<SchemaBuilder, RelationalColumn> {
 
-    private DateTimeFormatter dateFormatter = DateTimeFormatter.ISO_DATE;
-    private DateTimeFormatter timeFormatter = DateTimeFormatter.ISO_TIME;
-    private DateTimeFormatter datetimeFormatter = DateTimeFormatter.ISO_DATE_TIME;
-    private DateTimeFormatter timestampFormatter = DateTimeFormatter.ISO_DATE_TIME;
-
-    private ZoneId timestampZoneId = ZoneId.systemDefault();
+    /**
+     * 分派表每个实例一份，由共用的{@link Core}创建；SchemaBuilder每次注册新建，见{@link TypeDispatch}
+     */
+    private volatile TypeDispatch dispatch = new TypeDispatch();
+    private volatile PluginMetrics metrics = PluginMetrics.DISABLED;
+    /**
+     * selector/selector.exclude限定要转换的列，默认全部
+     */
+    private volatile ColumnSelector selector = ColumnSelector.ALL;
 
+    /**
+     * 由format.*、encoding.*、cache.*决定的不可变状态放在{@link Core}，配置相同的实例(同一worker内的多个连接器、task)
+     * 共用一份，见{@link SharedRegistry}；每行数据只读取Core的final字段，可以被多个task线程同时调用
+     */
     @Override
     public void configure(Properties props) {
-        readProps(props, "format.date", p -> dateFormatter = DateTimeFormatter.ofPattern(p));
-        readProps(props, "format.time", p -> timeFormatter = DateTimeFormatter.ofPattern(p));
-        readProps(props, "format.datetime", p -> datetimeFormatter = DateTimeFormatter.ofPattern(p));
-        readProps(props, "format.timestamp", p -> timestampFormatter = DateTimeFormatter.ofPattern(p));
-        readProps(props, "format.timestamp.zone", z -> timestampZoneId = ZoneId.of(z));
+        metrics = PluginMetrics.forConverter(props, getClass());
+        selector = ColumnSelector.fromProperties(props);
+        final Core shared = SharedRegistry.get(MySqlDateTimeConverter.class,
+                SharedRegistry.normalize(props, "format.", "encoding.", "cache."), () -> new Core(props));
+        dispatch = shared.createDispatch();
+        if (shared.dateCache != null) {
+            metrics.registerCache("date", shared.dateCache.capacity(), shared.dateCache::hits, shared.dateCache::misses);
+            metrics.registerCache("datetime", shared.datetimeCache.capacity(), shared.datetimeCache::hits, shared.datetimeCache::misses);
+        }
+        log.info("date formatter {}, time formatter {}, datetime formatter {}, timestamp formatter {}",
+                shared.dateFormatter, shared.timeFormatter, shared.datetimeFormatter, shared.timestampFormatter);
     }
 
-    private void readProps(Properties properties, String settingKey, Consumer<String> callback) {
+    private static <T> T readProps(Properties properties, String settingKey, Function<String, T> parser, T defaultValue) {
         String settingValue = (String) properties.get(settingKey);
         if (settingValue == null || settingValue.length() == 0) {
-            return;
+            return defaultValue;
         }
         try {
-            callback.accept(settingValue.trim());
+            return parser.apply(settingValue.trim());
         } catch (IllegalArgumentException | DateTimeException e) {
             log.error("The \"{}\" setting is illegal:{}", settingKey, settingValue);
             throw e;
@@ -57,68 +79,148 @@ public class MySqlDateTimeConverter implements CustomConverter<SchemaBuilder, Re
 
     @Override
     public void converterFor(RelationalColumn column, ConverterRegistration<SchemaBuilder> registration) {
-        String sqlType = column.typeName().toUpperCase();
-        SchemaBuilder schemaBuilder = null;
-        Converter converter = null;
-        if ("DATE".equals(sqlType)) {
-            schemaBuilder = SchemaBuilder.string().optional().name("com.willowtech.debezium.date.string");
-            converter = this::convertDate;
-        }
-        if ("TIME".equals(sqlType)) {
-            schemaBuilder = SchemaBuilder.string().optional().name("com.willowtech.debezium.time.string");
-            converter = this::convertTime;
+        TypeDispatch.Entry entry = dispatch.forColumn(column);
+        if (entry == null || !selector.matches(column)) {
+            return;
         }
-        if ("DATETIME".equals(sqlType)) {
-            schemaBuilder = SchemaBuilder.string().optional().name("com.willowtech.debezium.datetime.string");
-            converter = this::convertDateTime;
+        registration.register(entry.newSchema(),
+                PluginMetrics.instrument(metrics.column(column.dataCollection() + "." + column.name()), entry.converter));
+        log.info("register converter for sqlType {} to schema {}", entry.sqlType, entry.schemaName());
+    }
+
+    private static final class Core {
+
+        /**
+         * 常用pattern编译成快速格式化器，不支持的pattern自动退回DateTimeFormatter
+         */
+        final FastTemporalFormatter dateFormatter;
+        final FastTemporalFormatter timeFormatter;
+        final FastTemporalFormatter datetimeFormatter;
+        final FastTemporalFormatter timestampFormatter;
+        final ZoneOffsetCache zoneOffsets;
+
+        /**
+         * 格式化结果缓存，cache.size大于0时启用：DATE按epoch-day缓存，DATETIME按epoch-second缓存(带毫秒的值不走缓存)
+         * 例如：create_time、update_time这类列，同一天/同一秒的值在快照时大量重复；配置相同的task共用缓存，
+         * metrics.enabled=true时命中/未命中计数注册为cache=date、cache=datetime的MBean
+         */
+        final LongKeyCache<String> dateCache;
+        final LongKeyCache<String> datetimeCache;
+        final LongFunction<String> dateLoader;
+        final LongFunction<String> datetimeLoader;
+
+        /**
+         * encoding.date/time/datetime/timestamp：配置后该类型改为紧凑的数值编码(见{@link TemporalEncoding})，未配置时保持原来的输出
+         */
+        final TemporalEncoding dateEncoding;
+        final TemporalEncoding timeEncoding;
+        final TemporalEncoding datetimeEncoding;
+        final TemporalEncoding timestampEncoding;
+
+        Core(Properties props) {
+            dateFormatter = readProps(props, "format.date", FastTemporalFormatter::ofPattern, FastTemporalFormatter.of(DateTimeFormatter.ISO_DATE));
+            timeFormatter = readProps(props, "format.time", FastTemporalFormatter::ofPattern, FastTemporalFormatter.of(DateTimeFormatter.ISO_TIME));
+            datetimeFormatter = readProps(props, "format.datetime", FastTemporalFormatter::ofPattern, FastTemporalFormatter.of(DateTimeFormatter.ISO_DATE_TIME));
+            timestampFormatter = readProps(props, "format.timestamp", FastTemporalFormatter::ofPattern, FastTemporalFormatter.of(DateTimeFormatter.ISO_DATE_TIME));
+            zoneOffsets = ZoneOffsetCache.of(readProps(props, "format.timestamp.zone", ZoneId::of, ZoneId.systemDefault()));
+            dateEncoding = readProps(props, "encoding.date", e -> TemporalEncoding.parse("DATE", e), null);
+            timeEncoding = readProps(props, "encoding.time", e -> TemporalEncoding.parse("TIME", e), null);
+            datetimeEncoding = readProps(props, "encoding.datetime", e -> TemporalEncoding.parse("DATETIME", e), null);
+            timestampEncoding = readProps(props, "encoding.timestamp", e -> TemporalEncoding.parse("TIMESTAMP", e), null);
+            int cacheSize = readProps(props, "cache.size", Integer::parseInt, 0);
+            LongKeyCache.Eviction cacheEviction = readProps(props, "cache.eviction", LongKeyCache.Eviction::parse, LongKeyCache.Eviction.DIRECT);
+            if (cacheSize > 0) {
+                dateCache = LongKeyCache.create(cacheSize, cacheEviction);
+                datetimeCache = LongKeyCache.create(cacheSize, cacheEviction);
+                dateLoader = dateFormatter::formatEpochDay;
+                datetimeLoader = epochSecond -> datetimeFormatter.formatLocalEpochSecond(epochSecond, 0);
+                log.info("formatted value cache enabled, size {}, eviction {}", cacheSize, cacheEviction);
+            } else {
+                dateCache = null;
+                datetimeCache = null;
+                dateLoader = null;
+                datetimeLoader = null;
+            }
         }
-        if ("TIMESTAMP".equals(sqlType)) {
-            schemaBuilder = SchemaBuilder.string().optional().name("com.willowtech.debezium.timestamp.string");
-            converter = this::convertTimestamp;
+
+        /**
+         * 按类型确定schema和转换函数，配置了encoding.*的类型改用{@link TemporalEncoding}
+         */
+        TypeDispatch createDispatch() {
+            TypeDispatch dispatch = new TypeDispatch();
+            register(dispatch, "DATE", () -> SchemaBuilder.string().optional().name("com.willowtech.debezium.date.string"), this::convertDate);
+            register(dispatch, "TIME", () -> SchemaBuilder.string().optional().name("com.willowtech.debezium.time.string"), this::convertTime);
+            register(dispatch, "DATETIME", () -> SchemaBuilder.string().optional().name("com.willowtech.debezium.datetime.string"), this::convertDateTime);
+            register(dispatch, "TIMESTAMP", () -> SchemaBuilder.string().optional().name("com.willowtech.debezium.timestamp.string"), this::convertTimestamp);
+            return dispatch;
         }
-        if (schemaBuilder != null) {
-            registration.register(schemaBuilder, converter);
-            log.info("register converter for sqlType {} to schema {}", sqlType, schemaBuilder.name());
+
+        private void register(TypeDispatch dispatch, String sqlType, Supplier<SchemaBuilder> schemaFactory, Converter converter) {
+            TemporalEncoding encoding = encodingFor(sqlType);
+            if (encoding != null) {
+                dispatch.register(sqlType, () -> encoding.schema(sqlType), encoding.converter(sqlType, zoneOffsets));
+            } else {
+                dispatch.register(sqlType, schemaFactory, converter);
+            }
         }
-    }
 
-    private String convertDate(Object input) {
-        if (input instanceof LocalDate) {
-            return dateFormatter.format((LocalDate) input);
+        private TemporalEncoding encodingFor(String sqlType) {
+            switch (sqlType) {
+                case "DATE":
+                    return dateEncoding;
+                case "TIME":
+                    return timeEncoding;
+                case "DATETIME":
+                    return datetimeEncoding;
+                default:
+                    return timestampEncoding;
+            }
         }
-        if (input instanceof Integer) {
-            LocalDate date = LocalDate.ofEpochDay((Integer) input);
-            return dateFormatter.format(date);
+
+        private String convertDate(Object input) {
+            if (input instanceof LocalDate) {
+                if (dateCache != null) {
+                    return dateCache.get(((LocalDate) input).toEpochDay(), dateLoader);
+                }
+                return dateFormatter.formatDate((LocalDate) input);
+            }
+            if (input instanceof Integer) {
+                if (dateCache != null) {
+                    return dateCache.get((Integer) input, dateLoader);
+                }
+                return dateFormatter.formatEpochDay((Integer) input);
+            }
+            return null;
         }
-        return null;
-    }
 
-    private String convertTime(Object input) {
-        if (input instanceof Duration) {
-            Duration duration = (Duration) input;
-            long seconds = duration.getSeconds();
-            int nano = duration.getNano();
-            LocalTime time = LocalTime.ofSecondOfDay(seconds).withNano(nano);
-            return timeFormatter.format(time);
+        private String convertTime(Object input) {
+            if (input instanceof Duration) {
+                Duration duration = (Duration) input;
+                return timeFormatter.formatTime(duration.getSeconds(), duration.getNano());
+            }
+            return null;
         }
-        return null;
-    }
 
-    private String convertDateTime(Object input) {
-        if (input instanceof LocalDateTime) {
-            return datetimeFormatter.format((LocalDateTime) input);
+        private String convertDateTime(Object input) {
+            if (input instanceof LocalDateTime) {
+                LocalDateTime localDateTime = (LocalDateTime) input;
+                if (datetimeCache != null && localDateTime.getNano() == 0) {
+                    return datetimeCache.get(localDateTime.toEpochSecond(ZoneOffset.UTC), datetimeLoader);
+                }
+                return datetimeFormatter.formatDateTime(localDateTime);
+            }
+            return null;
         }
-        return null;
-    }
 
-    private String convertTimestamp(Object input) {
-        if (input instanceof ZonedDateTime) {
-            // mysql的timestamp会转成UTC存储，这里的zonedDatetime都是UTC时间
-            ZonedDateTime zonedDateTime = (ZonedDateTime) input;
-            LocalDateTime localDateTime = zonedDateTime.withZoneSameInstant(timestampZoneId).toLocalDateTime();
-            return timestampFormatter.format(localDateTime);
+        private String convertTimestamp(Object input) {
+            if (input instanceof ZonedDateTime) {
+                // mysql的timestamp会转成UTC存储，这里的zonedDatetime都是UTC时间
+                ZonedDateTime zonedDateTime = (ZonedDateTime) input;
+                long localEpochSecond = zoneOffsets.toLocalEpochSecond(zonedDateTime.toEpochSecond());
+                return timestampFormatter.formatLocalEpochSecond(localEpochSecond, zonedDateTime.getNano());
+            }
+            return null;
         }
-        return null;
     }
 
 }
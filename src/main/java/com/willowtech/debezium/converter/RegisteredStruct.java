@@ -0,0 +1,75 @@
+package com.willowtech.debezium.converter;
+
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import java.util.Map;
+
+/**
+ * 注册给Debezium的STRUCT类型SchemaBuilder，记录Debezium最终build出的schema
+ * <p>
+ * Debezium在register之后、build之前还会修改SchemaBuilder：列映射(column.propagate.source.type、datatype.propagate.source.type)
+ * 调用parameter()，可空的列调用optional()，有默认值的列调用defaultValue()。而Struct值的schema必须与envelope中的字段schema相等，
+ * 否则每一行都报 Struct schemas do not match，所以输出的Struct只能按这里记录的{@link #built()}创建，不能用注册前自己build的schema。
+ * <p>
+ * 每次注册都要用{@link #copyOf}创建新的实例：同一个SchemaBuilder再次注册(表结构刷新)会被重复修改，defaultValue()还会因为已经设置过而报错
+ */
+final class RegisteredStruct extends SchemaBuilder {
+
+    private volatile Schema built;
+    private volatile Struct empty;
+
+    private RegisteredStruct() {
+        super(Schema.Type.STRUCT);
+    }
+
+    /**
+     * 按模板(STRUCT schema)复制名字、可选、版本、文档、参数和字段，字段schema直接复用模板中的实例
+     */
+    static RegisteredStruct copyOf(Schema template) {
+        RegisteredStruct builder = new RegisteredStruct();
+        if (template.name() != null) {
+            builder.name(template.name());
+        }
+        if (template.isOptional()) {
+            builder.optional();
+        }
+        if (template.version() != null) {
+            builder.version(template.version());
+        }
+        if (template.doc() != null) {
+            builder.doc(template.doc());
+        }
+        Map<String, String> parameters = template.parameters();
+        if (parameters != null) {
+            builder.parameters(parameters);
+        }
+        for (Field field : template.fields()) {
+            builder.field(field.name(), field.schema());
+        }
+        return builder;
+    }
+
+    @Override
+    public Schema build() {
+        Schema schema = super.build();
+        empty = new Struct(schema);
+        built = schema;
+        return schema;
+    }
+
+    /**
+     * Debezium build出的schema；build之前(Debezium转换列默认值时)为null
+     */
+    Schema built() {
+        return built;
+    }
+
+    /**
+     * 字段全为null的Struct，default策略共用这一个实例；build之前为null
+     */
+    Struct emptyValue() {
+        return empty;
+    }
+}
@@ -0,0 +1,117 @@
+package com.willowtech.debezium.converter;
+
+import com.willowtech.debezium.cache.LongKeyCache;
+import com.willowtech.debezium.cache.StringDictionary;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.selector.ColumnSelector;
+import io.debezium.spi.converter.CustomConverter;
+import io.debezium.spi.converter.RelationalColumn;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * 低基数字符串列的字典化：状态、类型、城市这类取值很少的CHAR/VARCHAR列，每行都会解码出一个新的String，
+ * 经过每列一个的有界字典({@link StringDictionary})后相等的值共用同一个实例，减少下游(序列化缓存、攒批)持有的对象
+ * <p>
+ * 1、要处理的列用selector/selector.exclude选择(见{@link ColumnSelector})，不配置时处理全部字符串列
+ * 2、dictionary.size：每列最多缓存的不同值个数(基数上限)，默认256；dictionary.eviction：direct(默认)或lru
+ * 3、高基数保护：每dictionary.sample.size次(默认10000)统计一次未命中率，超过dictionary.max.miss.ratio(默认0.5)时
+ * 这一列的字典关闭，之后原样输出
+ * 4、字典按dataCollection+列名保存，表结构刷新重新注册时复用，已关闭的列保持关闭
+ * 5、byte[]输入按charset解码，默认UTF-8；输出schema仍是STRING，值不变，只是实例被复用
+ *
+ * @since 1.0.0
+ */
+@Slf4j
+public class StringInternConverter implements CustomConverter<SchemaBuilder, RelationalColumn> {
+
+    /**
+     * 类型名不区分大小写，注册时直接查，不做toUpperCase
+     */
+    private static final Set<String> STRING_TYPES = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        Collections.addAll(STRING_TYPES, "CHAR", "VARCHAR", "TINYTEXT", "TEXT", "MEDIUMTEXT", "LONGTEXT");
+    }
+
+    private int dictionarySize = 256;
+    private LongKeyCache.Eviction dictionaryEviction = LongKeyCache.Eviction.DIRECT;
+    private int sampleSize = 10000;
+    private double maxMissRatio = 0.5;
+    private Charset charset = StandardCharsets.UTF_8;
+    private ColumnSelector selector = ColumnSelector.ALL;
+    private PluginMetrics metrics = PluginMetrics.DISABLED;
+    /**
+     * 每列的字典，key为dataCollection.name
+     */
+    private final ConcurrentMap<String, StringDictionary> dictionaries = new ConcurrentHashMap<>();
+
+    @Override
+    public void configure(Properties props) {
+        metrics = PluginMetrics.forConverter(props, getClass());
+        selector = ColumnSelector.fromProperties(props);
+        readProps(props, "dictionary.size", s -> dictionarySize = Integer.parseInt(s));
+        readProps(props, "dictionary.eviction", e -> dictionaryEviction = LongKeyCache.Eviction.parse(e));
+        readProps(props, "dictionary.sample.size", s -> sampleSize = Integer.parseInt(s));
+        readProps(props, "dictionary.max.miss.ratio", r -> maxMissRatio = Double.parseDouble(r));
+        readProps(props, "charset", c -> charset = Charset.forName(c));
+        // 提前校验参数，配置错误时在configure阶段失败
+        StringDictionary.create(dictionarySize, dictionaryEviction, sampleSize, maxMissRatio);
+        log.info("string dictionary size {}, eviction {}, sample size {}, max miss ratio {}, selector {}",
+                dictionarySize, dictionaryEviction, sampleSize, maxMissRatio, selector);
+    }
+
+    private void readProps(Properties properties, String settingKey, Consumer<String> callback) {
+        String settingValue = properties.getProperty(settingKey);
+        if (settingValue == null || settingValue.trim().isEmpty()) {
+            return;
+        }
+        try {
+            callback.accept(settingValue.trim());
+        } catch (IllegalArgumentException e) {
+            log.error("The \"{}\" setting is illegal:{}", settingKey, settingValue);
+            throw e;
+        }
+    }
+
+    @Override
+    public void converterFor(RelationalColumn column, ConverterRegistration<SchemaBuilder> registration) {
+        if (!STRING_TYPES.contains(column.typeName()) || !selector.matches(column)) {
+            return;
+        }
+        final String columnName = column.dataCollection() + "." + column.name();
+        final StringDictionary dictionary = dictionaries.computeIfAbsent(columnName, this::newDictionary);
+        registration.register(SchemaBuilder.string().optional(),
+                PluginMetrics.instrument(metrics.column(columnName), x -> intern(dictionary, x)));
+        log.info("register string dictionary for column {}: {}", columnName, dictionary);
+    }
+
+    /**
+     * metrics.enabled=true时字典的命中/未命中计数注册为cache=&lt;库.表.列&gt;的MBean
+     */
+    private StringDictionary newDictionary(String columnName) {
+        StringDictionary dictionary = StringDictionary.create(dictionarySize, dictionaryEviction, sampleSize, maxMissRatio)
+                .onDisabled(() -> log.info("column {} is not low-cardinality, string dictionary disabled", columnName));
+        metrics.registerCache(columnName, dictionary.capacity(), dictionary::hits, dictionary::misses);
+        return dictionary;
+    }
+
+    private Object intern(StringDictionary dictionary, Object input) {
+        if (input instanceof String) {
+            return dictionary.intern((String) input);
+        }
+        if (input instanceof byte[]) {
+            return dictionary.intern(new String((byte[]) input, charset));
+        }
+        return input == null ? null : dictionary.intern(input.toString());
+    }
+}
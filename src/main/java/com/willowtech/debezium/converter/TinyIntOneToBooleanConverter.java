@@ -5,17 +5,19 @@
  */
 package com.willowtech.debezium.converter;
 
-import io.debezium.function.Predicates;
+import com.willowtech.debezium.metrics.ColumnMetrics;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.selector.ColumnSelector;
 import io.debezium.spi.converter.CustomConverter;
 import io.debezium.spi.converter.RelationalColumn;
-import io.debezium.util.Collect;
 import io.debezium.util.Strings;
 import org.apache.kafka.connect.data.SchemaBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.List;
+import java.util.Collections;
 import java.util.Properties;
-import java.util.function.Predicate;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * 官方代码：https://github.com/debezium/debezium/tree/main/debezium-connector-mysql/src/main/java/io/debezium/connector/mysql/converters
@@ -24,6 +26,10 @@ import java.util.function.Predicate;
  * {@code DESCRIBE CREATE TABLE}.
  * This custom converter allows user to handle all {@code TINYINT(1)} fields as {@code BOOLEAN} or provide
  * a set of regexes to match only subset of tables/columns.
+ * <p>
+ * 改动：String输入用手写扫描解析(0/1等整数、true/false、y/n)，不再靠NumberFormatException分支，且只输出Boolean常量；
+ * null输入的处理(null/默认值/FALLBACK)在注册时按isOptional()/defaultValue()确定一次；
+ * selector每一项仍是整体匹配 库.表.列 的正则(同Predicates.includes)，见{@link ColumnSelector#regexesFromProperties(Properties)}
  *
  * @author Jiri Pechanec
  */
@@ -31,24 +37,28 @@ public class TinyIntOneToBooleanConverter implements CustomConverter<SchemaBuild
 
     private static final Boolean FALLBACK = Boolean.FALSE;
 
-    public static final String SELECTOR_PROPERTY = "selector";
+    public static final String SELECTOR_PROPERTY = ColumnSelector.SELECTOR_PROPERTY;
     // recommend disabling this option for mysql8 since "show create table" not showing length of tinyint unsigned type,
     // and specify the columns that need to be converted to "selector" property instead of converting all columns based on type.
     public static final String LENGTH_CHECKER = "length.checker";
 
-    private static final List<String> TINYINT_FAMILY = Collect.arrayListOf("TINYINT", "TINYINT UNSIGNED");
+    private static final Set<String> TINYINT_FAMILY = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        Collections.addAll(TINYINT_FAMILY, "TINYINT", "TINYINT UNSIGNED");
+    }
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TinyIntOneToBooleanConverter.class);
 
-    private Predicate<RelationalColumn> selector = x -> true;
+    private ColumnSelector selector = ColumnSelector.ALL;
     private boolean lengthChecker = true;
+    private PluginMetrics metrics = PluginMetrics.DISABLED;
 
     @Override
     public void configure(Properties props) {
-        final String selectorConfig = props.getProperty(SELECTOR_PROPERTY);
-        if (!Strings.isNullOrEmpty(selectorConfig)) {
-            selector = Predicates.includes(selectorConfig.trim(), x -> x.dataCollection() + "." + x.name());
-        }
+        metrics = PluginMetrics.forConverter(props, getClass());
+        // selector沿用Predicates.includes的正则语义，已有配置匹配的列不变；另外支持selector.exclude
+        selector = ColumnSelector.regexesFromProperties(props);
         final String lengthCheckerConfig = props.getProperty(LENGTH_CHECKER);
         if (!Strings.isNullOrEmpty(lengthCheckerConfig)) {
             lengthChecker = Boolean.parseBoolean(lengthCheckerConfig);
@@ -57,33 +67,111 @@ public class TinyIntOneToBooleanConverter implements CustomConverter<SchemaBuild
 
     @Override
     public void converterFor(RelationalColumn field, ConverterRegistration<SchemaBuilder> registration) {
-        if (!TINYINT_FAMILY.contains(field.typeName().toUpperCase())
-                || (lengthChecker && field.length().orElse(-1) != 1) || !selector.test(field)) {
+        if (!TINYINT_FAMILY.contains(field.typeName())
+                || (lengthChecker && field.length().orElse(-1) != 1) || !selector.matches(field)) {
             return;
         }
-        registration.register(SchemaBuilder.bool(), x -> {
+        final ColumnMetrics columnMetrics = metrics.column(field.dataCollection() + "." + field.name());
+        // null的处理在注册时确定一次：可空列输出null，有默认值时输出转换后的默认值，否则输出FALLBACK
+        final boolean nullIsFallback = !field.isOptional() && !field.hasDefaultValue();
+        final Boolean nullValue = field.isOptional() ? null : defaultValueOf(field);
+        registration.register(SchemaBuilder.bool(), PluginMetrics.instrument(columnMetrics, x -> {
             if (x == null) {
-                if (field.isOptional()) {
-                    return null;
-                } else if (field.hasDefaultValue()) {
-                    return field.defaultValue();
+                if (nullIsFallback) {
+                    columnMetrics.recordFallback();
                 }
+                return nullValue;
+            }
+            Boolean value = toBoolean(x);
+            if (value == null) {
+                LOGGER.warn("Cannot convert '{}' of {} to boolean", x, x.getClass());
+                columnMetrics.recordFallback();
                 return FALLBACK;
             }
-            if (x instanceof Boolean) {
-                return x;
-            } else if (x instanceof Number) {
-                return ((Number) x).intValue() > 0;
-            } else if (x instanceof String) {
-                try {
-                    return Integer.parseInt((String) x);
-                } catch (NumberFormatException e) {
-                    return Boolean.parseBoolean((String) x);
+            return value;
+        }));
+    }
+
+    private static Boolean defaultValueOf(RelationalColumn field) {
+        if (!field.hasDefaultValue() || field.defaultValue() == null) {
+            return FALLBACK;
+        }
+        Boolean value = toBoolean(field.defaultValue());
+        return value == null ? FALLBACK : value;
+    }
+
+    /**
+     * 只返回Boolean.TRUE/Boolean.FALSE两个常量，无法识别时返回null
+     */
+    static Boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value ? Boolean.TRUE : Boolean.FALSE;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue() > 0 ? Boolean.TRUE : Boolean.FALSE;
+        }
+        if (value instanceof CharSequence) {
+            return parseBoolean((CharSequence) value);
+        }
+        return null;
+    }
+
+    /**
+     * 手写扫描，不抛异常：整数(大于0为true，与Number一致)、true/false、y/n，忽略首尾空白和大小写
+     */
+    static Boolean parseBoolean(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+        char first = text.charAt(start);
+        if (first == '-' || first == '+' || (first >= '0' && first <= '9')) {
+            int i = first == '-' || first == '+' ? start + 1 : start;
+            if (i == end) {
+                return null;
+            }
+            boolean nonZero = false;
+            for (; i < end; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    return null;
                 }
+                nonZero |= c != '0';
             }
-            LOGGER.warn("Cannot convert '{}' to boolean", x.getClass());
-            return FALLBACK;
-        });
+            return nonZero && first != '-' ? Boolean.TRUE : Boolean.FALSE;
+        }
+        switch (end - start) {
+            case 1:
+                if (first == 'y' || first == 'Y') {
+                    return Boolean.TRUE;
+                }
+                if (first == 'n' || first == 'N') {
+                    return Boolean.FALSE;
+                }
+                return null;
+            case 4:
+                return regionEquals(text, start, "true") ? Boolean.TRUE : null;
+            case 5:
+                return regionEquals(text, start, "false") ? Boolean.FALSE : null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean regionEquals(CharSequence text, int start, String lowerCase) {
+        for (int i = 0; i < lowerCase.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != lowerCase.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
 }
@@ -0,0 +1,67 @@
+package com.willowtech.debezium.converter;
+
+import io.debezium.spi.converter.CustomConverter;
+import io.debezium.spi.converter.RelationalColumn;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * converterFor的分派表：configure时按SQL类型预先确定schema和转换函数，注册时一次查表(类型名不区分大小写，不做toUpperCase)
+ * <p>
+ * 每次注册都交出新的SchemaBuilder：Debezium在注册后还会修改它(列映射调用parameter()，有默认值的列调用defaultValue())，
+ * 并且每一列都单独调用build()，即使交出同一个SchemaBuilder也得不到共用的schema实例，反而会把一列的修改带到其他列
+ */
+final class TypeDispatch {
+
+    private final Map<String, Entry> entries = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * schemaFactory每次调用都应返回新的、相同的SchemaBuilder
+     */
+    TypeDispatch register(String sqlType, Supplier<SchemaBuilder> schemaFactory, CustomConverter.Converter converter) {
+        entries.put(sqlType, new Entry(sqlType, schemaFactory, converter));
+        return this;
+    }
+
+    /**
+     * 只登记schema：转换函数依赖列本身(如按列的指标、配置)时，由调用方在注册时创建
+     */
+    TypeDispatch register(String sqlType, Supplier<SchemaBuilder> schemaFactory) {
+        return register(sqlType, schemaFactory, null);
+    }
+
+    /**
+     * 不处理的类型返回null
+     */
+    Entry forColumn(RelationalColumn column) {
+        return entries.get(column.typeName());
+    }
+
+    static final class Entry {
+
+        final String sqlType;
+        final CustomConverter.Converter converter;
+        private final Supplier<SchemaBuilder> schemaFactory;
+        private final String schemaName;
+
+        private Entry(String sqlType, Supplier<SchemaBuilder> schemaFactory, CustomConverter.Converter converter) {
+            this.sqlType = sqlType;
+            this.schemaFactory = schemaFactory;
+            this.converter = converter;
+            this.schemaName = schemaFactory.get().name();
+        }
+
+        /**
+         * 注册用的SchemaBuilder，每次新建
+         */
+        SchemaBuilder newSchema() {
+            return schemaFactory.get();
+        }
+
+        String schemaName() {
+            return schemaName;
+        }
+    }
+}
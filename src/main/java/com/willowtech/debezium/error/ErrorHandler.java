@@ -0,0 +1,88 @@
+package com.willowtech.debezium.error;
+
+import com.willowtech.debezium.metrics.ColumnMetrics;
+import org.apache.kafka.connect.errors.DataException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 一列的转换失败处理：按{@link ErrorPolicy}返回兜底值或抛异常，计数，并限频打印汇总日志
+ * <p>
+ * 同一列持续失败时(如整列格式都不对)，每个间隔只打一条WARN，其余只计数；下一条日志带上这段时间内被省略的次数
+ */
+public final class ErrorHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ErrorHandler.class);
+    private static final int MAX_SAMPLE_LENGTH = 256;
+
+    private final String column;
+    private final ErrorPolicy.Mode mode;
+    private final ColumnMetrics metrics;
+    private final Supplier<?> defaultValue;
+    private final Function<Object, Object> rawValue;
+    private final long logIntervalNanos;
+    private final LongAdder suppressed = new LongAdder();
+    private final AtomicLong nextReport;
+
+    ErrorHandler(String column, ErrorPolicy.Mode mode, ColumnMetrics metrics, Supplier<?> defaultValue,
+                 Function<Object, Object> rawValue, long logIntervalNanos) {
+        this.column = column;
+        this.mode = mode;
+        this.metrics = metrics;
+        this.defaultValue = defaultValue;
+        this.rawValue = rawValue;
+        this.logIntervalNanos = logIntervalNanos;
+        this.nextReport = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 转换失败时调用，返回该列的输出值；fail策略抛DataException
+     * <p>
+     * 处理掉的失败只记入该列的failures指标，不再记fallback，instrument看到这一行的null输出时也不再计数；
+     * fail策略抛出的异常由{@link com.willowtech.debezium.metrics.PluginMetrics#instrument}计数，这里不重复记录
+     */
+    public Object onError(Object input, Exception error) {
+        if (mode == ErrorPolicy.Mode.FAIL) {
+            throw new DataException("Cannot convert " + column + ": " + error.getMessage(), error);
+        }
+        report(input, error);
+        Object output = null;
+        if (mode == ErrorPolicy.Mode.DEFAULT) {
+            output = defaultValue.get();
+        } else if (mode == ErrorPolicy.Mode.PASSTHROUGH && rawValue != null) {
+            output = rawValue.apply(input);
+        }
+        metrics.recordHandledFailure(output == null);
+        return output;
+    }
+
+    public ErrorPolicy.Mode mode() {
+        return mode;
+    }
+
+    private void report(Object input, Exception error) {
+        final long now = System.nanoTime();
+        final long next = nextReport.get();
+        if (now - next < 0 || !nextReport.compareAndSet(next, now + logIntervalNanos)) {
+            suppressed.increment();
+            return;
+        }
+        log.warn("Cannot convert {} ({} more failures not reported since last report), policy {}: {}, input: {}",
+                column, suppressed.sumThenReset(), mode.name().toLowerCase(), error.getMessage(), sample(input));
+        if (log.isDebugEnabled()) {
+            log.debug("Conversion failure of " + column, error);
+        }
+    }
+
+    private static String sample(Object input) {
+        if (input instanceof byte[]) {
+            return "byte[" + ((byte[]) input).length + "]";
+        }
+        String text = String.valueOf(input);
+        return text.length() <= MAX_SAMPLE_LENGTH ? text : text.substring(0, MAX_SAMPLE_LENGTH) + "...(" + text.length() + " chars)";
+    }
+}
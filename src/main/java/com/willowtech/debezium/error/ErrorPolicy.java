@@ -0,0 +1,131 @@
+package com.willowtech.debezium.error;
+
+import com.willowtech.debezium.metrics.ColumnMetrics;
+import org.apache.kafka.common.config.AbstractConfig;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 转换失败(JSON格式错误、类型不符等)时的统一处理策略，converter和transform共用
+ * <p>
+ * 1、error.policy：
+ * --fail：抛DataException，任务停止
+ * --null：输出null
+ * --default：输出预先创建好的默认值(如空数组)，每次失败不再分配
+ * --passthrough：保留原始值，converter放在输出Struct的{@link #RAW_FIELD}字段，transform放在同级的 字段名+error.raw.suffix 字段
+ * 不配置时各插件保持原来的行为
+ * 2、error.log.interval.ms：每列每个间隔最多打一条汇总日志(省略的失败次数、最近一次的错误信息和输入摘要)，默认60000；
+ * 日志不带堆栈，需要堆栈时把{@link ErrorHandler}的日志级别设为DEBUG
+ * 3、失败次数记在该列的JMX指标failures中(见{@link ColumnMetrics})，需要开启metrics.enabled
+ */
+public final class ErrorPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(ErrorPolicy.class);
+
+    public static final String POLICY_CONFIG = "error.policy";
+    public static final String LOG_INTERVAL_CONFIG = "error.log.interval.ms";
+    public static final String RAW_SUFFIX_CONFIG = "error.raw.suffix";
+    /**
+     * converter在passthrough策略下存放原始值的字段
+     */
+    public static final String RAW_FIELD = "__raw";
+
+    private static final long DEFAULT_LOG_INTERVAL_MS = 60_000L;
+    private static final String DEFAULT_RAW_SUFFIX = "_raw";
+
+    public enum Mode {
+        FAIL,
+        NULL,
+        DEFAULT,
+        PASSTHROUGH;
+
+        public static Mode parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final Mode mode;
+    private final long logIntervalNanos;
+    private final String rawSuffix;
+
+    private ErrorPolicy(Mode mode, long logIntervalMs, String rawSuffix) {
+        this.mode = mode;
+        this.logIntervalNanos = TimeUnit.MILLISECONDS.toNanos(logIntervalMs);
+        this.rawSuffix = rawSuffix;
+    }
+
+    /**
+     * transform的配置项，defaultMode为该transform原来的行为
+     */
+    public static ConfigDef define(ConfigDef configDef, Mode defaultMode) {
+        return configDef
+                .define(POLICY_CONFIG, ConfigDef.Type.STRING, defaultMode.name().toLowerCase(Locale.ROOT), ConfigDef.ValidString.in(
+                                "fail", "null", "default", "passthrough", "FAIL", "NULL", "DEFAULT", "PASSTHROUGH"),
+                        ConfigDef.Importance.MEDIUM, "What to do when a value cannot be converted: fail, null, default or passthrough.")
+                .define(LOG_INTERVAL_CONFIG, ConfigDef.Type.LONG, DEFAULT_LOG_INTERVAL_MS, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW,
+                        "Minimum interval between two conversion failure reports of the same field.")
+                .define(RAW_SUFFIX_CONFIG, ConfigDef.Type.STRING, DEFAULT_RAW_SUFFIX, new ConfigDef.NonEmptyString(), ConfigDef.Importance.LOW,
+                        "Suffix of the sibling field holding the raw value under the passthrough policy.");
+    }
+
+    public static ErrorPolicy create(AbstractConfig config) {
+        return new ErrorPolicy(Mode.parse(config.getString(POLICY_CONFIG)), config.getLong(LOG_INTERVAL_CONFIG),
+                config.getString(RAW_SUFFIX_CONFIG));
+    }
+
+    /**
+     * converter的配置(Debezium传入的Properties已去掉前缀)，defaultMode为该converter原来的行为
+     */
+    public static ErrorPolicy fromProperties(Properties props, Mode defaultMode) {
+        String policy = props.getProperty(POLICY_CONFIG);
+        String interval = props.getProperty(LOG_INTERVAL_CONFIG);
+        try {
+            Mode mode = policy == null || policy.trim().isEmpty() ? defaultMode : Mode.parse(policy);
+            long intervalMs = interval == null || interval.trim().isEmpty() ? DEFAULT_LOG_INTERVAL_MS : Long.parseLong(interval.trim());
+            if (intervalMs < 0) {
+                throw new ConfigException(LOG_INTERVAL_CONFIG, interval, "Must be at least 0");
+            }
+            return new ErrorPolicy(mode, intervalMs, DEFAULT_RAW_SUFFIX);
+        } catch (IllegalArgumentException | ConfigException e) {
+            log.error("The \"{}\" or \"{}\" setting is illegal:{},{}", POLICY_CONFIG, LOG_INTERVAL_CONFIG, policy, interval);
+            throw e;
+        }
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * 日志间隔等不变，只换策略：某一类失败由插件自己的配置决定处理方式时使用，例如DecimalConverter的decimal.overflow
+     */
+    public ErrorPolicy withMode(Mode otherMode) {
+        return otherMode == mode ? this : new ErrorPolicy(otherMode, TimeUnit.NANOSECONDS.toMillis(logIntervalNanos), rawSuffix);
+    }
+
+    public String rawSuffix() {
+        return rawSuffix;
+    }
+
+    /**
+     * 某一列的处理器
+     *
+     * @param defaultValue default策略的返回值，应返回预先创建好的同一个实例(所有失败共用)，不在失败时分配
+     * @param rawValue     passthrough策略下由原始输入构造返回值；为null时返回null，由调用方自己保留原始值
+     */
+    public ErrorHandler handler(String column, ColumnMetrics metrics, Supplier<?> defaultValue, Function<Object, Object> rawValue) {
+        return new ErrorHandler(column, mode, metrics, defaultValue, rawValue, logIntervalNanos);
+    }
+
+    @Override
+    public String toString() {
+        return mode.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,20 @@
+package com.willowtech.debezium.error;
+
+import org.apache.kafka.connect.errors.DataException;
+
+/**
+ * 不填充堆栈的DataException，用于解析器内部可预期的失败(类型不符、结构不对)：
+ * 坏数据多时fillInStackTrace的开销远大于解析本身，而这类错误的堆栈没有排查价值
+ */
+public class StacklessDataException extends DataException {
+    private static final long serialVersionUID = 1L;
+
+    public StacklessDataException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
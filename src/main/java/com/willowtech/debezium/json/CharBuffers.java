@@ -0,0 +1,63 @@
+package com.willowtech.debezium.json;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * 线程内复用的解码器和char缓冲区：byte[]直接解码进缓冲区，String直接拷贝进缓冲区，
+ * 之后交给JsonParser按char[]解析，不创建中间String
+ */
+final class CharBuffers {
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final CharsetDecoder decoder;
+    private char[] chars = new char[INITIAL_BUFFER_SIZE];
+
+    private CharBuffers(Charset charset) {
+        // 与new String(bytes, charset)一致：非法字节替换而不是报错
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    static ThreadLocal<CharBuffers> perThread(Charset charset) {
+        return ThreadLocal.withInitial(() -> new CharBuffers(charset));
+    }
+
+    char[] chars() {
+        return chars;
+    }
+
+    char[] chars(int length) {
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        return chars;
+    }
+
+    char[] copy(String text) {
+        char[] buffer = chars(text.length());
+        text.getChars(0, text.length(), buffer, 0);
+        return buffer;
+    }
+
+    /**
+     * 解码到缓冲区，返回字符数
+     */
+    int decode(byte[] bytes) throws IOException {
+        int capacity = (int) Math.ceil(bytes.length * (double) decoder.maxCharsPerByte());
+        CharBuffer out = CharBuffer.wrap(chars(capacity));
+        decoder.reset();
+        CoderResult result = decoder.decode(ByteBuffer.wrap(bytes), out, true);
+        if (result.isOverflow() || decoder.flush(out).isOverflow()) {
+            throw new IOException("Char buffer overflow decoding " + bytes.length + " bytes as " + decoder.charset());
+        }
+        return out.position();
+    }
+}
@@ -0,0 +1,101 @@
+package com.willowtech.debezium.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一维JSON数组的流式解析：逐个token直接写进List&lt;String&gt;，不生成JsonNode树，也不做toString再解析
+ * <p>
+ * --支持 [111111111,2222222222222] 转为 ["111111111","2222222222222"]
+ * --支持 ["aaaaaa","ccccccccccccc"] 转为 ["aaaaaa","ccccccccccccc"]
+ * --兼容外层多一对引号的写法：'[...]'、"[...]"
+ * 数字、布尔按原文转成字符串，null元素保留为null；嵌套数组/对象视为格式错误
+ * <p>
+ * byte[]按构造时确定的字符集解码，解码器和char缓冲区按线程复用，不创建中间String
+ * <p>
+ * 结构不符时抛不带堆栈的{@link JsonParseException}，坏数据多时不必每条都填充堆栈
+ */
+public final class JsonArrayReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Charset charset;
+    private final ThreadLocal<CharBuffers> buffers;
+
+    public JsonArrayReader(Charset charset) {
+        this.charset = charset;
+        this.buffers = CharBuffers.perThread(charset);
+    }
+
+    public Charset charset() {
+        return charset;
+    }
+
+    public List<String> read(String text) throws IOException {
+        CharBuffers buffers = this.buffers.get();
+        return read(buffers.copy(text), 0, text.length());
+    }
+
+    public List<String> read(byte[] bytes) throws IOException {
+        CharBuffers buffers = this.buffers.get();
+        int length = buffers.decode(bytes);
+        return read(buffers.chars(), 0, length);
+    }
+
+    private List<String> read(char[] chars, int offset, int length) throws IOException {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && Character.isWhitespace(chars[start])) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(chars[end - 1])) {
+            end--;
+        }
+        if (end - start >= 2 && (chars[start] == '\'' || chars[start] == '"') && chars[end - 1] == chars[start]) {
+            start++;
+            end--;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(chars, start, end - start)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new MalformedArrayException(parser, "Expected a JSON array");
+            }
+            List<String> values = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new MalformedArrayException(parser, "Unexpected end of JSON array");
+                }
+                if (token == JsonToken.VALUE_NULL) {
+                    values.add(null);
+                } else if (token.isScalarValue()) {
+                    values.add(parser.getText());
+                } else {
+                    throw new MalformedArrayException(parser, "Nested value is not supported: " + token);
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw new MalformedArrayException(parser, "Unexpected content after JSON array");
+            }
+            return values;
+        }
+    }
+
+    private static final class MalformedArrayException extends JsonParseException {
+        private static final long serialVersionUID = 1L;
+
+        MalformedArrayException(JsonParser parser, String message) {
+            super(parser, message);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.willowtech.debezium.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按JSON路径从文档中只取出需要的几个值，输出只含这些字段的Struct
+ * <p>
+ * 配置语法：多个路径用逗号分隔，每个为 [字段名=]路径[:类型]
+ * <pre>
+ * user_id=$.user.id:int64,$.tags[*],city=$.address['city.name'],first_sku=$.items[0].sku
+ * </pre>
+ * 1、路径：$开头，.key、['key']取对象的字段，[n]取数组元素，[*]或.*取全部元素/字段
+ * 2、字段名省略时由路径中的key和下标用'_'连接，如$.user.id为user_id，$.tags[*]为tags
+ * 3、类型语法同{@link JsonSchemas}，默认string(对象/数组输出JSON原文)；含[*]的路径输出该类型的数组，JSON null不放入数组
+ * <p>
+ * 路径编译成一棵树，解析时按树流式遍历：树上没有的字段和数组元素直接skipChildren，不构造任何中间对象；
+ * 没有[*]的配置在全部路径都取到后立即停止解析，不再读文档剩余部分，耗时只与取出的数据量有关。
+ * 同一层的[*]不能与具体的key/下标混用，一个路径也不能是另一个路径的前缀(一个值只读取一次)
+ */
+public final class JsonPathReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    /**
+     * 路径中的[*]、.*；其他步骤为String(key)或Integer(下标)
+     */
+    private static final Object WILDCARD = new Object();
+
+    private final Schema schema;
+    private final Target[] targets;
+    private final Node root = new Node();
+    /**
+     * 只有不含[*]的路径时，全部取到即可停止
+     */
+    private final boolean stopWhenComplete;
+    private final ThreadLocal<CharBuffers> buffers;
+
+    public JsonPathReader(String definition, String schemaName, Charset charset) {
+        this(definition, schemaName, charset, null);
+    }
+
+    /**
+     * @param rawField 不为null时在schema末尾追加这个OPTIONAL STRING字段，解析时不填充，供调用方在失败时放原始文本
+     */
+    public JsonPathReader(String definition, String schemaName, Charset charset, String rawField) {
+        final List<String> entries = splitTopLevel(definition);
+        final List<Target> parsed = new ArrayList<>(entries.size());
+        final SchemaBuilder schemaBuilder = SchemaBuilder.struct().name(schemaName).optional();
+        boolean anyWildcard = false;
+        for (String entry : entries) {
+            Target target = parseTarget(entry, schemaName, parsed.size());
+            if (schemaBuilder.field(target.name) != null) {
+                throw new IllegalArgumentException("Duplicate field '" + target.name + "' in json paths: " + definition);
+            }
+            schemaBuilder.field(target.name, target.multi ? SchemaBuilder.array(target.schema).optional().build() : target.schema);
+            insert(target);
+            parsed.add(target);
+            anyWildcard |= target.multi;
+        }
+        if (rawField != null) {
+            if (schemaBuilder.field(rawField) != null) {
+                throw new IllegalArgumentException("Field '" + rawField + "' is reserved for the raw value: " + definition);
+            }
+            schemaBuilder.field(rawField, Schema.OPTIONAL_STRING_SCHEMA);
+        }
+        this.targets = parsed.toArray(new Target[0]);
+        this.schema = schemaBuilder.build();
+        this.stopWhenComplete = !anyWildcard;
+        this.buffers = CharBuffers.perThread(charset);
+    }
+
+    /**
+     * 按定义build出的schema；注册给Debezium时应按它复制一个新的SchemaBuilder，输出的Struct再用{@link #read(String, Schema)}
+     * 按Debezium最终build出的schema创建
+     */
+    public Schema schema() {
+        return schema;
+    }
+
+    public Struct read(String text) throws IOException {
+        return read(text, schema);
+    }
+
+    public Struct read(byte[] bytes) throws IOException {
+        return read(bytes, schema);
+    }
+
+    /**
+     * @param rootSchema 输出Struct的schema，字段与{@link #schema()}相同、顺序一致，参数等可以不同(如Debezium列映射添加的参数)
+     */
+    public Struct read(String text, Schema rootSchema) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(buffers.get().copy(text), 0, text.length())) {
+            return readDocument(parser, rootSchema);
+        }
+    }
+
+    public Struct read(byte[] bytes, Schema rootSchema) throws IOException {
+        CharBuffers buffers = this.buffers.get();
+        int length = buffers.decode(bytes);
+        try (JsonParser parser = JSON_FACTORY.createParser(buffers.chars(), 0, length)) {
+            return readDocument(parser, rootSchema);
+        }
+    }
+
+    private Struct readDocument(JsonParser parser, Schema schema) throws IOException {
+        final Cursor cursor = new Cursor(targets.length);
+        parser.nextToken();
+        walk(parser, root, cursor);
+        final Object[] values = cursor.values;
+        final Struct struct = new Struct(schema);
+        final List<Field> fields = schema.fields();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                struct.put(fields.get(i), values[i]);
+            }
+        }
+        return struct;
+    }
+
+    /**
+     * 从当前token开始遍历一个值，返回true表示全部路径已取到、可以停止
+     */
+    @SuppressWarnings("unchecked")
+    private boolean walk(JsonParser parser, Node node, Cursor cursor) throws IOException {
+        if (node.target != null) {
+            Target target = node.target;
+            Object value = JsonStructReader.readValue(parser, target.schema);
+            Object[] values = cursor.values;
+            if (!target.multi) {
+                values[target.index] = value;
+                // 重复的key只计一次，值取最后一个
+                if (!cursor.found[target.index]) {
+                    cursor.found[target.index] = true;
+                    return stopWhenComplete && --cursor.remaining == 0;
+                }
+                return false;
+            }
+            if (value != null) {
+                if (values[target.index] == null) {
+                    values[target.index] = new ArrayList<>();
+                }
+                ((List<Object>) values[target.index]).add(value);
+            }
+            return false;
+        }
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT && (node.keys != null || node.wildcard != null)) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                Node child = node.keys != null ? node.keys.get(parser.getCurrentName()) : node.wildcard;
+                parser.nextToken();
+                if (child == null) {
+                    parser.skipChildren();
+                } else if (walk(parser, child, cursor)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (token == JsonToken.START_ARRAY && (node.indexes != null || node.wildcard != null)) {
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                Node child = node.indexes == null ? node.wildcard
+                        : index < node.indexes.length ? node.indexes[index] : null;
+                index++;
+                if (child == null) {
+                    parser.skipChildren();
+                } else if (walk(parser, child, cursor)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        // 类型与路径不符(如对数组取key)，整个值跳过，对应字段为null
+        parser.skipChildren();
+        return false;
+    }
+
+    private void insert(Target target) {
+        Node node = root;
+        for (Object step : target.steps) {
+            if (node.target != null) {
+                throw prefixConflict(node.target, target);
+            }
+            if (step == WILDCARD) {
+                if (node.keys != null || node.indexes != null) {
+                    throw new IllegalArgumentException("[*] cannot be combined with other keys or indexes at the same level: " + target.path);
+                }
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+                node = node.wildcard;
+            } else if (step instanceof Integer) {
+                int index = (Integer) step;
+                if (node.wildcard != null || node.keys != null) {
+                    throw new IllegalArgumentException("[" + index + "] cannot be combined with [*] or keys at the same level: " + target.path);
+                }
+                if (node.indexes == null || node.indexes.length <= index) {
+                    node.indexes = node.indexes == null ? new Node[index + 1] : Arrays.copyOf(node.indexes, index + 1);
+                }
+                if (node.indexes[index] == null) {
+                    node.indexes[index] = new Node();
+                }
+                node = node.indexes[index];
+            } else {
+                if (node.wildcard != null || node.indexes != null) {
+                    throw new IllegalArgumentException("Key '" + step + "' cannot be combined with [*] or indexes at the same level: " + target.path);
+                }
+                if (node.keys == null) {
+                    node.keys = new HashMap<>();
+                }
+                node = node.keys.computeIfAbsent((String) step, k -> new Node());
+            }
+        }
+        if (node.target != null || node.keys != null || node.indexes != null || node.wildcard != null) {
+            throw prefixConflict(node.target, target);
+        }
+        node.target = target;
+    }
+
+    private static IllegalArgumentException prefixConflict(Target existing, Target target) {
+        return new IllegalArgumentException("Json path " + target.path + " overlaps another configured path"
+                + (existing == null ? "" : " " + existing.path));
+    }
+
+    /**
+     * [字段名=]路径[:类型]
+     */
+    private static Target parseTarget(String entry, String schemaName, int index) {
+        String text = entry.trim();
+        String name = null;
+        int equals = text.indexOf('=');
+        if (equals > 0 && text.indexOf('$') > equals) {
+            name = text.substring(0, equals).trim();
+            text = text.substring(equals + 1).trim();
+        }
+        if (!text.startsWith("$")) {
+            throw new IllegalArgumentException("Json path must start with '$': " + entry);
+        }
+        List<Object> steps = new ArrayList<>();
+        StringBuilder defaultName = new StringBuilder();
+        int pos = 1;
+        while (pos < text.length() && text.charAt(pos) != ':') {
+            char c = text.charAt(pos);
+            if (c == '.') {
+                int end = pos + 1;
+                while (end < text.length() && ".[:".indexOf(text.charAt(end)) < 0) {
+                    end++;
+                }
+                String key = text.substring(pos + 1, end);
+                if (key.isEmpty()) {
+                    throw new IllegalArgumentException("Empty key in json path: " + entry);
+                }
+                addStep(steps, defaultName, "*".equals(key) ? WILDCARD : key);
+                pos = end;
+            } else if (c == '[') {
+                int end;
+                if (pos + 1 < text.length() && text.charAt(pos + 1) == '\'') {
+                    end = text.indexOf("']", pos + 2);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Unclosed ['key'] in json path: " + entry);
+                    }
+                    addStep(steps, defaultName, text.substring(pos + 2, end));
+                    pos = end + 2;
+                    continue;
+                }
+                end = text.indexOf(']', pos);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed [ in json path: " + entry);
+                }
+                String selector = text.substring(pos + 1, end).trim();
+                if ("*".equals(selector)) {
+                    addStep(steps, defaultName, WILDCARD);
+                } else {
+                    try {
+                        addStep(steps, defaultName, Integer.valueOf(selector));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid index [" + selector + "] in json path: " + entry);
+                    }
+                }
+                pos = end + 1;
+            } else {
+                throw new IllegalArgumentException("Unexpected '" + c + "' at position " + pos + " of json path: " + entry);
+            }
+        }
+        String path = text.substring(0, pos);
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("Json path must select at least one key or index: " + entry);
+        }
+        if (name == null) {
+            name = defaultName.toString();
+        }
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Field name is required for json path " + path);
+        }
+        Schema type = pos < text.length()
+                ? JsonSchemas.parseType(text.substring(pos + 1), schemaName + "." + name).build()
+                : Schema.OPTIONAL_STRING_SCHEMA;
+        return new Target(index, name, path, steps.toArray(), type, steps.contains(WILDCARD));
+    }
+
+    private static void addStep(List<Object> steps, StringBuilder defaultName, Object step) {
+        if (step instanceof Integer && (Integer) step < 0) {
+            throw new IllegalArgumentException("Negative index [" + step + "] in json path");
+        }
+        steps.add(step);
+        if (step != WILDCARD) {
+            if (defaultName.length() > 0) {
+                defaultName.append('_');
+            }
+            defaultName.append(step);
+        }
+    }
+
+    /**
+     * 按不在&lt;&gt;内的逗号拆分，类型中的struct&lt;a:int64,b:string&gt;不会被拆开
+     */
+    private static List<String> splitTopLevel(String definition) {
+        List<String> entries = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < definition.length(); i++) {
+            char c = definition.charAt(i);
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                addEntry(entries, definition.substring(start, i));
+                start = i + 1;
+            }
+        }
+        addEntry(entries, definition.substring(start));
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("No json path configured: " + definition);
+        }
+        return entries;
+    }
+
+    private static void addEntry(List<String> entries, String entry) {
+        if (!entry.trim().isEmpty()) {
+            entries.add(entry.trim());
+        }
+    }
+
+    private static final class Target {
+        final int index;
+        final String name;
+        final String path;
+        final Object[] steps;
+        final Schema schema;
+        /**
+         * 路径含[*]，输出数组
+         */
+        final boolean multi;
+
+        Target(int index, String name, String path, Object[] steps, Schema schema, boolean multi) {
+            this.index = index;
+            this.name = name;
+            this.path = path;
+            this.steps = steps;
+            this.schema = schema;
+            this.multi = multi;
+        }
+    }
+
+    /**
+     * 一次解析的状态
+     */
+    private static final class Cursor {
+        final Object[] values;
+        final boolean[] found;
+        int remaining;
+
+        Cursor(int size) {
+            this.values = new Object[size];
+            this.found = new boolean[size];
+            this.remaining = size;
+        }
+    }
+
+    /**
+     * keys、indexes、wildcard最多一个非空；target非空时是叶子
+     */
+    private static final class Node {
+        Map<String, Node> keys;
+        Node[] indexes;
+        Node wildcard;
+        Target target;
+    }
+}
@@ -0,0 +1,213 @@
+package com.willowtech.debezium.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * JSON列的目标schema：配置中声明，或者由配置给出的样例文档推断
+ * <p>
+ * 声明语法：字段之间用逗号分隔，字段名与类型用冒号分隔，类型可以嵌套
+ * <pre>
+ * id:int64,name:string,score:float64,tags:array&lt;string&gt;,attrs:map&lt;string&gt;,geo:struct&lt;lat:float64,lon:float64&gt;
+ * </pre>
+ * 支持的类型：int8、int16、int32、int64、float32、float64、boolean、string、array&lt;T&gt;、map&lt;T&gt;(key固定为string)、struct&lt;...&gt;
+ * <p>
+ * 样例推断：以'{'开头的配置值视为样例文档，整数推断为int64，小数为float64，数组取第一个元素的类型，null和空数组按string处理。
+ * 所有字段都是optional，JSON中缺失的字段输出为null
+ */
+public final class JsonSchemas {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private JsonSchemas() {
+    }
+
+    /**
+     * 解析配置值：样例文档或声明语法，name为顶层struct的schema名
+     */
+    public static SchemaBuilder parse(String definition, String name) {
+        String trimmed = definition.trim();
+        if (trimmed.startsWith("{")) {
+            return infer(trimmed, name);
+        }
+        Parser parser = new Parser(trimmed);
+        SchemaBuilder builder = parser.structFields(name);
+        parser.expectEnd();
+        return builder;
+    }
+
+    /**
+     * 解析单个类型，如 int64、array&lt;string&gt;、struct&lt;lat:float64,lon:float64&gt;
+     */
+    public static SchemaBuilder parseType(String definition, String name) {
+        Parser parser = new Parser(definition.trim());
+        SchemaBuilder builder = parser.type(name);
+        parser.expectEnd();
+        return builder;
+    }
+
+    public static SchemaBuilder infer(String sampleDocument, String name) {
+        try (JsonParser parser = JSON_FACTORY.createParser(sampleDocument)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Sample JSON document must be an object: " + sampleDocument);
+            }
+            return inferStruct(parser, name);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid sample JSON document: " + sampleDocument, e);
+        }
+    }
+
+    private static SchemaBuilder inferStruct(JsonParser parser, String name) throws IOException {
+        SchemaBuilder builder = SchemaBuilder.struct().name(name).optional();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            builder.field(field, inferValue(parser, name + "." + field).build());
+        }
+        return builder;
+    }
+
+    private static SchemaBuilder inferValue(JsonParser parser, String name) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT:
+                return inferStruct(parser, name);
+            case START_ARRAY:
+                SchemaBuilder element = null;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (element == null) {
+                        element = inferValue(parser, name);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                return SchemaBuilder.array(element == null ? Schema.OPTIONAL_STRING_SCHEMA : element.build()).optional();
+            case VALUE_NUMBER_INT:
+                return SchemaBuilder.int64().optional();
+            case VALUE_NUMBER_FLOAT:
+                return SchemaBuilder.float64().optional();
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return SchemaBuilder.bool().optional();
+            default:
+                return SchemaBuilder.string().optional();
+        }
+    }
+
+    /**
+     * 声明语法的递归下降解析
+     */
+    private static final class Parser {
+
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        SchemaBuilder structFields(String name) {
+            SchemaBuilder builder = SchemaBuilder.struct().name(name).optional();
+            do {
+                String field = identifier();
+                expect(':');
+                builder.field(field, type(name + "." + field).build());
+            } while (accept(','));
+            return builder;
+        }
+
+        SchemaBuilder type(String name) {
+            String type = identifier().toLowerCase(Locale.ROOT);
+            switch (type) {
+                case "int8":
+                    return SchemaBuilder.int8().optional();
+                case "int16":
+                    return SchemaBuilder.int16().optional();
+                case "int32":
+                    return SchemaBuilder.int32().optional();
+                case "int64":
+                    return SchemaBuilder.int64().optional();
+                case "float32":
+                    return SchemaBuilder.float32().optional();
+                case "float64":
+                    return SchemaBuilder.float64().optional();
+                case "boolean":
+                    return SchemaBuilder.bool().optional();
+                case "string":
+                    return SchemaBuilder.string().optional();
+                case "array": {
+                    expect('<');
+                    SchemaBuilder element = type(name);
+                    expect('>');
+                    return SchemaBuilder.array(element.build()).optional();
+                }
+                case "map": {
+                    expect('<');
+                    SchemaBuilder value = type(name);
+                    expect('>');
+                    return SchemaBuilder.map(Schema.STRING_SCHEMA, value.build()).optional();
+                }
+                case "struct": {
+                    expect('<');
+                    SchemaBuilder struct = structFields(name);
+                    expect('>');
+                    return struct;
+                }
+                default:
+                    throw error("Unknown type '" + type + "'");
+            }
+        }
+
+        String identifier() {
+            skipWhitespace();
+            int start = pos;
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                if (c == ':' || c == ',' || c == '<' || c == '>' || Character.isWhitespace(c)) {
+                    break;
+                }
+                pos++;
+            }
+            if (start == pos) {
+                throw error("Identifier expected");
+            }
+            return text.substring(start, pos);
+        }
+
+        boolean accept(char c) {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!accept(c)) {
+                throw error("'" + c + "' expected");
+            }
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw error("Unexpected content");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + " of schema definition: " + text);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.willowtech.debezium.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.willowtech.debezium.error.StacklessDataException;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按目标schema把JSON文本流式解析成Connect值(Struct/Map/List/基本类型)
+ * <p>
+ * schema中没有的字段直接skipChildren跳过；数字和布尔既接受JSON原生类型，也接受字符串形式；
+ * STRING类型的字段遇到对象/数组时输出其JSON原文
+ * <p>
+ * 类型不符、结构不对、整数超出INT8/INT16/INT32/INT64范围时抛不带堆栈的{@link StacklessDataException}，
+ * 调用方按{@link com.willowtech.debezium.error.ErrorPolicy}处理；错误信息中的位置(JSON Pointer)只在抛异常时由解析器的上下文生成，
+ * 正常解析时不为每个字段拼接路径字符串
+ */
+public final class JsonStructReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Schema schema;
+    private final ThreadLocal<CharBuffers> buffers;
+
+    public JsonStructReader(Schema schema, Charset charset) {
+        this.schema = schema;
+        this.buffers = CharBuffers.perThread(charset);
+    }
+
+    public Schema schema() {
+        return schema;
+    }
+
+    public Object read(String text) throws IOException {
+        return read(text, schema);
+    }
+
+    public Object read(byte[] bytes) throws IOException {
+        return read(bytes, schema);
+    }
+
+    /**
+     * @param rootSchema 顶层值使用的schema，与构造时的schema定义相同，可以多出parameters等属性
+     *                   (如Debezium的列映射修改后build出的版本)；嵌套的值仍按各字段自己的schema
+     */
+    public Object read(String text, Schema rootSchema) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(buffers.get().copy(text), 0, text.length())) {
+            return readDocument(parser, rootSchema);
+        }
+    }
+
+    public Object read(byte[] bytes, Schema rootSchema) throws IOException {
+        CharBuffers buffers = this.buffers.get();
+        int length = buffers.decode(bytes);
+        try (JsonParser parser = JSON_FACTORY.createParser(buffers.chars(), 0, length)) {
+            return readDocument(parser, rootSchema);
+        }
+    }
+
+    private static Object readDocument(JsonParser parser, Schema rootSchema) throws IOException {
+        parser.nextToken();
+        Object value = readValue(parser, rootSchema);
+        if (parser.nextToken() != null) {
+            throw new StacklessDataException("Unexpected content after JSON value");
+        }
+        return value;
+    }
+
+    /**
+     * 按schema读取当前token开始的值，读完后停在该值的最后一个token上
+     */
+    static Object readValue(JsonParser parser, Schema schema) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == null) {
+            throw new StacklessDataException("Unexpected end of JSON at '" + path(parser) + "'");
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        switch (schema.type()) {
+            case INT8:
+                return (byte) readLong(parser, Byte.MIN_VALUE, Byte.MAX_VALUE, "int8");
+            case INT16:
+                return (short) readLong(parser, Short.MIN_VALUE, Short.MAX_VALUE, "int16");
+            case INT32:
+                return (int) readLong(parser, Integer.MIN_VALUE, Integer.MAX_VALUE, "int32");
+            case INT64:
+                return readLong(parser, Long.MIN_VALUE, Long.MAX_VALUE, "int64");
+            case FLOAT32:
+                return (float) readDouble(parser);
+            case FLOAT64:
+                return readDouble(parser);
+            case BOOLEAN:
+                return readBoolean(parser);
+            case STRING:
+                return token.isScalarValue() ? parser.getText() : copyStructure(parser);
+            case ARRAY:
+                return readArray(parser, schema.valueSchema());
+            case MAP:
+                return readMap(parser, schema.valueSchema());
+            case STRUCT:
+                return readStruct(parser, schema);
+            default:
+                throw new StacklessDataException("Unsupported schema type " + schema.type() + " at '" + path(parser) + "'");
+        }
+    }
+
+    private static Struct readStruct(JsonParser parser, Schema schema) throws IOException {
+        expect(parser, JsonToken.START_OBJECT);
+        Struct struct = new Struct(schema);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Field field = schema.field(parser.getCurrentName());
+            parser.nextToken();
+            if (field == null) {
+                parser.skipChildren();
+                continue;
+            }
+            struct.put(field, readValue(parser, field.schema()));
+        }
+        return struct;
+    }
+
+    private static Map<String, Object> readMap(JsonParser parser, Schema valueSchema) throws IOException {
+        expect(parser, JsonToken.START_OBJECT);
+        Map<String, Object> map = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            parser.nextToken();
+            map.put(key, readValue(parser, valueSchema));
+        }
+        return map;
+    }
+
+    private static List<Object> readArray(JsonParser parser, Schema elementSchema) throws IOException {
+        expect(parser, JsonToken.START_ARRAY);
+        List<Object> list = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            list.add(readValue(parser, elementSchema));
+        }
+        return list;
+    }
+
+    /**
+     * 超出[min, max]的值抛异常，不截断成错误的值；小数按(long)截掉小数部分
+     */
+    private static long readLong(JsonParser parser, long min, long max, String type) throws IOException {
+        long value;
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+                if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+                    throw outOfRange(parser, type);
+                }
+                value = parser.getLongValue();
+                break;
+            case VALUE_NUMBER_FLOAT:
+                double number = parser.getDoubleValue();
+                // ±2^63在double中可以精确表示，(long)转换对超出范围的值会饱和为Long.MIN_VALUE/MAX_VALUE
+                if (!(number >= -0x1p63 && number < 0x1p63)) {
+                    throw outOfRange(parser, type);
+                }
+                value = (long) number;
+                break;
+            case VALUE_STRING:
+                try {
+                    value = Long.parseLong(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw mismatch(parser, "integer");
+                }
+                break;
+            default:
+                throw mismatch(parser, "integer");
+        }
+        if (value < min || value > max) {
+            throw outOfRange(parser, type);
+        }
+        return value;
+    }
+
+    private static double readDouble(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_STRING:
+                try {
+                    return Double.parseDouble(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw mismatch(parser, "number");
+                }
+            default:
+                throw mismatch(parser, "number");
+        }
+    }
+
+    private static boolean readBoolean(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_TRUE:
+                return true;
+            case VALUE_FALSE:
+                return false;
+            case VALUE_NUMBER_INT:
+                return parser.getLongValue() != 0;
+            case VALUE_STRING:
+                return Boolean.parseBoolean(parser.getText().trim());
+            default:
+                throw mismatch(parser, "boolean");
+        }
+    }
+
+    private static String copyStructure(JsonParser parser) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return writer.toString();
+    }
+
+    private static void expect(JsonParser parser, JsonToken expected) {
+        if (parser.currentToken() != expected) {
+            throw mismatch(parser, expected.name());
+        }
+    }
+
+    private static DataException mismatch(JsonParser parser, String expected) {
+        return new StacklessDataException("Expected " + expected + " at '" + path(parser) + "' but found " + parser.currentToken());
+    }
+
+    private static DataException outOfRange(JsonParser parser, String type) throws IOException {
+        return new StacklessDataException("Value " + parser.getText() + " at '" + path(parser) + "' is out of range for " + type);
+    }
+
+    /**
+     * 当前值在文档中的位置，如/geo/lat、/tags/0；根为空字符串
+     */
+    private static String path(JsonParser parser) {
+        return parser.getParsingContext().pathAsPointer().toString();
+    }
+}
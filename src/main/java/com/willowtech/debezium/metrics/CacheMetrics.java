@@ -0,0 +1,42 @@
+package com.willowtech.debezium.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 缓存计数的只读视图：计数由缓存自己维护(如{@link com.willowtech.debezium.cache.LongKeyCache#hits()})，这里只在JMX读取时取值，
+ * 转换路径上没有额外开销；没有reset，缓存可能被多个实例共用
+ */
+final class CacheMetrics implements CacheMetricsMXBean {
+
+    private final int capacity;
+    private final LongSupplier hits;
+    private final LongSupplier misses;
+
+    CacheMetrics(int capacity, LongSupplier hits, LongSupplier misses) {
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.getAsLong();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.getAsLong();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hit = hits.getAsLong();
+        long total = hit + misses.getAsLong();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+}
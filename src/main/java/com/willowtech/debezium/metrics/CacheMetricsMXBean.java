@@ -0,0 +1,15 @@
+package com.willowtech.debezium.metrics;
+
+/**
+ * 插件内部缓存(格式化结果缓存、字符串字典等)的JMX视图，命中率为 hits/(hits+misses)，没有访问时为0
+ */
+public interface CacheMetricsMXBean {
+
+    int getCapacity();
+
+    long getHits();
+
+    long getMisses();
+
+    double getHitRatio();
+}
@@ -0,0 +1,141 @@
+package com.willowtech.debezium.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个converter列(或transform字段)的计数器，全部基于LongAdder，多个task线程同时记录也不会互相争用
+ * <p>
+ * 指标关闭时使用{@link #NOOP}，各record方法为空实现，调用处不需要判断开关
+ */
+public class ColumnMetrics implements ColumnMetricsMXBean {
+
+    public static final ColumnMetrics NOOP = new ColumnMetrics() {
+        @Override
+        public boolean enabled() {
+            return false;
+        }
+
+        @Override
+        public void recordInvocation(Object input, long nanos) {
+        }
+
+        @Override
+        public void recordFailure() {
+        }
+
+        @Override
+        public void recordFallback() {
+        }
+
+        @Override
+        public void recordHandledFailure(boolean nullOutput) {
+        }
+    };
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder nulls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    /**
+     * 当前线程由ErrorHandler处理、输出null的一行，instrument据此不再把这一行记为fallback
+     */
+    private final ThreadLocal<boolean[]> handledNull = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    public boolean enabled() {
+        return true;
+    }
+
+    public void recordInvocation(Object input, long nanos) {
+        invocations.increment();
+        if (input == null) {
+            nulls.increment();
+        }
+        latency.record(nanos);
+    }
+
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * 转换没有失败，但输出的是兜底值(默认值、空数组、null等)
+     */
+    public void recordFallback() {
+        fallbacks.increment();
+    }
+
+    /**
+     * ErrorHandler处理掉的失败，一行只记一次failure；输出null时标记当前线程，见{@link #consumeHandledNull()}
+     */
+    public void recordHandledFailure(boolean nullOutput) {
+        failures.increment();
+        if (nullOutput) {
+            handledNull.get()[0] = true;
+        }
+    }
+
+    /**
+     * 非null输入得到null输出时由instrument调用：返回这一行是否已经作为failure记录过，并清除标记
+     */
+    boolean consumeHandledNull() {
+        final boolean[] flag = handledNull.get();
+        final boolean handled = flag[0];
+        flag[0] = false;
+        return handled;
+    }
+
+    @Override
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    @Override
+    public long getNulls() {
+        return nulls.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    @Override
+    public double getLatencyMeanNanos() {
+        return latency.mean();
+    }
+
+    @Override
+    public long getLatencyP50Nanos() {
+        return latency.percentile(0.5);
+    }
+
+    @Override
+    public long getLatencyP99Nanos() {
+        return latency.percentile(0.99);
+    }
+
+    @Override
+    public long getLatencyP999Nanos() {
+        return latency.percentile(0.999);
+    }
+
+    @Override
+    public long getLatencyMaxNanos() {
+        return latency.max();
+    }
+
+    @Override
+    public void reset() {
+        invocations.reset();
+        nulls.reset();
+        failures.reset();
+        fallbacks.reset();
+        latency.reset();
+    }
+}
@@ -0,0 +1,27 @@
+package com.willowtech.debezium.metrics;
+
+/**
+ * 单个converter列(或transform字段)的JMX视图，耗时单位为纳秒
+ */
+public interface ColumnMetricsMXBean {
+
+    long getInvocations();
+
+    long getNulls();
+
+    long getFailures();
+
+    long getFallbacks();
+
+    double getLatencyMeanNanos();
+
+    long getLatencyP50Nanos();
+
+    long getLatencyP99Nanos();
+
+    long getLatencyP999Nanos();
+
+    long getLatencyMaxNanos();
+
+    void reset();
+}
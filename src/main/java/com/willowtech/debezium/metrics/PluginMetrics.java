@@ -0,0 +1,269 @@
+package com.willowtech.debezium.metrics;
+
+import io.debezium.spi.converter.CustomConverter;
+import org.apache.kafka.common.config.AbstractConfig;
+import org.apache.kafka.common.config.ConfigDef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * converter/transform实例的JMX指标，每个列(字段)注册一个{@link ColumnMetricsMXBean}，内部缓存注册{@link CacheMetricsMXBean}：
+ * <pre>
+ * com.willowtech.debezium:type=converter,connector=&lt;连接器&gt;,name=&lt;converter前缀&gt;,column=&lt;库.表.列&gt;
+ * com.willowtech.debezium:type=transform,connector=&lt;连接器&gt;,name=&lt;transform别名&gt;,column=&lt;字段|record&gt;
+ * com.willowtech.debezium:type=transform,connector=&lt;连接器&gt;,name=&lt;transform别名&gt;,trace=records
+ * com.willowtech.debezium:type=converter,connector=&lt;连接器&gt;,name=&lt;converter前缀&gt;,cache=&lt;缓存&gt;
+ * </pre>
+ * Debezium和Connect传给插件的配置已经去掉了前缀，插件拿不到自己的前缀和连接器名，所以：
+ * name由metrics.name指定，默认为 类名-配置摘要(插件全部配置排序后的哈希)：同一连接器里同一个类配置不同的两个实例不会落到同一个ObjectName，
+ * task重启后配置不变、名字也不变，新实例的MBean直接替换旧的；connector由metrics.connector指定，默认取Debezium/Connect放在MDC中的连接器名
+ * <p>
+ * metrics.enabled默认关闭，关闭时{@link #column(String)}返回{@link ColumnMetrics#NOOP}，
+ * {@link #instrument}/{@link #instrumentFunction}直接返回原函数，转换路径上没有任何额外开销
+ */
+public final class PluginMetrics implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginMetrics.class);
+
+    public static final String DOMAIN = "com.willowtech.debezium";
+    public static final String ENABLED_CONFIG = "metrics.enabled";
+    public static final String NAME_CONFIG = "metrics.name";
+    public static final String CONNECTOR_CONFIG = "metrics.connector";
+
+    public static final PluginMetrics DISABLED = new PluginMetrics(null, null, null, false);
+
+    /**
+     * Debezium的LoggingContext和Connect worker放入MDC的连接器信息
+     */
+    private static final String DEBEZIUM_CONNECTOR_MDC = "dbz.connectorName";
+    private static final String CONNECT_CONTEXT_MDC = "connector.context";
+
+    private final String type;
+    private final String connector;
+    private final String name;
+    private final boolean enabled;
+    private final ConcurrentMap<String, ColumnMetrics> columns = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ObjectName> registered = new ConcurrentHashMap<>();
+
+    private PluginMetrics(String type, String connector, String name, boolean enabled) {
+        this.type = type;
+        this.connector = connector;
+        this.name = name;
+        this.enabled = enabled;
+    }
+
+    /**
+     * transform在自己的ConfigDef中声明指标配置
+     */
+    public static ConfigDef define(ConfigDef configDef) {
+        return configDef
+                .define(ENABLED_CONFIG, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW,
+                        "Whether to expose per-field invocation/failure counters and latency histograms through JMX.")
+                .define(NAME_CONFIG, ConfigDef.Type.STRING, null, ConfigDef.Importance.LOW,
+                        "Name used in the JMX object name, usually the transform alias. Defaults to the class name followed by a hash of the configuration.")
+                .define(CONNECTOR_CONFIG, ConfigDef.Type.STRING, null, ConfigDef.Importance.LOW,
+                        "Connector name used in the JMX object name. Defaults to the connector name found in the logging context.");
+    }
+
+    public static PluginMetrics forConverter(Properties props, Class<?> converterClass) {
+        if (!Boolean.parseBoolean(props.getProperty(ENABLED_CONFIG, "false").trim())) {
+            return DISABLED;
+        }
+        return new PluginMetrics("converter", connectorName(props.getProperty(CONNECTOR_CONFIG)),
+                nonEmpty(props.getProperty(NAME_CONFIG), defaultName(converterClass, props)), true);
+    }
+
+    /**
+     * 指标关闭时也带上connector和name，{@link RecordTracer}的注册不受metrics.enabled影响
+     */
+    public static PluginMetrics forTransform(AbstractConfig config, Class<?> transformClass) {
+        return new PluginMetrics("transform", connectorName(config.getString(CONNECTOR_CONFIG)),
+                nonEmpty(config.getString(NAME_CONFIG), defaultName(transformClass, config.originals())), config.getBoolean(ENABLED_CONFIG));
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * 某列的计数器，第一次获取时注册MBean；表结构刷新后同一列重新注册converter时复用原来的计数器
+     */
+    public ColumnMetrics column(String column) {
+        if (!enabled) {
+            return ColumnMetrics.NOOP;
+        }
+        return columns.computeIfAbsent(column, c -> {
+            ColumnMetrics metrics = new ColumnMetrics();
+            register("column", c, metrics);
+            return metrics;
+        });
+    }
+
+    /**
+     * 注册缓存的命中/未命中计数(见{@link CacheMetricsMXBean})，指标关闭时不注册；
+     * 配置相同的实例共用一个缓存时，各实例的MBean读到的是同一份计数
+     */
+    public void registerCache(String cache, int capacity, LongSupplier hits, LongSupplier misses) {
+        if (enabled) {
+            register("cache", cache, new CacheMetrics(capacity, hits, misses));
+        }
+    }
+
+    /**
+     * 注册采样记录的MBean，采样关闭时不注册
+     */
+    public void register(RecordTracer tracer) {
+        if (tracer.enabled() && type != null) {
+            register("trace", "records", tracer);
+        }
+    }
+
+    /**
+     * 包装converter：统计调用次数、null输入、异常、非null输入得到null输出(兜底)以及耗时；
+     * ErrorHandler已经记为failure的行不再记fallback，一行只计一次
+     */
+    public static CustomConverter.Converter instrument(ColumnMetrics metrics, CustomConverter.Converter converter) {
+        if (!metrics.enabled()) {
+            return converter;
+        }
+        return input -> {
+            long start = System.nanoTime();
+            try {
+                Object output = converter.convert(input);
+                if (output == null && input != null && !metrics.consumeHandledNull()) {
+                    metrics.recordFallback();
+                }
+                return output;
+            } catch (RuntimeException e) {
+                metrics.recordFailure();
+                throw e;
+            } finally {
+                metrics.recordInvocation(input, System.nanoTime() - start);
+            }
+        };
+    }
+
+    /**
+     * 包装transform中的字段转换函数，统计口径与converter相同
+     */
+    public static <T, R> Function<T, R> instrumentFunction(ColumnMetrics metrics, Function<T, R> function) {
+        if (!metrics.enabled()) {
+            return function;
+        }
+        return input -> {
+            long start = System.nanoTime();
+            try {
+                R output = function.apply(input);
+                if (output == null && input != null && !metrics.consumeHandledNull()) {
+                    metrics.recordFallback();
+                }
+                return output;
+            } catch (RuntimeException e) {
+                metrics.recordFailure();
+                throw e;
+            } finally {
+                metrics.recordInvocation(input, System.nanoTime() - start);
+            }
+        };
+    }
+
+    private void register(String key, String value, Object mbean) {
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",connector=" + quote(connector)
+                    + ",name=" + quote(name) + "," + key + "=" + quote(value));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            // task重启后会重新创建插件实例，旧实例的MBean已经没有用了，直接替换；其他情况是两个实例用了同一个metrics.name
+            if (server.isRegistered(objectName)) {
+                log.warn("Metrics {} already registered, replacing it. This is expected after a task restart, "
+                        + "otherwise give each plugin instance a distinct {}", objectName, NAME_CONFIG);
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(mbean, objectName);
+            registered.put(key + "=" + value, objectName);
+            log.info("registered metrics {}", objectName);
+        } catch (JMException e) {
+            // 指标注册失败不影响数据转换，计数器照常工作，只是JMX中看不到
+            log.warn("Cannot register metrics for {} {} {} {}", type, name, key, value, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : registered.values()) {
+            try {
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                log.warn("Cannot unregister metrics {}", objectName, e);
+            }
+        }
+        registered.clear();
+        columns.clear();
+    }
+
+    private static String connectorName(String configured) {
+        if (configured != null && !configured.trim().isEmpty()) {
+            return configured.trim();
+        }
+        String connector = MDC.get(DEBEZIUM_CONNECTOR_MDC);
+        if (connector != null && !connector.isEmpty()) {
+            return connector;
+        }
+        // Connect worker的格式为 "[connector-name|task-0] "
+        String context = MDC.get(CONNECT_CONTEXT_MDC);
+        if (context != null) {
+            int start = context.indexOf('[');
+            int end = context.indexOf('|');
+            if (start >= 0 && end > start + 1) {
+                return context.substring(start + 1, end);
+            }
+        }
+        return "unknown";
+    }
+
+    /**
+     * 类名-配置摘要，配置按key排序，与书写顺序无关
+     */
+    static String defaultName(Class<?> pluginClass, Map<?, ?> configs) {
+        final Map<String, String> sorted = new TreeMap<>();
+        for (Map.Entry<?, ?> entry : configs.entrySet()) {
+            sorted.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+        }
+        return pluginClass.getSimpleName() + "-" + Integer.toHexString(sorted.hashCode());
+    }
+
+    private static String nonEmpty(String value, String defaultValue) {
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    private static String quote(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            switch (value.charAt(i)) {
+                case ',':
+                case '=':
+                case ':':
+                case '"':
+                case '*':
+                case '?':
+                case '\n':
+                    return ObjectName.quote(value);
+                default:
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,146 @@
+package com.willowtech.debezium.metrics;
+
+import org.apache.kafka.common.config.AbstractConfig;
+import org.apache.kafka.common.config.ConfigDef;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * 按采样率记录transform处理前后的数据，替代逐条的log.info
+ * <p>
+ * 1、trace.sample.every=N：每条记录以1/N的概率采样(ThreadLocalRandom，无共享状态)
+ * 2、trace.sample.per.second=M：每个topic每秒最多采样M条
+ * 两者都配置时需同时满足；都为0(默认)时关闭。采样到的记录写入固定大小的环形缓冲区，通过JMX的dump操作查看。
+ * 未采样的记录只做一次随机数判断，不拼接任何字符串
+ */
+public final class RecordTracer implements RecordTracerMXBean {
+
+    public static final String SAMPLE_EVERY_CONFIG = "trace.sample.every";
+    public static final String SAMPLE_PER_SECOND_CONFIG = "trace.sample.per.second";
+    public static final String BUFFER_SIZE_CONFIG = "trace.buffer.size";
+
+    public static final RecordTracer DISABLED = new RecordTracer(0, 0, 1);
+
+    private final int sampleEvery;
+    private final int samplePerSecond;
+    private final boolean enabled;
+    private final AtomicReferenceArray<String> buffer;
+    private final AtomicLong next = new AtomicLong();
+    private final ConcurrentMap<String, TopicWindow> windows = new ConcurrentHashMap<>();
+
+    private RecordTracer(int sampleEvery, int samplePerSecond, int capacity) {
+        this.sampleEvery = sampleEvery;
+        this.samplePerSecond = samplePerSecond;
+        this.enabled = sampleEvery > 0 || samplePerSecond > 0;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+    }
+
+    public static ConfigDef define(ConfigDef configDef) {
+        return configDef
+                .define(SAMPLE_EVERY_CONFIG, ConfigDef.Type.INT, 0, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW,
+                        "Trace one record in N (randomly sampled). 0 disables this criterion.")
+                .define(SAMPLE_PER_SECOND_CONFIG, ConfigDef.Type.INT, 0, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW,
+                        "Trace at most N records per second per topic. 0 disables this criterion.")
+                .define(BUFFER_SIZE_CONFIG, ConfigDef.Type.INT, 100, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW,
+                        "Number of traced records kept in memory and returned by the JMX dump operation.");
+    }
+
+    public static RecordTracer create(AbstractConfig config) {
+        RecordTracer tracer = new RecordTracer(config.getInt(SAMPLE_EVERY_CONFIG), config.getInt(SAMPLE_PER_SECOND_CONFIG),
+                config.getInt(BUFFER_SIZE_CONFIG));
+        return tracer.enabled ? tracer : DISABLED;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * 当前记录是否采样，调用方只在返回true时才构造trace内容
+     */
+    public boolean sample(String topic) {
+        if (!enabled) {
+            return false;
+        }
+        if (sampleEvery > 1 && ThreadLocalRandom.current().nextInt(sampleEvery) != 0) {
+            return false;
+        }
+        if (samplePerSecond > 0) {
+            return windows.computeIfAbsent(topic == null ? "" : topic, t -> new TopicWindow())
+                    .tryAcquire(System.currentTimeMillis() / 1000, samplePerSecond);
+        }
+        return true;
+    }
+
+    public void trace(String topic, Supplier<String> message) {
+        String entry = Instant.now() + " [" + topic + "] " + message.get();
+        long index = next.getAndIncrement();
+        buffer.set((int) (index % buffer.length()), entry);
+    }
+
+    @Override
+    public int getCapacity() {
+        return buffer.length();
+    }
+
+    @Override
+    public int getSampleEvery() {
+        return sampleEvery;
+    }
+
+    @Override
+    public int getSamplePerSecond() {
+        return samplePerSecond;
+    }
+
+    @Override
+    public long getSampledCount() {
+        return next.get();
+    }
+
+    @Override
+    public List<String> dump() {
+        long end = next.get();
+        long start = Math.max(0, end - buffer.length());
+        List<String> entries = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            // 并发写入时最旧的几条可能已被覆盖或尚未写完，跳过即可
+            String entry = buffer.get((int) (i % buffer.length()));
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+
+    /**
+     * 某个topic当前秒内已采样的条数
+     */
+    private static final class TopicWindow {
+        private final AtomicLong second = new AtomicLong();
+        private final AtomicInteger count = new AtomicInteger();
+
+        boolean tryAcquire(long now, int limit) {
+            long current = second.get();
+            if (current != now && second.compareAndSet(current, now)) {
+                count.set(0);
+            }
+            return count.incrementAndGet() <= limit;
+        }
+    }
+}
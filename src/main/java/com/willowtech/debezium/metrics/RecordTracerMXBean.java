@@ -0,0 +1,21 @@
+package com.willowtech.debezium.metrics;
+
+import java.util.List;
+
+/**
+ * 采样记录的JMX视图，dump按时间从旧到新返回环形缓冲区中的记录
+ */
+public interface RecordTracerMXBean {
+
+    int getCapacity();
+
+    int getSampleEvery();
+
+    int getSamplePerSecond();
+
+    long getSampledCount();
+
+    List<String> dump();
+
+    void clear();
+}
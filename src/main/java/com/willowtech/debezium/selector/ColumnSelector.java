@@ -0,0 +1,263 @@
+package com.willowtech.debezium.selector;
+
+import io.debezium.spi.converter.RelationalColumn;
+import io.debezium.util.Strings;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * 所有converter共用的列选择器：selector为包含列表，selector.exclude为排除列表，逗号分隔，匹配对象是 库.表.列，不区分大小写
+ * <p>
+ * 列表中的每一项按内容自动识别：
+ * 1、精确名称：列名、表.列 或 库.表.列，例如 num_array、goods.t_mountain.num_array，编译成HashSet
+ * 2、通配符：含有*或?，例如 goods.t_*.is_*，*匹配任意个字符(包括'.')，?匹配单个字符
+ * 3、正则：含有其它正则元字符，或以regex:开头，例如 goods\.t_[0-9]+\.flag，与Debezium的Predicates.includes一样要求整体匹配
+ * <p>
+ * 通配符和正则合并成一个Pattern(多个分支的alternation)，每列只匹配一次；
+ * 判断结果按 库.表.列 缓存，表结构刷新时重复的converterFor调用只是一次哈希查找
+ * <p>
+ * 原来就按正则解释selector的converter用{@link #regexesFromProperties(Properties)}，每一项都是正则，不识别精确名称和通配符
+ */
+public final class ColumnSelector {
+
+    public static final String SELECTOR_PROPERTY = "selector";
+    public static final String EXCLUDE_PROPERTY = "selector.exclude";
+
+    public static final ColumnSelector ALL = new ColumnSelector(Matcher.EMPTY, Matcher.EMPTY);
+
+    /**
+     * 缓存上限，超过后清空重建，防止表不断增删时无限增长
+     */
+    private static final int MAX_CACHED_DECISIONS = 1 << 16;
+
+    private final Matcher include;
+    private final Matcher exclude;
+    private final ConcurrentMap<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+    private ColumnSelector(Matcher include, Matcher exclude) {
+        this.include = include;
+        this.exclude = exclude;
+    }
+
+    public static ColumnSelector of(String include, String exclude) {
+        Matcher includeMatcher = Matcher.compile(include);
+        Matcher excludeMatcher = Matcher.compile(exclude);
+        if (includeMatcher.isEmpty() && excludeMatcher.isEmpty()) {
+            return ALL;
+        }
+        return new ColumnSelector(includeMatcher, excludeMatcher);
+    }
+
+    /**
+     * 读取converter配置中的selector和selector.exclude
+     */
+    public static ColumnSelector fromProperties(Properties props) {
+        return of(props.getProperty(SELECTOR_PROPERTY), props.getProperty(EXCLUDE_PROPERTY));
+    }
+
+    /**
+     * 每一项都按正则整体匹配 库.表.列，拆分和编译都用Debezium的{@link Strings#setOfRegex(String, int)}，与Predicates.includes相同：
+     * 已有的配置(如TinyIntOneToBooleanConverter的selector)匹配的列不变，例如 db.t.flag 不会匹配其他表的flag列
+     */
+    public static ColumnSelector regexesFromProperties(Properties props) {
+        Matcher includeMatcher = Matcher.compileRegexes(props.getProperty(SELECTOR_PROPERTY));
+        Matcher excludeMatcher = Matcher.compileRegexes(props.getProperty(EXCLUDE_PROPERTY));
+        if (includeMatcher.isEmpty() && excludeMatcher.isEmpty()) {
+            return ALL;
+        }
+        return new ColumnSelector(includeMatcher, excludeMatcher);
+    }
+
+    /**
+     * 只有包含列表、没有排除列表的选择器，例如JsonString2ObjectConverter的transfer.field
+     */
+    public static ColumnSelector includes(String include) {
+        return of(include, null);
+    }
+
+    /**
+     * 包含列表为空表示全部包含
+     */
+    public boolean matches(RelationalColumn column) {
+        return matches(column.dataCollection(), column.name());
+    }
+
+    public boolean matches(String dataCollection, String column) {
+        if (this == ALL) {
+            return true;
+        }
+        String fullName = (dataCollection + "." + column).toLowerCase(Locale.ROOT);
+        Boolean decision = decisions.get(fullName);
+        if (decision == null) {
+            decision = (include.isEmpty() || include.matches(fullName, column)) && !exclude.matches(fullName, column);
+            if (decisions.size() >= MAX_CACHED_DECISIONS) {
+                decisions.clear();
+            }
+            decisions.put(fullName, decision);
+        }
+        return decision;
+    }
+
+    public boolean isMatchAll() {
+        return this == ALL;
+    }
+
+    @Override
+    public String toString() {
+        return this == ALL ? "ColumnSelector{all}" : "ColumnSelector{include=" + include + ", exclude=" + exclude + "}";
+    }
+
+    /**
+     * 一个列表编译后的结果：精确名称的HashSet加上一个合并的Pattern
+     */
+    private static final class Matcher {
+
+        static final Matcher EMPTY = new Matcher(new HashSet<>(), null, "");
+
+        private final Set<String> exactNames;
+        private final Pattern pattern;
+        private final String source;
+
+        private Matcher(Set<String> exactNames, Pattern pattern, String source) {
+            this.exactNames = exactNames;
+            this.pattern = pattern;
+            this.source = source;
+        }
+
+        static Matcher compile(String list) {
+            if (list == null || list.trim().isEmpty()) {
+                return EMPTY;
+            }
+            Set<String> exactNames = new HashSet<>();
+            List<String> regexes = new ArrayList<>();
+            for (String item : split(list)) {
+                if (item.regionMatches(true, 0, "regex:", 0, 6)) {
+                    regexes.add(item.substring(6));
+                } else if (isRegex(item)) {
+                    regexes.add(item);
+                } else if (item.indexOf('*') >= 0 || item.indexOf('?') >= 0) {
+                    regexes.add(globToRegex(item));
+                } else {
+                    exactNames.add(item.toLowerCase(Locale.ROOT));
+                }
+            }
+            return new Matcher(exactNames, combine(regexes), list.trim());
+        }
+
+        static Matcher compileRegexes(String list) {
+            if (list == null || list.trim().isEmpty()) {
+                return EMPTY;
+            }
+            List<String> regexes = new ArrayList<>();
+            for (Pattern pattern : Strings.setOfRegex(list.trim(), Pattern.CASE_INSENSITIVE)) {
+                regexes.add(pattern.pattern());
+            }
+            return new Matcher(new HashSet<>(), combine(regexes), list.trim());
+        }
+
+        private static Pattern combine(List<String> regexes) {
+            if (regexes.isEmpty()) {
+                return null;
+            }
+            StringBuilder combined = new StringBuilder();
+            for (String regex : regexes) {
+                if (combined.length() > 0) {
+                    combined.append('|');
+                }
+                combined.append("(?:").append(regex).append(')');
+            }
+            return Pattern.compile(combined.toString(), Pattern.CASE_INSENSITIVE);
+        }
+
+        boolean isEmpty() {
+            return exactNames.isEmpty() && pattern == null;
+        }
+
+        /**
+         * fullName已转小写；精确名称依次尝试 库.表.列、表.列、列
+         */
+        boolean matches(String fullName, String column) {
+            if (!exactNames.isEmpty()) {
+                if (exactNames.contains(fullName) || exactNames.contains(column.toLowerCase(Locale.ROOT))) {
+                    return true;
+                }
+                int firstDot = fullName.indexOf('.');
+                if (firstDot > 0 && exactNames.contains(fullName.substring(firstDot + 1))) {
+                    return true;
+                }
+            }
+            return pattern != null && pattern.matcher(fullName).matches();
+        }
+
+        private static boolean isRegex(String item) {
+            for (int i = 0; i < item.length(); i++) {
+                if ("\\[](){}+^$|".indexOf(item.charAt(i)) >= 0) {
+                    return true;
+                }
+            }
+            // 兼容Debezium的正则写法：db.table.*
+            return item.contains(".*") || item.contains(".?");
+        }
+
+        private static String globToRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            int literalStart = 0;
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+                if (c == '*' || c == '?') {
+                    if (i > literalStart) {
+                        regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                    }
+                    regex.append(c == '*' ? ".*" : ".");
+                    literalStart = i + 1;
+                }
+            }
+            if (literalStart < glob.length()) {
+                regex.append(Pattern.quote(glob.substring(literalStart)));
+            }
+            return regex.toString();
+        }
+
+        /**
+         * 按逗号拆分，正则中括号内的逗号(如{1,3})不拆
+         */
+        private static List<String> split(String list) {
+            List<String> items = new ArrayList<>();
+            int depth = 0;
+            int start = 0;
+            for (int i = 0; i < list.length(); i++) {
+                char c = list.charAt(i);
+                if (c == '\\') {
+                    i++;
+                } else if (c == '(' || c == '[' || c == '{') {
+                    depth++;
+                } else if (c == ')' || c == ']' || c == '}') {
+                    depth = Math.max(0, depth - 1);
+                } else if (c == ',' && depth == 0) {
+                    addItem(items, list.substring(start, i));
+                    start = i + 1;
+                }
+            }
+            addItem(items, list.substring(start));
+            return items;
+        }
+
+        private static void addItem(List<String> items, String item) {
+            if (!item.trim().isEmpty()) {
+                items.add(item.trim());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return source;
+        }
+    }
+}
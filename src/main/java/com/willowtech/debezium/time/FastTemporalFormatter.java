@@ -0,0 +1,384 @@
+package com.willowtech.debezium.time;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * 常用日期时间格式的快速格式化器
+ * <p>
+ * configure时把pattern编译成一组写字符的操作，格式化时直接从年月日时分秒数值写进线程内复用的char[]，
+ * 不创建LocalDate/LocalTime，也不经过{@link DateTimeFormatter}的通用打印逻辑。
+ * 支持：yyyy/uuuu、MM、dd、HH、mm、ss、S~SSSSSSSSS、字面量(含'T'这种引号文本和[]可选段)，
+ * 以及ISO_DATE、ISO_TIME、ISO_DATE_TIME及对应的ISO_LOCAL_*；
+ * 其他pattern，或年份超出1~9999等快速路径覆盖不了的值，透明地退回{@link DateTimeFormatter}
+ */
+public final class FastTemporalFormatter {
+
+    private static final int YEAR = 1;
+    private static final int MONTH = 2;
+    private static final int DAY = 3;
+    private static final int HOUR = 4;
+    private static final int MINUTE = 5;
+    private static final int SECOND = 6;
+    /**
+     * 定长小数秒，宽度放在高位
+     */
+    private static final int FRACTION = 7;
+    /**
+     * ISO格式的小数秒：nano为0时不输出，否则去掉末尾的0
+     */
+    private static final int ISO_FRACTION = 8;
+    /**
+     * 字面量，字符放在高位
+     */
+    private static final int LITERAL = 9;
+
+    private static final int BUFFER_SIZE = 128;
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[BUFFER_SIZE]);
+
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final long DAYS_PER_CYCLE = 146097L;
+    private static final long DAYS_0000_TO_1970 = (DAYS_PER_CYCLE * 5L) - (30L * 365L + 7L);
+
+    private static final int[] ISO_DATE_PLAN = {YEAR, literal('-'), MONTH, literal('-'), DAY};
+    private static final int[] ISO_TIME_PLAN = {HOUR, literal(':'), MINUTE, literal(':'), SECOND, ISO_FRACTION};
+    private static final int[] ISO_DATE_TIME_PLAN = concat(ISO_DATE_PLAN, new int[]{literal('T')}, ISO_TIME_PLAN);
+
+    private final DateTimeFormatter fallback;
+    /**
+     * 编译后的操作，null表示pattern不支持，全部走fallback
+     */
+    private final int[] plan;
+    private final boolean needsDate;
+    private final boolean needsTime;
+
+    private FastTemporalFormatter(DateTimeFormatter fallback, int[] plan) {
+        this.fallback = fallback;
+        this.plan = plan;
+        boolean date = false;
+        boolean time = false;
+        if (plan != null) {
+            for (int op : plan) {
+                int code = op & 0xFF;
+                date |= code == YEAR || code == MONTH || code == DAY;
+                time |= code == HOUR || code == MINUTE || code == SECOND || code == FRACTION || code == ISO_FRACTION;
+            }
+        }
+        this.needsDate = date;
+        this.needsTime = time;
+    }
+
+    /**
+     * 按DateTimeFormatter.ofPattern的语法编译pattern
+     */
+    public static FastTemporalFormatter ofPattern(String pattern) {
+        return new FastTemporalFormatter(DateTimeFormatter.ofPattern(pattern), compile(pattern));
+    }
+
+    /**
+     * 识别ISO内置格式，其他formatter只能走fallback
+     */
+    public static FastTemporalFormatter of(DateTimeFormatter formatter) {
+        int[] plan = null;
+        if (formatter == DateTimeFormatter.ISO_DATE || formatter == DateTimeFormatter.ISO_LOCAL_DATE) {
+            plan = ISO_DATE_PLAN;
+        } else if (formatter == DateTimeFormatter.ISO_TIME || formatter == DateTimeFormatter.ISO_LOCAL_TIME) {
+            plan = ISO_TIME_PLAN;
+        } else if (formatter == DateTimeFormatter.ISO_DATE_TIME || formatter == DateTimeFormatter.ISO_LOCAL_DATE_TIME) {
+            plan = ISO_DATE_TIME_PLAN;
+        }
+        return new FastTemporalFormatter(formatter, plan);
+    }
+
+    public boolean isCompiled() {
+        return plan != null;
+    }
+
+    public DateTimeFormatter formatter() {
+        return fallback;
+    }
+
+    public String formatDate(int year, int month, int day) {
+        if (plan == null || needsTime || year < 1 || year > 9999) {
+            return fallback.format(LocalDate.of(year, month, day));
+        }
+        return write(year, month, day, 0, 0);
+    }
+
+    public String formatDate(LocalDate date) {
+        return formatDate(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+    }
+
+    public String formatEpochDay(long epochDay) {
+        int packed = civilFromDays(epochDay);
+        if (packed < 0) {
+            return fallback.format(LocalDate.ofEpochDay(epochDay));
+        }
+        return formatDate(packed >>> 9, (packed >>> 5) & 0xF, packed & 0x1F);
+    }
+
+    /**
+     * 一天内的时间，secondOfDay超出[0, 86400)时与LocalTime.ofSecondOfDay一样抛出异常
+     */
+    public String formatTime(long secondOfDay, int nano) {
+        if (plan == null || needsDate || secondOfDay < 0 || secondOfDay >= SECONDS_PER_DAY) {
+            return fallback.format(LocalTime.ofSecondOfDay(secondOfDay).withNano(nano));
+        }
+        return write(0, 0, 0, (int) secondOfDay, nano);
+    }
+
+    public String formatDateTime(LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (plan == null || year < 1 || year > 9999) {
+            return fallback.format(dateTime);
+        }
+        int secondOfDay = dateTime.getHour() * 3600 + dateTime.getMinute() * 60 + dateTime.getSecond();
+        return write(year, dateTime.getMonthValue(), dateTime.getDayOfMonth(), secondOfDay, dateTime.getNano());
+    }
+
+    /**
+     * 本地时间(按UTC折算的秒数)
+     */
+    public String formatLocalEpochSecond(long localEpochSecond, int nano) {
+        long epochDay = Math.floorDiv(localEpochSecond, SECONDS_PER_DAY);
+        int packed = civilFromDays(epochDay);
+        int year = packed >>> 9;
+        if (plan == null || packed < 0 || year < 1 || year > 9999) {
+            return fallback.format(LocalDateTime.ofEpochSecond(localEpochSecond, nano, ZoneOffset.UTC));
+        }
+        int secondOfDay = (int) Math.floorMod(localEpochSecond, SECONDS_PER_DAY);
+        return write(year, (packed >>> 5) & 0xF, packed & 0x1F, secondOfDay, nano);
+    }
+
+    private String write(int year, int month, int day, int secondOfDay, int nano) {
+        char[] buf = BUFFER.get();
+        int pos = 0;
+        for (int op : plan) {
+            switch (op & 0xFF) {
+                case YEAR:
+                    pos = write2(buf, write2(buf, pos, year / 100), year % 100);
+                    break;
+                case MONTH:
+                    pos = write2(buf, pos, month);
+                    break;
+                case DAY:
+                    pos = write2(buf, pos, day);
+                    break;
+                case HOUR:
+                    pos = write2(buf, pos, secondOfDay / 3600);
+                    break;
+                case MINUTE:
+                    pos = write2(buf, pos, secondOfDay / 60 % 60);
+                    break;
+                case SECOND:
+                    pos = write2(buf, pos, secondOfDay % 60);
+                    break;
+                case FRACTION:
+                    pos = writeFraction(buf, pos, nano, op >>> 8);
+                    break;
+                case ISO_FRACTION:
+                    if (nano != 0) {
+                        buf[pos++] = '.';
+                        int width = 9;
+                        int value = nano;
+                        while (value % 10 == 0) {
+                            value /= 10;
+                            width--;
+                        }
+                        pos = writeFraction(buf, pos, nano, width);
+                    }
+                    break;
+                default:
+                    buf[pos++] = (char) (op >>> 8);
+                    break;
+            }
+        }
+        return new String(buf, 0, pos);
+    }
+
+    private static int write2(char[] buf, int pos, int value) {
+        buf[pos] = (char) ('0' + value / 10);
+        buf[pos + 1] = (char) ('0' + value % 10);
+        return pos + 2;
+    }
+
+    /**
+     * nano的前width位(截断，不四舍五入，与DateTimeFormatter一致)
+     */
+    private static int writeFraction(char[] buf, int pos, int nano, int width) {
+        int divisor = 100_000_000;
+        for (int i = 0; i < width; i++) {
+            buf[pos++] = (char) ('0' + nano / divisor % 10);
+            divisor /= 10;
+        }
+        return pos;
+    }
+
+    /**
+     * epoch-day转年月日，打包为 year << 9 | month << 5 | day，年份超出0~9999时返回-1。
+     * 算法与{@link LocalDate#ofEpochDay(long)}相同
+     */
+    static int civilFromDays(long epochDay) {
+        long zeroDay = epochDay + DAYS_0000_TO_1970;
+        zeroDay -= 60;
+        long adjust = 0;
+        if (zeroDay < 0) {
+            long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+            adjust = adjustCycles * 400;
+            zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+        }
+        long yearEst = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        yearEst += adjust;
+        int marchDoy0 = (int) doyEst;
+        int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+        int month = (marchMonth0 + 2) % 12 + 1;
+        int day = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+        yearEst += marchMonth0 / 10;
+        if (yearEst < 0 || yearEst > 9999) {
+            return -1;
+        }
+        return (int) yearEst << 9 | month << 5 | day;
+    }
+
+    /**
+     * 把pattern编译成操作数组，不支持的pattern返回null
+     */
+    static int[] compile(String pattern) {
+        int[] ops = new int[pattern.length()];
+        int size = 0;
+        int length = 0;
+        int optionalDepth = 0;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+                int start = i;
+                while (i < pattern.length() && pattern.charAt(i) == c) {
+                    i++;
+                }
+                int count = i - start;
+                int op = field(c, count);
+                if (op < 0) {
+                    return null;
+                }
+                ops[size++] = op;
+                length += (op & 0xFF) == FRACTION ? count : (op & 0xFF) == YEAR ? 4 : 2;
+                continue;
+            }
+            if (c == '\'') {
+                int end = i + 1;
+                if (end < pattern.length() && pattern.charAt(end) == '\'') {
+                    ops[size++] = literal('\'');
+                    length++;
+                    i = end + 1;
+                    continue;
+                }
+                StringBuilder text = new StringBuilder();
+                while (true) {
+                    if (end >= pattern.length()) {
+                        return null;
+                    }
+                    char t = pattern.charAt(end);
+                    if (t == '\'') {
+                        if (end + 1 < pattern.length() && pattern.charAt(end + 1) == '\'') {
+                            text.append('\'');
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    text.append(t);
+                    end++;
+                }
+                if (size + text.length() > ops.length) {
+                    ops = Arrays.copyOf(ops, size + text.length() + pattern.length());
+                }
+                for (int k = 0; k < text.length(); k++) {
+                    ops[size++] = literal(text.charAt(k));
+                }
+                length += text.length();
+                i = end + 1;
+                continue;
+            }
+            if (c == '[') {
+                // 格式化LocalDate/LocalTime/LocalDateTime时可选段里的字段总是可用的，等同于普通内容；
+                // 字段不可用的情况由needsDate/needsTime整体退回fallback
+                optionalDepth++;
+                i++;
+                continue;
+            }
+            if (c == ']') {
+                if (optionalDepth == 0) {
+                    return null;
+                }
+                optionalDepth--;
+                i++;
+                continue;
+            }
+            if (c == '{' || c == '}' || c == '#') {
+                return null;
+            }
+            ops[size++] = literal(c);
+            length++;
+            i++;
+        }
+        if (size == 0 || length > BUFFER_SIZE) {
+            return null;
+        }
+        return Arrays.copyOf(ops, size);
+    }
+
+    private static int field(char letter, int count) {
+        switch (letter) {
+            case 'y':
+            case 'u':
+                return count == 4 ? YEAR : -1;
+            case 'M':
+                return count == 2 ? MONTH : -1;
+            case 'd':
+                return count == 2 ? DAY : -1;
+            case 'H':
+                return count == 2 ? HOUR : -1;
+            case 'm':
+                return count == 2 ? MINUTE : -1;
+            case 's':
+                return count == 2 ? SECOND : -1;
+            case 'S':
+                return count <= 9 ? FRACTION | count << 8 : -1;
+            default:
+                return -1;
+        }
+    }
+
+    private static int literal(char c) {
+        return LITERAL | c << 8;
+    }
+
+    private static int[] concat(int[]... parts) {
+        int size = 0;
+        for (int[] part : parts) {
+            size += part.length;
+        }
+        int[] result = new int[size];
+        int pos = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, result, pos, part.length);
+            pos += part.length;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "FastTemporalFormatter{" + fallback + (plan == null ? ", fallback" : ", compiled") + "}";
+    }
+}
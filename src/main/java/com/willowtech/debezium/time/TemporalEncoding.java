@@ -0,0 +1,145 @@
+package com.willowtech.debezium.time;
+
+import io.debezium.spi.converter.CustomConverter;
+import io.debezium.time.Date;
+import io.debezium.time.MicroTime;
+import io.debezium.time.MicroTimestamp;
+import io.debezium.time.Time;
+import io.debezium.time.Timestamp;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+
+/**
+ * 时间类型的紧凑数值编码，schema名使用Debezium的逻辑类型，下游sink能直接识别：
+ * 1、DATE：days，int32天数，io.debezium.time.Date
+ * 2、TIME：millis，int32毫秒，io.debezium.time.Time；micros，int64微秒，io.debezium.time.MicroTime
+ * 3、DATETIME/TIMESTAMP：millis，int64毫秒时间戳，io.debezium.time.Timestamp；micros，int64微秒时间戳，io.debezium.time.MicroTimestamp
+ * <p>
+ * DATETIME按配置的时区(format.timestamp.zone)换算成时间戳；TIMESTAMP在binlog中已经是UTC时刻，直接取epoch，
+ * 与时区无关。micros保留binlog中的全部小数位(MySQL最多6位)
+ */
+public enum TemporalEncoding {
+
+    DAYS("days"),
+    MILLIS("millis"),
+    MICROS("micros");
+
+    private final String configValue;
+
+    TemporalEncoding(String configValue) {
+        this.configValue = configValue;
+    }
+
+    /**
+     * 解析encoding.&lt;类型&gt;配置，类型与编码不匹配时抛IllegalArgumentException
+     */
+    public static TemporalEncoding parse(String sqlType, String value) {
+        for (TemporalEncoding encoding : values()) {
+            if (encoding.configValue.equalsIgnoreCase(value.trim())) {
+                if (!encoding.supports(sqlType)) {
+                    throw new IllegalArgumentException("Encoding " + value + " is not supported for " + sqlType);
+                }
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("Unknown temporal encoding " + value + ", expected days, millis or micros");
+    }
+
+    public boolean supports(String sqlType) {
+        switch (sqlType.toUpperCase(Locale.ROOT)) {
+            case "DATE":
+                return this == DAYS;
+            case "TIME":
+            case "DATETIME":
+            case "TIMESTAMP":
+                return this != DAYS;
+            default:
+                return false;
+        }
+    }
+
+    public SchemaBuilder schema(String sqlType) {
+        switch (sqlType.toUpperCase(Locale.ROOT)) {
+            case "DATE":
+                return Date.builder().optional();
+            case "TIME":
+                return (this == MILLIS ? Time.builder() : MicroTime.builder()).optional();
+            default:
+                return (this == MILLIS ? Timestamp.builder() : MicroTimestamp.builder()).optional();
+        }
+    }
+
+    public CustomConverter.Converter converter(String sqlType, ZoneOffsetCache zoneOffsets) {
+        switch (sqlType.toUpperCase(Locale.ROOT)) {
+            case "DATE":
+                return TemporalEncoding::epochDay;
+            case "TIME":
+                return this == MILLIS ? TemporalEncoding::timeMillis : TemporalEncoding::timeMicros;
+            case "DATETIME":
+                return this == MILLIS
+                        ? input -> input instanceof LocalDateTime ? zoneOffsets.toEpochMilli((LocalDateTime) input) : null
+                        : input -> input instanceof LocalDateTime ? dateTimeMicros(zoneOffsets, (LocalDateTime) input) : null;
+            default:
+                return this == MILLIS ? TemporalEncoding::instantMillis : TemporalEncoding::instantMicros;
+        }
+    }
+
+    private static Integer epochDay(Object input) {
+        if (input instanceof LocalDate) {
+            return (int) ((LocalDate) input).toEpochDay();
+        }
+        if (input instanceof Integer) {
+            return (Integer) input;
+        }
+        return null;
+    }
+
+    /**
+     * MySQL的TIME范围是±838:59:59，毫秒数在int范围内
+     */
+    private static Integer timeMillis(Object input) {
+        if (input instanceof Duration) {
+            Duration duration = (Duration) input;
+            return (int) (duration.getSeconds() * 1000 + duration.getNano() / 1_000_000);
+        }
+        return null;
+    }
+
+    private static Long timeMicros(Object input) {
+        if (input instanceof Duration) {
+            Duration duration = (Duration) input;
+            return duration.getSeconds() * 1_000_000 + duration.getNano() / 1_000;
+        }
+        return null;
+    }
+
+    private static Long dateTimeMicros(ZoneOffsetCache zoneOffsets, LocalDateTime input) {
+        return zoneOffsets.toEpochMicro(input.toEpochSecond(ZoneOffset.UTC), input.getNano());
+    }
+
+    private static Long instantMillis(Object input) {
+        if (input instanceof ZonedDateTime) {
+            ZonedDateTime zonedDateTime = (ZonedDateTime) input;
+            return zonedDateTime.toEpochSecond() * 1000 + zonedDateTime.getNano() / 1_000_000;
+        }
+        return null;
+    }
+
+    private static Long instantMicros(Object input) {
+        if (input instanceof ZonedDateTime) {
+            ZonedDateTime zonedDateTime = (ZonedDateTime) input;
+            return zonedDateTime.toEpochSecond() * 1_000_000 + zonedDateTime.getNano() / 1_000;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return configValue;
+    }
+}
@@ -0,0 +1,191 @@
+package com.willowtech.debezium.time;
+
+import com.willowtech.debezium.cache.SharedRegistry;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 时区偏移缓存：在configure阶段把配置的时区解析一次，之后每行数据只做整数运算，不分配对象
+ * <p>
+ * 1、固定偏移(+08:00、UTC+8)：直接用常量偏移计算
+ * 2、地区时区(Asia/Shanghai、Europe/Berlin)：预先展开{@link #TABLE_START}~{@link #TABLE_END}之间的全部偏移切换点，
+ * 按秒二分查找；超出范围的值退回{@link ZoneRules}，结果与java.time一致
+ * <p>
+ * 本地时间转时间戳的语义与{@link LocalDateTime#atZone(ZoneId)}相同：
+ * 夏令时跳过的时间(gap)按切换前的偏移计算，重复的时间(overlap)取较早的偏移
+ */
+public final class ZoneOffsetCache {
+
+    static final Instant TABLE_START = Instant.parse("1900-01-01T00:00:00Z");
+    static final Instant TABLE_END = Instant.parse("2100-01-01T00:00:00Z");
+
+    private static final long SECONDS_PER_DAY = 86400L;
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    /**
+     * 固定偏移时区的偏移秒数，地区时区时不使用
+     */
+    private final int fixedOffsetSeconds;
+    private final boolean fixed;
+    /**
+     * 第i个切换点的UTC秒数，升序
+     */
+    private final long[] instantThresholds;
+    /**
+     * 第i个切换点对应的本地时间阈值：本地秒数 >= 阈值时使用切换后的偏移
+     */
+    private final long[] localThresholds;
+    /**
+     * offsets[i]为第i个切换点之前的偏移，offsets[length-1]为最后一个切换点之后的偏移
+     */
+    private final int[] offsets;
+    private final long minLocal;
+    private final long maxLocal;
+    private final long minInstant;
+    private final long maxInstant;
+
+    private ZoneOffsetCache(ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        if (rules.isFixedOffset()) {
+            this.fixed = true;
+            this.fixedOffsetSeconds = rules.getOffset(Instant.EPOCH).getTotalSeconds();
+            this.instantThresholds = null;
+            this.localThresholds = null;
+            this.offsets = null;
+            this.minLocal = this.maxLocal = this.minInstant = this.maxInstant = 0;
+            return;
+        }
+        this.fixed = false;
+        this.fixedOffsetSeconds = 0;
+
+        List<ZoneOffsetTransition> transitions = new ArrayList<>();
+        ZoneOffsetTransition transition = rules.nextTransition(TABLE_START);
+        while (transition != null && transition.getInstant().isBefore(TABLE_END)) {
+            transitions.add(transition);
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        int size = transitions.size();
+        this.instantThresholds = new long[size];
+        this.localThresholds = new long[size];
+        this.offsets = new int[size + 1];
+        this.offsets[0] = rules.getOffset(TABLE_START).getTotalSeconds();
+        for (int i = 0; i < size; i++) {
+            ZoneOffsetTransition t = transitions.get(i);
+            int before = t.getOffsetBefore().getTotalSeconds();
+            int after = t.getOffsetAfter().getTotalSeconds();
+            instantThresholds[i] = t.getInstant().getEpochSecond();
+            localThresholds[i] = instantThresholds[i] + Math.max(before, after);
+            offsets[i + 1] = after;
+        }
+        this.minInstant = TABLE_START.getEpochSecond();
+        this.maxInstant = TABLE_END.getEpochSecond();
+        // 表两端各留一天，保证本地时间换算不会越过表的覆盖范围
+        this.minLocal = minInstant + SECONDS_PER_DAY;
+        this.maxLocal = maxInstant - SECONDS_PER_DAY;
+    }
+
+    /**
+     * 不可变，同一个时区在整个worker内共用一份切换点表
+     */
+    public static ZoneOffsetCache of(ZoneId zone) {
+        return SharedRegistry.get(ZoneOffsetCache.class, zone.getId(), () -> new ZoneOffsetCache(zone));
+    }
+
+    public ZoneId zone() {
+        return zone;
+    }
+
+    public boolean isFixedOffset() {
+        return fixed;
+    }
+
+    /**
+     * 本地时间(按UTC折算的秒数)在该时区下的偏移秒数
+     */
+    public int offsetSecondsForLocal(long localEpochSecond) {
+        if (fixed) {
+            return fixedOffsetSeconds;
+        }
+        if (localEpochSecond < minLocal || localEpochSecond >= maxLocal) {
+            // gap中的时间会被atZone顺延，不能直接取结果的偏移
+            return (int) (localEpochSecond - LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC).atZone(zone).toEpochSecond());
+        }
+        return offsets[upperBound(localThresholds, localEpochSecond)];
+    }
+
+    /**
+     * UTC时刻在该时区下的偏移秒数
+     */
+    public int offsetSecondsForInstant(long epochSecond) {
+        if (fixed) {
+            return fixedOffsetSeconds;
+        }
+        if (epochSecond < minInstant || epochSecond >= maxInstant) {
+            return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        }
+        return offsets[upperBound(instantThresholds, epochSecond)];
+    }
+
+    /**
+     * 本地时间转成毫秒时间戳，等价于 localDateTime.atZone(zone).toInstant().toEpochMilli()
+     */
+    public long toEpochMilli(long localEpochSecond, int nanoOfSecond) {
+        long epochSecond = localEpochSecond - offsetSecondsForLocal(localEpochSecond);
+        return epochSecond * 1000L + nanoOfSecond / 1_000_000;
+    }
+
+    /**
+     * 本地时间转成微秒时间戳，保留微秒精度
+     */
+    public long toEpochMicro(long localEpochSecond, int nanoOfSecond) {
+        long epochSecond = localEpochSecond - offsetSecondsForLocal(localEpochSecond);
+        return epochSecond * 1_000_000L + nanoOfSecond / 1_000;
+    }
+
+    public long toEpochMilli(LocalDateTime localDateTime) {
+        return toEpochMilli(localDateTime.toEpochSecond(ZoneOffset.UTC), localDateTime.getNano());
+    }
+
+    /**
+     * 某天零点的毫秒时间戳，等价于 LocalDate.ofEpochDay(epochDay).atStartOfDay(zone).toInstant().toEpochMilli()
+     */
+    public long startOfDayEpochMilli(long epochDay) {
+        long localEpochSecond = epochDay * SECONDS_PER_DAY;
+        long epochSecond = localEpochSecond - offsetSecondsForLocal(localEpochSecond);
+        if (!fixed && toLocalEpochSecond(epochSecond) != localEpochSecond) {
+            // 零点落在夏令时gap里，atStartOfDay取gap结束的时刻，而不是顺延
+            epochSecond = LocalDate.ofEpochDay(epochDay).atStartOfDay(zone).toEpochSecond();
+        }
+        return epochSecond * 1000L;
+    }
+
+    /**
+     * UTC时刻对应的本地时间(按UTC折算的秒数)
+     */
+    public long toLocalEpochSecond(long epochSecond) {
+        return epochSecond + offsetSecondsForInstant(epochSecond);
+    }
+
+    /**
+     * 数组中大于key的第一个元素下标，即key之前(含)切换点的个数
+     */
+    private static int upperBound(long[] thresholds, long key) {
+        int index = Arrays.binarySearch(thresholds, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "ZoneOffsetCache{" + zone + (fixed ? "" : ", transitions=" + instantThresholds.length) + "}";
+    }
+}
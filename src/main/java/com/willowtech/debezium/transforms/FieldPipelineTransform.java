@@ -0,0 +1,456 @@
+package com.willowtech.debezium.transforms;
+
+import com.willowtech.debezium.error.ErrorHandler;
+import com.willowtech.debezium.error.ErrorPolicy;
+import com.willowtech.debezium.json.JsonArrayReader;
+import com.willowtech.debezium.metrics.ColumnMetrics;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.util.SchemaUtil;
+import com.willowtech.debezium.util.SimpleConfig;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * 字段处理流水线：把多个逐字段的SMT(字符串转数组、重命名、类型转换、删除)合并成一个，
+ * 每条记录只遍历、拷贝一次envelope，代替在transforms链上串联多个SMT
+ * <p>
+ * 配置：operations.&lt;表&gt;为该表按顺序执行的操作，逗号分隔，表可以写 表名、库.表名 或 server.库.表名，
+ * operations.* 用于没有单独配置的表：
+ * <pre>
+ * transforms.fp.operations.goods.t_mountain: toArray:num_array,rename:nick:nickname,cast:price:float64,drop:tmp
+ * </pre>
+ * 支持的操作：
+ * 1、toArray:字段 STRING转ARRAY&lt;STRING&gt;，规则同{@link String2ArrayTransform}；解析失败按error.policy处理(见{@link ErrorPolicy})，
+ * 默认default即空数组；passthrough时该字段为null，原始字符串放在紧随其后的 字段名+error.raw.suffix 字段，名字取toArray时的字段名
+ * 2、rename:原名:新名
+ * 3、cast:字段:类型 类型为int8、int16、int32、int64、float32、float64、boolean、string，规则同Kafka的Cast SMT
+ * 4、drop:字段
+ * 后面的操作看到的是前面操作的结果，例如rename之后的cast要写新名字。
+ * <p>
+ * 操作在每个输入schema第一次出现时编译成处理计划(输出schema+每个输出字段的来源下标和值转换函数)，按schema实例缓存；
+ * Debezium envelope处理before/after，扁平记录(如经过ExtractNewRecordState)直接处理顶层字段，见{@link StructPlanTransform}。只支持带schema的记录
+ *
+ * @since 1.0.0
+ */
+public class FieldPipelineTransform<R extends ConnectRecord<R>> extends StructPlanTransform<R> {
+    private static final Logger log = LoggerFactory.getLogger(FieldPipelineTransform.class);
+    private static final String PURPOSE = "apply field pipeline";
+
+    private static final String ARRAY_SCHEMA_NAME = "com.willowtech.debezium.varchar.array";
+
+    public static final String OPERATIONS_PREFIX = "operations.";
+    public static final ConfigDef CONFIG_DEF = ErrorPolicy.define(define(new ConfigDef()), ErrorPolicy.Mode.DEFAULT);
+
+    /**
+     * 表 -> 按顺序执行的操作
+     */
+    private TableRules<List<Operation>> tableOperations;
+    private ErrorPolicy errorPolicy;
+    /**
+     * toArray的字段名 -> 转换函数(带失败处理和指标)，各表同名字段共用，计划重新编译时复用
+     */
+    private final ConcurrentMap<String, Function<Object, Object>> arrayConverters = new ConcurrentHashMap<>();
+
+    private final JsonArrayReader jsonArrayReader = new JsonArrayReader(StandardCharsets.UTF_8);
+
+    public FieldPipelineTransform() {
+        super(PURPOSE);
+    }
+
+    @Override
+    protected void configure(SimpleConfig config) {
+        tableOperations = new TableRules<>();
+        for (Map.Entry<String, Object> entry : config.originalsWithPrefix(OPERATIONS_PREFIX).entrySet()) {
+            tableOperations.put(entry.getKey(), Operation.parseList(OPERATIONS_PREFIX + entry.getKey(), String.valueOf(entry.getValue())));
+        }
+        if (tableOperations.isEmpty()) {
+            throw new ConfigException("At least one " + OPERATIONS_PREFIX + "<table> setting is required");
+        }
+        errorPolicy = ErrorPolicy.create(config);
+        arrayConverters.clear();
+    }
+
+    @Override
+    protected Plan buildRowPlan(Schema recordSchema, Schema rowSchema) {
+        return buildRowPlan(rowSchema, operationsFor(recordSchema.name()));
+    }
+
+    /**
+     * 按顺序模拟每个操作对字段列表的影响，得到每个输出字段的来源、输出schema和组合后的值转换函数
+     */
+    private Plan buildRowPlan(Schema rowSchema, List<Operation> operations) {
+        final List<FieldSpec> specs = new ArrayList<>();
+        for (Field field : rowSchema.fields()) {
+            specs.add(new FieldSpec(field));
+        }
+        boolean changed = false;
+        for (Operation operation : operations) {
+            FieldSpec spec = find(specs, operation.field);
+            if (spec == null) {
+                log.warn("Field '{}' of operation '{}' not found in schema {}, skipped", operation.field, operation, rowSchema.name());
+                continue;
+            }
+            changed = true;
+            switch (operation.kind) {
+                case TO_ARRAY:
+                    if (spec.schema.type() != Schema.Type.STRING) {
+                        throw new DataException("Cannot apply '" + operation + "' to " + spec.schema.type() + " field in schema " + rowSchema.name());
+                    }
+                    addArrayConversion(specs, spec, rowSchema);
+                    break;
+                case RENAME:
+                    spec.name = operation.argument;
+                    break;
+                case CAST:
+                    Schema.Type target = operation.castType;
+                    if (!Casts.castable(spec.schema)) {
+                        throw new DataException("Cannot apply '" + operation + "' to " + spec.schema.type() + " field in schema " + rowSchema.name());
+                    }
+                    SchemaBuilder cast = SchemaBuilder.type(target);
+                    spec.schema = spec.schema.isOptional() ? cast.optional().build() : cast.build();
+                    spec.andThen(value -> Casts.cast(value, target));
+                    break;
+                case DROP:
+                    specs.remove(spec);
+                    specs.removeIf(raw -> raw.rawOf == spec);
+                    break;
+                default:
+                    throw new IllegalStateException(operation.kind.name());
+            }
+        }
+        final SchemaBuilder builder = SchemaUtil.copySchemaBasics(rowSchema, SchemaBuilder.struct());
+        if (rowSchema.isOptional()) {
+            builder.optional();
+        }
+        if (!changed) {
+            return unchanged(rowSchema);
+        }
+        final Field[] sources = new Field[specs.size()];
+        final Function<Object, Object>[] functions = newFunctionArray(specs.size());
+        final int[] rawOf = new int[specs.size()];
+        for (int i = 0; i < specs.size(); i++) {
+            FieldSpec spec = specs.get(i);
+            builder.field(spec.name, spec.schema);
+            sources[i] = spec.source;
+            functions[i] = spec.function;
+            rawOf[i] = spec.rawOf == null ? -1 : specs.indexOf(spec.rawOf);
+        }
+        return new RowPlan(builder.build(), sources, functions, rawOf);
+    }
+
+    /**
+     * null/passthrough策略下解析失败输出null，数组字段改为optional；passthrough时在其后插入原始值字段
+     */
+    private void addArrayConversion(List<FieldSpec> specs, FieldSpec spec, Schema rowSchema) {
+        final ErrorPolicy.Mode mode = errorPolicy.mode();
+        final boolean nullOnError = mode == ErrorPolicy.Mode.NULL || mode == ErrorPolicy.Mode.PASSTHROUGH;
+        SchemaBuilder array = SchemaBuilder.array(Schema.OPTIONAL_STRING_SCHEMA).name(ARRAY_SCHEMA_NAME);
+        Schema stringSchema = spec.schema;
+        spec.schema = stringSchema.isOptional() || nullOnError ? array.optional().build() : array.build();
+        if (mode == ErrorPolicy.Mode.PASSTHROUGH) {
+            String rawName = spec.name + errorPolicy.rawSuffix();
+            if (find(specs, rawName) != null) {
+                throw new DataException("Field " + rawName + " for the raw value of " + spec.name + " already exists in " + rowSchema.name());
+            }
+            FieldSpec raw = new FieldSpec(spec.source);
+            raw.name = rawName;
+            raw.schema = Schema.OPTIONAL_STRING_SCHEMA;
+            raw.function = spec.function;
+            raw.rawOf = spec;
+            specs.add(specs.indexOf(spec) + 1, raw);
+        }
+        spec.andThen(arrayConverters.computeIfAbsent(spec.name, field -> {
+            ColumnMetrics fieldMetrics = metrics().column(field);
+            // 原始值由计划写入同级字段，handler本身返回null
+            ErrorHandler errorHandler = errorPolicy.handler(field, fieldMetrics, Collections::emptyList, null);
+            return PluginMetrics.instrumentFunction(fieldMetrics, value -> convertToArray((String) value, errorHandler));
+        }));
+    }
+
+    /**
+     * 见{@link TableRules}，没有匹配的表时不做处理
+     */
+    private List<Operation> operationsFor(String schemaName) {
+        List<Operation> operations = tableOperations.forSchema(schemaName);
+        return operations == null ? Collections.emptyList() : operations;
+    }
+
+    private static FieldSpec find(List<FieldSpec> specs, String name) {
+        for (FieldSpec spec : specs) {
+            if (spec.name.equals(name)) {
+                return spec;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object>[] newFunctionArray(int size) {
+        return (Function<Object, Object>[]) new Function<?, ?>[size];
+    }
+
+    /**
+     * @param errorHandler 解析失败时按error.policy返回(共用的空数组/null)或抛异常
+     */
+    private Object convertToArray(String originalValue, ErrorHandler errorHandler) {
+        try {
+            return jsonArrayReader.read(originalValue);
+        } catch (IOException e) {
+            return errorHandler.onError(originalValue, e);
+        }
+    }
+
+    @Override
+    public ConfigDef config() {
+        return CONFIG_DEF;
+    }
+
+    /**
+     * 编译期间的输出字段：来源字段、当前名字、当前schema和累积的值转换函数(null表示原样拷贝)；
+     * rawOf非空时是该toArray字段的原始值字段，function为toArray之前累积的转换
+     */
+    private static final class FieldSpec {
+        final Field source;
+        String name;
+        Schema schema;
+        Function<Object, Object> function;
+        FieldSpec rawOf;
+
+        FieldSpec(Field source) {
+            this.source = source;
+            this.name = source.name();
+            this.schema = source.schema();
+        }
+
+        void andThen(Function<Object, Object> next) {
+            function = function == null ? next : function.andThen(next);
+        }
+    }
+
+    /**
+     * 编译后的处理计划：第i个输出字段取自sources[i]，functions[i]非空时对非null值做转换；
+     * rawOf[i]&gt;=0时第i个字段是原始值字段，只在第rawOf[i]个(toArray)字段转换失败输出null时才填值
+     */
+    private static final class RowPlan extends Plan {
+        final Field[] sources;
+        final Field[] outputFields;
+        final Function<Object, Object>[] functions;
+        final int[] rawOf;
+
+        RowPlan(Schema outputSchema, Field[] sources, Function<Object, Object>[] functions, int[] rawOf) {
+            super(outputSchema, true);
+            this.sources = sources;
+            this.outputFields = outputSchema.fields().toArray(new Field[0]);
+            this.functions = functions;
+            this.rawOf = rawOf;
+        }
+
+        @Override
+        protected Struct apply(Struct input) {
+            final Struct output = new Struct(outputSchema);
+            for (int i = 0; i < sources.length; i++) {
+                Object fieldValue = input.get(sources[i]);
+                if (fieldValue != null && rawOf[i] >= 0) {
+                    // 原始值字段紧随toArray字段之后，此时toArray字段已写入
+                    if (output.get(outputFields[rawOf[i]]) != null) {
+                        continue;
+                    }
+                    fieldValue = functions[i] == null ? fieldValue : functions[i].apply(fieldValue);
+                } else if (fieldValue != null && functions[i] != null) {
+                    fieldValue = functions[i].apply(fieldValue);
+                }
+                output.put(outputFields[i], fieldValue);
+            }
+            return output;
+        }
+    }
+
+    private enum Kind {
+        TO_ARRAY("toArray", 1),
+        RENAME("rename", 2),
+        CAST("cast", 2),
+        DROP("drop", 1);
+
+        final String keyword;
+        final int arguments;
+
+        Kind(String keyword, int arguments) {
+            this.keyword = keyword;
+            this.arguments = arguments;
+        }
+    }
+
+    /**
+     * 一个操作，语法为 关键字:字段[:参数]
+     */
+    private static final class Operation {
+        final Kind kind;
+        final String field;
+        final String argument;
+        final Schema.Type castType;
+
+        private Operation(Kind kind, String field, String argument, Schema.Type castType) {
+            this.kind = kind;
+            this.field = field;
+            this.argument = argument;
+            this.castType = castType;
+        }
+
+        static List<Operation> parseList(String configKey, String value) {
+            List<Operation> operations = new ArrayList<>();
+            for (String item : value.split(",")) {
+                if (!item.trim().isEmpty()) {
+                    operations.add(parse(configKey, item.trim()));
+                }
+            }
+            if (operations.isEmpty()) {
+                throw new ConfigException(configKey, value, "Empty operation list");
+            }
+            return operations;
+        }
+
+        private static Operation parse(String configKey, String text) {
+            String[] parts = text.split(":");
+            for (Kind kind : Kind.values()) {
+                if (!kind.keyword.equalsIgnoreCase(parts[0].trim())) {
+                    continue;
+                }
+                if (parts.length != kind.arguments + 1) {
+                    throw new ConfigException(configKey, text, "Expected " + kind.keyword + " with " + kind.arguments + " argument(s)");
+                }
+                String field = parts[1].trim();
+                String argument = kind.arguments > 1 ? parts[2].trim() : null;
+                Schema.Type castType = null;
+                if (kind == Kind.CAST) {
+                    castType = Casts.parseType(argument);
+                    if (castType == null) {
+                        throw new ConfigException(configKey, text, "Unsupported cast type " + argument);
+                    }
+                }
+                return new Operation(kind, field, argument, castType);
+            }
+            throw new ConfigException(configKey, text, "Unknown operation, expected toArray, rename, cast or drop");
+        }
+
+        @Override
+        public String toString() {
+            return kind.keyword + ":" + field + (argument == null ? "" : ":" + argument);
+        }
+    }
+
+    /**
+     * 基本类型之间的转换，与Kafka的Cast SMT一致：数字之间按Java窄化/拓宽，布尔与数字按0/1，字符串按parse
+     */
+    private static final class Casts {
+
+        static Schema.Type parseType(String type) {
+            switch (type.toLowerCase(Locale.ROOT)) {
+                case "int8":
+                    return Schema.Type.INT8;
+                case "int16":
+                    return Schema.Type.INT16;
+                case "int32":
+                    return Schema.Type.INT32;
+                case "int64":
+                    return Schema.Type.INT64;
+                case "float32":
+                    return Schema.Type.FLOAT32;
+                case "float64":
+                    return Schema.Type.FLOAT64;
+                case "boolean":
+                    return Schema.Type.BOOLEAN;
+                case "string":
+                    return Schema.Type.STRING;
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * 只支持基本类型；Kafka自带的Date/Time/Timestamp逻辑类型值是java.util.Date，不在此列
+         */
+        static boolean castable(Schema schema) {
+            if (schema.name() != null && schema.name().startsWith("org.apache.kafka.connect.data.")) {
+                return false;
+            }
+            return schema.type().isPrimitive() && schema.type() != Schema.Type.BYTES;
+        }
+
+        static Object cast(Object value, Schema.Type target) {
+            if (target == Schema.Type.STRING) {
+                return value.toString();
+            }
+            if (value instanceof String) {
+                return parse(((String) value).trim(), target);
+            }
+            if (value instanceof Boolean) {
+                return castNumber(((Boolean) value) ? 1 : 0, target);
+            }
+            return castNumber((Number) value, target);
+        }
+
+        private static Object castNumber(Number value, Schema.Type target) {
+            switch (target) {
+                case INT8:
+                    return value.byteValue();
+                case INT16:
+                    return value.shortValue();
+                case INT32:
+                    return value.intValue();
+                case INT64:
+                    return value.longValue();
+                case FLOAT32:
+                    return value.floatValue();
+                case FLOAT64:
+                    return value.doubleValue();
+                case BOOLEAN:
+                    return value.doubleValue() != 0;
+                default:
+                    throw new DataException("Unsupported cast target " + target);
+            }
+        }
+
+        private static Object parse(String value, Schema.Type target) {
+            try {
+                switch (target) {
+                    case INT8:
+                        return Byte.parseByte(value);
+                    case INT16:
+                        return Short.parseShort(value);
+                    case INT32:
+                        return Integer.parseInt(value);
+                    case INT64:
+                        return Long.parseLong(value);
+                    case FLOAT32:
+                        return Float.parseFloat(value);
+                    case FLOAT64:
+                        return Double.parseDouble(value);
+                    case BOOLEAN:
+                        return Boolean.parseBoolean(value);
+                    default:
+                        throw new DataException("Unsupported cast target " + target);
+                }
+            } catch (NumberFormatException e) {
+                throw new DataException("Cannot cast '" + value + "' to " + target, e);
+            }
+        }
+    }
+}
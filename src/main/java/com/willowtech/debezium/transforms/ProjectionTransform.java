@@ -0,0 +1,146 @@
+package com.willowtech.debezium.transforms;
+
+import com.willowtech.debezium.util.NonEmptyListValidator;
+import com.willowtech.debezium.util.SchemaUtil;
+import com.willowtech.debezium.util.SimpleConfig;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按表投影列：只保留(include)或去掉(exclude)指定的列，before和after同时处理，
+ * 不需要写入ES的宽列(TEXT描述等)不再经过Kafka
+ * <p>
+ * 配置：include.&lt;表&gt; 或 exclude.&lt;表&gt;，列名逗号分隔，同一个表只能配置其中一个，表的写法同{@link FieldPipelineTransform}，
+ * include.* / exclude.* 用于没有单独配置的表，没有匹配的表原样输出：
+ * <pre>
+ * transforms.proj.include.goods.t_mountain: id,name,location,create_time
+ * transforms.proj.exclude.*: desc
+ * </pre>
+ * 输出schema和 输出字段下标 -&gt; 输入字段 的映射在每个输入schema第一次出现时计算，按schema实例缓存；
+ * 每条记录只按下标逐个拷贝，不按名字查找字段。Debezium envelope处理before/after，扁平记录直接处理顶层字段，见{@link StructPlanTransform}
+ *
+ * @since 1.0.0
+ */
+public class ProjectionTransform<R extends ConnectRecord<R>> extends StructPlanTransform<R> {
+    private static final Logger log = LoggerFactory.getLogger(ProjectionTransform.class);
+    private static final String PURPOSE = "project columns";
+
+    private static final NonEmptyListValidator LIST_VALIDATOR = new NonEmptyListValidator();
+
+    public static final String INCLUDE_PREFIX = "include.";
+    public static final String EXCLUDE_PREFIX = "exclude.";
+    public static final ConfigDef CONFIG_DEF = define(new ConfigDef());
+
+    private TableRules<Projection> projections;
+
+    public ProjectionTransform() {
+        super(PURPOSE);
+    }
+
+    @Override
+    protected void configure(SimpleConfig config) {
+        projections = new TableRules<>();
+        final Map<String, Object> includes = config.originalsWithPrefix(INCLUDE_PREFIX);
+        final Map<String, Object> excludes = config.originalsWithPrefix(EXCLUDE_PREFIX);
+        for (Map.Entry<String, Object> entry : includes.entrySet()) {
+            if (excludes.containsKey(entry.getKey())) {
+                throw new ConfigException(INCLUDE_PREFIX + entry.getKey(), entry.getValue(),
+                        "Only one of include and exclude can be set for a table");
+            }
+            projections.put(entry.getKey(), new Projection(true, parseFields(INCLUDE_PREFIX + entry.getKey(), entry.getValue())));
+        }
+        for (Map.Entry<String, Object> entry : excludes.entrySet()) {
+            projections.put(entry.getKey(), new Projection(false, parseFields(EXCLUDE_PREFIX + entry.getKey(), entry.getValue())));
+        }
+        if (projections.isEmpty()) {
+            throw new ConfigException("At least one " + INCLUDE_PREFIX + "<table> or " + EXCLUDE_PREFIX + "<table> setting is required");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> parseFields(String key, Object value) {
+        List<String> fields = (List<String>) ConfigDef.parseType(key, value, ConfigDef.Type.LIST);
+        LIST_VALIDATOR.ensureValid(key, fields);
+        return new HashSet<>(fields);
+    }
+
+    @Override
+    protected Plan buildRowPlan(Schema recordSchema, Schema rowSchema) {
+        final Projection projection = projections.forSchema(recordSchema.name());
+        if (projection == null) {
+            return unchanged(rowSchema);
+        }
+        for (String name : projection.fields) {
+            if (rowSchema.field(name) == null) {
+                log.warn("Field '{}' of projection not found in schema {}, skipped", name, rowSchema.name());
+            }
+        }
+        final List<Field> kept = new ArrayList<>();
+        for (Field field : rowSchema.fields()) {
+            if (projection.include == projection.fields.contains(field.name())) {
+                kept.add(field);
+            }
+        }
+        if (kept.size() == rowSchema.fields().size()) {
+            return unchanged(rowSchema);
+        }
+        final SchemaBuilder builder = SchemaUtil.copySchemaBasics(rowSchema, SchemaBuilder.struct());
+        if (rowSchema.isOptional()) {
+            builder.optional();
+        }
+        for (Field field : kept) {
+            builder.field(field.name(), field.schema());
+        }
+        return new RowPlan(builder.build(), kept.toArray(new Field[0]));
+    }
+
+    @Override
+    public ConfigDef config() {
+        return CONFIG_DEF;
+    }
+
+    private static final class Projection {
+        final boolean include;
+        final Set<String> fields;
+
+        Projection(boolean include, Set<String> fields) {
+            this.include = include;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * 第i个输出字段取自sources[i]
+     */
+    private static final class RowPlan extends Plan {
+        final Field[] sources;
+        final Field[] outputFields;
+
+        RowPlan(Schema outputSchema, Field[] sources) {
+            super(outputSchema, true);
+            this.sources = sources;
+            this.outputFields = outputSchema.fields().toArray(new Field[0]);
+        }
+
+        @Override
+        protected Struct apply(Struct input) {
+            final Struct output = new Struct(outputSchema);
+            for (int i = 0; i < sources.length; i++) {
+                output.put(outputFields[i], input.get(sources[i]));
+            }
+            return output;
+        }
+    }
+}
@@ -1,24 +1,30 @@
 package com.willowtech.debezium.transforms;
 
+import com.willowtech.debezium.error.ErrorHandler;
+import com.willowtech.debezium.error.ErrorPolicy;
+import com.willowtech.debezium.json.JsonArrayReader;
+import com.willowtech.debezium.metrics.ColumnMetrics;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.metrics.RecordTracer;
 import com.willowtech.debezium.util.NonEmptyListValidator;
-import com.willowtech.debezium.util.SimpleConfig;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.willowtech.debezium.util.Requirements;
+import com.willowtech.debezium.util.SchemaUtil;
+import com.willowtech.debezium.util.SimpleConfig;
 import org.apache.kafka.common.config.ConfigDef;
-import org.apache.kafka.common.utils.AppInfoParser;
-import org.apache.kafka.connect.components.Versioned;
 import org.apache.kafka.connect.connector.ConnectRecord;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.connect.data.Struct;
-import org.apache.kafka.connect.transforms.Transformation;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import java.util.Arrays;
+import org.apache.kafka.connect.errors.DataException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Kafka-connect自定义Transformation
@@ -26,175 +32,228 @@ import java.util.Map;
  * 错误信息：Invalid Java object for schema with type STRING: class [Ljava.lang.String; for field: "num_array"
  * 2、convertToArray方法返回String[]数组,即把原始字符串转成List集合,转换失败
  * 错误信息：Invalid Java object for schema with type STRING: class java.util.Arrays$ArrayList for field: "num_array"
+ * 3、不再就地修改after：按输入schema推导输出schema(目标字段改为ARRAY&lt;STRING&gt;)，
+ * 推导结果和字段下标按schema实例缓存，每条记录按下标拷贝出新的Struct，通过record.newRecord返回
+ * 4、支持无schema的记录(Map)，只在命中配置字段时拷贝
+ * 5、metrics.enabled=true时按字段和整条记录注册JMX指标，见{@link PluginMetrics}
+ * 6、去掉逐条的log.info，改为按trace.sample.*采样写入内存环形缓冲区，通过JMX查看，见{@link RecordTracer}；
+ * 计划缓存、指标、采样和envelope的处理在{@link StructPlanTransform}中，与其他按schema编译计划的SMT共用
+ * 7、解析失败按error.policy处理(见{@link ErrorPolicy})，默认default即原来的空数组；passthrough时目标字段为null，
+ * 原始字符串放在紧随其后的 字段名+error.raw.suffix 字段(OPTIONAL STRING)；失败只计数和限频汇总打日志，不再逐条打印堆栈
  *
  * @author lhb
  * @date 2024/3/19
  * @since 1.0.0
  */
-public class String2ArrayTransform<R extends ConnectRecord<R>> implements Transformation<R>, Versioned {
-    private static final Logger log = LoggerFactory.getLogger(String2ArrayTransform.class);
+public class String2ArrayTransform<R extends ConnectRecord<R>> extends StructPlanTransform<R> {
     private static final String PURPOSE = "extract fields from string to array";
 
+    private static final String BEFORE = "before";
+    private static final String AFTER = "after";
+    private static final String ARRAY_SCHEMA_NAME = "com.willowtech.debezium.varchar.array";
+
     public static final String FIELDS_CONFIG = "fields";
-    public static final ConfigDef CONFIG_DEF = new ConfigDef()
+    public static final ConfigDef CONFIG_DEF = ErrorPolicy.define(define(new ConfigDef()
             .define(FIELDS_CONFIG, ConfigDef.Type.LIST, ConfigDef.NO_DEFAULT_VALUE, new NonEmptyListValidator(), ConfigDef.Importance.HIGH,
-                    "Field names on the record value to extract to Array.");
+                    "Field names on the record value to extract to Array.")), ErrorPolicy.Mode.DEFAULT);
     /**
      * 在配置中使用的字段名
      */
     private List<String> fields;
+    /**
+     * 每个配置字段的转换函数，开启指标时已包装好计数和计时
+     */
+    private Map<String, Function<String, List<String>>> fieldConverters;
+    /**
+     * passthrough策略下原始值字段的后缀，其他策略为null
+     */
+    private String rawSuffix;
+    /**
+     * null/passthrough策略下解析失败输出null，目标字段必须是optional
+     */
+    private boolean nullOnError;
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonArrayReader jsonArrayReader = new JsonArrayReader(StandardCharsets.UTF_8);
 
-    @Override
-    public String version() {
-        return AppInfoParser.getVersion();
+    public String2ArrayTransform() {
+        super(PURPOSE);
     }
 
     @Override
-    public void configure(Map<String, ?> configs) {
-        final SimpleConfig config = new SimpleConfig(CONFIG_DEF, configs);
+    protected void configure(SimpleConfig config) {
         fields = config.getList(FIELDS_CONFIG);
+        final ErrorPolicy errorPolicy = ErrorPolicy.create(config);
+        rawSuffix = errorPolicy.mode() == ErrorPolicy.Mode.PASSTHROUGH ? errorPolicy.rawSuffix() : null;
+        nullOnError = errorPolicy.mode() == ErrorPolicy.Mode.NULL || rawSuffix != null;
+        fieldConverters = new HashMap<>();
+        for (String field : fields) {
+            ColumnMetrics fieldMetrics = metrics().column(field);
+            // 原始值由plan写入同级字段，handler本身返回null
+            ErrorHandler errorHandler = errorPolicy.handler(field, fieldMetrics, Collections::emptyList, null);
+            fieldConverters.put(field, PluginMetrics.instrumentFunction(fieldMetrics, value -> convertToArray(value, errorHandler)));
+        }
     }
 
+    /**
+     * 按行schema推导输出schema：配置的STRING字段改为ARRAY&lt;STRING&gt;，passthrough时其后插入原始值字段
+     */
     @Override
-    public R apply(R record) {
+    protected Plan buildRowPlan(Schema recordSchema, Schema rowSchema) {
+        final SchemaBuilder builder = SchemaUtil.copySchemaBasics(rowSchema, SchemaBuilder.struct());
+        if (rowSchema.isOptional()) {
+            builder.optional();
+        }
+        final List<Field> fields = rowSchema.fields();
+        final Function<String, List<String>>[] converters = newConverterArray(fields.size());
+        boolean changed = false;
+        for (Field field : fields) {
+            Function<String, List<String>> converter = field.schema().type() == Schema.Type.STRING ? fieldConverters.get(field.name()) : null;
+            converters[field.index()] = converter;
+            if (converter != null) {
+                changed = true;
+                SchemaBuilder array = SchemaBuilder.array(Schema.OPTIONAL_STRING_SCHEMA).name(ARRAY_SCHEMA_NAME);
+                builder.field(field.name(), field.schema().isOptional() || nullOnError ? array.optional().build() : array.build());
+                if (rawSuffix != null) {
+                    String rawName = field.name() + rawSuffix;
+                    if (rowSchema.field(rawName) != null) {
+                        throw new DataException("Field " + rawName + " for the raw value of " + field.name() + " already exists in " + rowSchema.name());
+                    }
+                    builder.field(rawName, Schema.OPTIONAL_STRING_SCHEMA);
+                }
+            } else {
+                builder.field(field.name(), field.schema());
+            }
+        }
+        return changed ? new RowPlan(rowSchema, builder.build(), converters, rawSuffix) : unchanged(rowSchema);
+    }
 
-        if (record.valueSchema() == null) {
-            return applySchemaless(record);
-        } else {
-            return applyWithSchema(record);
+    @SuppressWarnings("unchecked")
+    private static Function<String, List<String>>[] newConverterArray(int size) {
+        return (Function<String, List<String>>[]) new Function<?, ?>[size];
+    }
+
+    /**
+     * 一行的处理计划：数组下标与输入字段一致，converters[i]非空表示该字段由字符串转数组，其余字段原样拷贝；
+     * passthrough时输出中多了原始值字段，下标会错开，所以outputFields按名字对应，rawFields[i]为该字段的原始值字段
+     */
+    private static final class RowPlan extends Plan {
+        final Field[] inputFields;
+        final Field[] outputFields;
+        final Field[] rawFields;
+        final Function<String, List<String>>[] converters;
+
+        RowPlan(Schema inputSchema, Schema outputSchema, Function<String, List<String>>[] converters, String rawSuffix) {
+            super(outputSchema, true);
+            this.inputFields = inputSchema.fields().toArray(new Field[0]);
+            this.outputFields = new Field[inputFields.length];
+            this.rawFields = new Field[inputFields.length];
+            for (int i = 0; i < inputFields.length; i++) {
+                outputFields[i] = outputSchema.field(inputFields[i].name());
+                if (rawSuffix != null && converters[i] != null) {
+                    rawFields[i] = outputSchema.field(inputFields[i].name() + rawSuffix);
+                }
+            }
+            this.converters = converters;
+        }
+
+        @Override
+        protected Struct apply(Struct input) {
+            final Struct output = new Struct(outputSchema);
+            for (int i = 0; i < inputFields.length; i++) {
+                Object fieldValue = input.get(inputFields[i]);
+                if (fieldValue != null && converters[i] != null) {
+                    Object converted = converters[i].apply((String) fieldValue);
+                    if (converted == null && rawFields[i] != null) {
+                        output.put(rawFields[i], fieldValue);
+                    }
+                    fieldValue = converted;
+                }
+                output.put(outputFields[i], fieldValue);
+            }
+            return output;
         }
     }
 
-    private R applyWithSchema(R record) {
-        //
-        log.info("applyWithSchema =================================");
-        log.info("配置的fields = {}", fields);
-        // 获取记录的值
-        //SourceRecord{sourcePartition={server=goods}, sourceOffset={transaction_id=null, ts_sec=1710816449, file=mysql-bin.000080, pos=16948, row=1, server_id=1,
-        // event=2}} ConnectRecord{topic='goods.goods.t_mountain', kafkaPartition=null, key=Struct{id=110}, keySchema=Schema{goods.goods.t_mountain.Key:STRUCT},
-        // value=Struct{after=Struct{id=110,name=少华山,location=34.497647,110.073028,latitude=34.497647,logtitude=110.073028,altitude=1200.00,create_user=111111,
-        // create_time=1710419563000,update_time=1710420074000,ticket=0.00,desc=少华山在陕西渭南华州区,num_array=["100","200"]},source=Struct{version=1.9.4.Final,
-        // connector=mysql,name=goods,ts_ms=1710816449000,db=goods,table=t_mountain,server_id=1,file=mysql-bin.000080,pos=17105,row=0,thread=118},op=c,
-        // ts_ms=1710821872668}, valueSchema=Schema{goods.goods.t_mountain.Envelope:STRUCT}, timestamp=null, headers=ConnectHeaders(headers=)}
-        log.info("要处理的record：{}", record);
-
-        final Struct value = Requirements.requireStruct(record.value(), PURPOSE);
-        //Struct{after=Struct{id=110,name=少华山,location=34.497647,110.073028,latitude=34.497647,logtitude=110.073028,altitude=1200.00,
-        // create_user=111111,create_time=1710419563000,update_time=1710420074000,ticket=0.00,desc=少华山在陕西渭南华州区,num_array=["100","200"]},
-        // source=Struct{version=1.9.4.Final,connector=mysql,name=goods,ts_ms=1710816449000,db=goods,table=t_mountain,server_id=1,
-        // file=mysql-bin.000080,pos=17105,row=0,thread=118},op=c,ts_ms=1710821872668}
-
-        log.info("要处理的字段value：{}", value);
-
-        Struct after = value.getStruct("after");
-        log.info("要处理的字段after：{}", after);
-
-        Field fieldAfter = (Field) value.schema().fields().get(1);
-        log.info("要处理的字段fieldAfter：{}", fieldAfter);
-
-        // 获取记录的schema
-        //Schema{goods.goods.t_mountain.Envelope:STRUCT}
-        Schema schema = value.schema();
-        log.info("要处理的字段schema：{}", schema);
-        List<Field> fields = schema.fields();
-        log.info("要处理的记录fields：{}", fields);
-
-//        final SchemaBuilder keySchemaBuilder = SchemaBuilder.array(Schema.STRING_SCHEMA).optional().name("com.willowtech.debezium.array");  ----> Not a struct schema: Schema{com.willowtech.debezium.array:ARRAY}
-        final SchemaBuilder keySchemaBuilder = SchemaBuilder.struct(); //todo 想办法把Array设置进去看看情况
-        for (String field : this.fields) {
-            Object fieldValue = after.get(field);
-            //num_array
-            log.info("要处理的记录字段：{}，原始值为：{}", field, fieldValue);
-            // 根据字段类型转换为数组
-            List<String> newValue = convertToArray(fieldValue.toString());
-            log.info("处理后的值为：{}", newValue);
-            // 更新值字段
-
-            Field newField = new Field(fieldAfter.name(), fieldAfter.index(), keySchemaBuilder.build());
-            log.info("处理后newField：{}", newField);
-
-//            keySchemaBuilder.field(field, fieldAfter.schema());
-            Schema keySchema = keySchemaBuilder.build();
-            final Struct key = new Struct(keySchema);
-
-            after.put(field, newValue);
-
-            key.put(newField, after);
+    /**
+     * 无schema(JsonConverter schemas.enable=false)时value是嵌套的Map：envelope处理before/after，扁平记录处理顶层；
+     * 没有命中任何配置字段时原样返回，不拷贝Map
+     */
+    @Override
+    protected R applySchemaless(R record) {
+        final Map<String, Object> value = Requirements.requireMap(record.value(), PURPOSE);
+        final Object before = value.get(BEFORE);
+        final Object after = value.get(AFTER);
+
+        Map<String, Object> updatedValue;
+        if (before instanceof Map || after instanceof Map) {
+            updatedValue = value;
+            updatedValue = replaceRow(value, updatedValue, BEFORE, before);
+            updatedValue = replaceRow(value, updatedValue, AFTER, after);
+        } else {
+            updatedValue = convertRow(value);
         }
-        log.info("处理后record：{}", record);
+        if (updatedValue == value) {
+            return record;
+        }
+        return record.newRecord(record.topic(), record.kafkaPartition(), record.keySchema(), record.key(),
+                null, updatedValue, record.timestamp());
+    }
 
-        return record;
-        //        return record.newRecord(record.topic(), record.kafkaPartition(), keySchema, key, value.schema(), value, record.timestamp());
+    /**
+     * 行有变化时才拷贝外层envelope(只拷贝一次)
+     */
+    private Map<String, Object> replaceRow(Map<String, Object> value, Map<String, Object> updatedValue, String key, Object row) {
+        if (!(row instanceof Map)) {
+            return updatedValue;
+        }
+        final Map<String, Object> rowMap = Requirements.requireMap(row, PURPOSE);
+        final Map<String, Object> updatedRow = convertRow(rowMap);
+        if (updatedRow == rowMap) {
+            return updatedValue;
+        }
+        if (updatedValue == value) {
+            updatedValue = new LinkedHashMap<>(value);
+        }
+        updatedValue.put(key, updatedRow);
+        return updatedValue;
     }
 
-    private R applySchemaless(R record) {
-        log.info("配置的fields = {}", fields);
-        // 获取记录的值
-        //SourceRecord{sourcePartition={server=goods}, sourceOffset={transaction_id=null, ts_sec=1710816449, file=mysql-bin.000080, pos=16948, row=1, server_id=1,
-        // event=2}} ConnectRecord{topic='goods.goods.t_mountain', kafkaPartition=null, key=Struct{id=110}, keySchema=Schema{goods.goods.t_mountain.Key:STRUCT},
-        // value=Struct{after=Struct{id=110,name=少华山,location=34.497647,110.073028,latitude=34.497647,logtitude=110.073028,altitude=1200.00,create_user=111111,
-        // create_time=1710419563000,update_time=1710420074000,ticket=0.00,desc=少华山在陕西渭南华州区,num_array=["100","200"]},source=Struct{version=1.9.4.Final,
-        // connector=mysql,name=goods,ts_ms=1710816449000,db=goods,table=t_mountain,server_id=1,file=mysql-bin.000080,pos=17105,row=0,thread=118},op=c,
-        // ts_ms=1710821872668}, valueSchema=Schema{goods.goods.t_mountain.Envelope:STRUCT}, timestamp=null, headers=ConnectHeaders(headers=)}
-        log.info("要处理的record：{}", record);
-
-        final Struct value = Requirements.requireStruct(record.value(), PURPOSE);
-        //Struct{after=Struct{id=110,name=少华山,location=34.497647,110.073028,latitude=34.497647,logtitude=110.073028,altitude=1200.00,
-        // create_user=111111,create_time=1710419563000,update_time=1710420074000,ticket=0.00,desc=少华山在陕西渭南华州区,num_array=["100","200"]},
-        // source=Struct{version=1.9.4.Final,connector=mysql,name=goods,ts_ms=1710816449000,db=goods,table=t_mountain,server_id=1,
-        // file=mysql-bin.000080,pos=17105,row=0,thread=118},op=c,ts_ms=1710821872668}
-
-        log.info("要处理的字段value：{}", value);
-
-        // 获取记录的schema
-        //Schema{goods.goods.t_mountain.Envelope:STRUCT}
-        Schema schema = value.schema();
-        log.info("要处理的字段schema：{}", schema);
-
-        final SchemaBuilder keySchemaBuilder = SchemaBuilder.struct();
+    private Map<String, Object> convertRow(Map<String, Object> row) {
+        Map<String, Object> updatedRow = row;
         for (String field : fields) {
-            //num_array
-            log.info("要处理的字段fieldName：{}", field);
+            final Object fieldValue = row.get(field);
+            if (fieldValue instanceof String) {
+                if (updatedRow == row) {
+                    updatedRow = new LinkedHashMap<>(row);
+                }
+                final List<String> converted = fieldConverters.get(field).apply((String) fieldValue);
+                updatedRow.put(field, converted);
+                if (converted == null && rawSuffix != null) {
+                    updatedRow.put(field + rawSuffix, fieldValue);
+                }
+            }
         }
-        return null;
+        return updatedRow;
     }
 
     /**
      * 实现将原始值转换为数组的逻辑
      *
      * @param originalValue
+     * @param errorHandler  解析失败时按error.policy返回(共用的空数组/null)或抛异常
      * @return
      */
-    private List<String> convertToArray(String originalValue) {
-        // 这里是转换逻辑，具体取决于originalValue的类型
-        // 例如，如果originalValue是一个String，你可以创建一个只有一个元素的数组
-        // 如果originalValue已经是一个数组，你可能需要将其转换为一个新的数组类型
-        // 如果originalValue是一个集合，你可以将其转换为一个数组
-        // ...
-        String[] array = new String[0];
-        log.info("String 转成 数组 ，原始值为{}", originalValue);
-        // 假设originalValue是一个String，我们将其转换为一个String数组
+    @SuppressWarnings("unchecked")
+    private List<String> convertToArray(String originalValue, ErrorHandler errorHandler) {
         try {
-            array = objectMapper.readValue(originalValue, String[].class);
-        } catch (JsonProcessingException e) {
-            log.info("转换异常", e);
-            e.printStackTrace();
+            return jsonArrayReader.read(originalValue);
+        } catch (IOException e) {
+            return (List<String>) errorHandler.onError(originalValue, e);
         }
-        return Arrays.asList(array);
     }
 
     @Override
     public ConfigDef config() {
-        // 返回转换器所需的配置定义
-        // 这里你可以定义你的转换器所需要的配置参数，比如字段名
-        return new ConfigDef()
-                .define(FIELDS_CONFIG, ConfigDef.Type.STRING, ConfigDef.Importance.HIGH, "The name of the field to convert to an array.");
-    }
-
-    @Override
-    public void close() {
-        // 在转换器关闭时执行任何必要的清理操作
+        return CONFIG_DEF;
     }
 }
\ No newline at end of file
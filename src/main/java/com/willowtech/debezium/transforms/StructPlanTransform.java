@@ -0,0 +1,237 @@
+package com.willowtech.debezium.transforms;
+
+import com.willowtech.debezium.cache.IdentityLruCache;
+import com.willowtech.debezium.metrics.ColumnMetrics;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import com.willowtech.debezium.metrics.RecordTracer;
+import com.willowtech.debezium.util.Requirements;
+import com.willowtech.debezium.util.SchemaUtil;
+import com.willowtech.debezium.util.SimpleConfig;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.utils.AppInfoParser;
+import org.apache.kafka.connect.components.Versioned;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.transforms.Transformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.Map;
+
+/**
+ * 按schema编译处理计划的SMT的公共部分，子类只负责读取自己的配置和为一行(before/after或扁平记录)编译计划
+ * <p>
+ * 1、配置：schema.cache.size、metrics.*(见{@link PluginMetrics})、trace.*(见{@link RecordTracer})，由{@link #define(ConfigDef)}加入子类的ConfigDef
+ * 2、metrics.enabled=true时整条记录的调用次数、异常和耗时记在column=record的MBean中；按trace.sample.*采样记录输入输出
+ * 3、值为null(如删除后的tombstone)原样输出；带schema的记录在每个value schema实例第一次出现时编译计划并缓存，
+ * Debezium envelope的before/after共用一个行计划，envelope其余字段原样拷贝，没有before/after的扁平记录(如经过ExtractNewRecordState)
+ * 直接按行计划处理；行计划没有变化时原样返回记录，不拷贝
+ * 4、无schema的记录默认不支持，子类可以覆盖{@link #applySchemaless}
+ */
+public abstract class StructPlanTransform<R extends ConnectRecord<R>> implements Transformation<R>, Versioned {
+    private static final Logger log = LoggerFactory.getLogger(StructPlanTransform.class);
+
+    private static final String BEFORE = "before";
+    private static final String AFTER = "after";
+
+    public static final String SCHEMA_CACHE_SIZE_CONFIG = "schema.cache.size";
+
+    private final String purpose;
+    private IdentityLruCache<Schema, Plan> planCache;
+    private PluginMetrics metrics = PluginMetrics.DISABLED;
+    private ColumnMetrics recordMetrics = ColumnMetrics.NOOP;
+    private RecordTracer tracer = RecordTracer.DISABLED;
+
+    /**
+     * @param purpose 记录类型不符时异常信息中的用途
+     */
+    protected StructPlanTransform(String purpose) {
+        this.purpose = purpose;
+    }
+
+    /**
+     * 公共配置项，子类的CONFIG_DEF为 define(自己的配置)
+     */
+    protected static ConfigDef define(ConfigDef configDef) {
+        return RecordTracer.define(PluginMetrics.define(configDef
+                .define(SCHEMA_CACHE_SIZE_CONFIG, ConfigDef.Type.INT, 64, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW,
+                        "Maximum number of distinct value schemas whose compiled plan is cached.")));
+    }
+
+    @Override
+    public String version() {
+        return AppInfoParser.getVersion();
+    }
+
+    @Override
+    public final void configure(Map<String, ?> configs) {
+        final SimpleConfig config = new SimpleConfig(config(), configs);
+        metrics = PluginMetrics.forTransform(config, getClass());
+        recordMetrics = metrics.column("record");
+        tracer = RecordTracer.create(config);
+        metrics.register(tracer);
+        planCache = new IdentityLruCache<>(config.getInt(SCHEMA_CACHE_SIZE_CONFIG));
+        configure(config);
+    }
+
+    /**
+     * 读取子类自己的配置，调用时{@link #metrics()}已经可用
+     */
+    protected abstract void configure(SimpleConfig config);
+
+    /**
+     * 为一行编译计划
+     *
+     * @param recordSchema 记录的value schema，用于按表名匹配规则(envelope时是envelope的schema)
+     * @param rowSchema    before/after的schema；扁平记录时与recordSchema相同
+     */
+    protected abstract Plan buildRowPlan(Schema recordSchema, Schema rowSchema);
+
+    protected PluginMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public R apply(R record) {
+        if (!recordMetrics.enabled()) {
+            return transform(record);
+        }
+        long start = System.nanoTime();
+        try {
+            return transform(record);
+        } catch (RuntimeException e) {
+            recordMetrics.recordFailure();
+            throw e;
+        } finally {
+            recordMetrics.recordInvocation(record.value(), System.nanoTime() - start);
+        }
+    }
+
+    private R transform(R record) {
+        final R result = record.value() == null ? record
+                : record.valueSchema() == null ? applySchemaless(record) : applyWithSchema(record);
+        if (tracer.sample(record.topic())) {
+            tracer.trace(record.topic(), () -> "input " + record + (result == record ? ", unchanged" : ", output value " + result.value()));
+        }
+        return result;
+    }
+
+    /**
+     * 无schema的记录(value不为null)，默认报错
+     */
+    protected R applySchemaless(R record) {
+        Requirements.requireStruct(record.value(), purpose);
+        return record;
+    }
+
+    private R applyWithSchema(R record) {
+        final Struct value = Requirements.requireStruct(record.value(), purpose);
+        final Plan plan = planCache.get(value.schema(), this::buildPlan);
+        if (!plan.changed) {
+            return record;
+        }
+        return record.newRecord(record.topic(), record.kafkaPartition(), record.keySchema(), record.key(),
+                plan.outputSchema, plan.apply(value), record.timestamp());
+    }
+
+    private Plan buildPlan(Schema schema) {
+        final Field before = schema.field(BEFORE);
+        final Field after = schema.field(AFTER);
+        final boolean envelope = isStruct(before) || isStruct(after);
+        // Debezium的before和after共用同一个行schema
+        final Schema rowSchema = !envelope ? schema : isStruct(after) ? after.schema() : before.schema();
+        final Plan rowPlan = buildRowPlan(schema, rowSchema);
+        if (rowPlan.changed) {
+            log.info("build plan for schema {}, row fields {} -> {}", schema.name(), rowSchema.fields().size(),
+                    rowPlan.outputSchema.fields().size());
+        }
+        if (!envelope || !rowPlan.changed) {
+            return envelope ? unchanged(schema) : rowPlan;
+        }
+        final SchemaBuilder builder = SchemaUtil.copySchemaBasics(schema, SchemaBuilder.struct());
+        if (schema.isOptional()) {
+            builder.optional();
+        }
+        final Field[] fields = schema.fields().toArray(new Field[0]);
+        final Plan[] rowPlans = new Plan[fields.length];
+        for (Field field : fields) {
+            if ((field == before || field == after) && field.schema().equals(rowSchema)) {
+                rowPlans[field.index()] = rowPlan;
+                builder.field(field.name(), rowPlan.outputSchema);
+            } else {
+                builder.field(field.name(), field.schema());
+            }
+        }
+        return new EnvelopePlan(builder.build(), fields, rowPlans);
+    }
+
+    private static boolean isStruct(Field field) {
+        return field != null && field.schema().type() == Schema.Type.STRUCT;
+    }
+
+    @Override
+    public void close() {
+        if (planCache != null) {
+            planCache.clear();
+        }
+        metrics.close();
+    }
+
+    /**
+     * 没有变化的计划：记录原样返回
+     */
+    protected static Plan unchanged(Schema schema) {
+        return new Plan(schema, false) {
+            @Override
+            protected Struct apply(Struct input) {
+                return input;
+            }
+        };
+    }
+
+    /**
+     * 编译后的处理计划，按输入schema实例缓存，多个线程共用，不能有可变状态
+     */
+    protected abstract static class Plan {
+        protected final Schema outputSchema;
+        protected final boolean changed;
+
+        protected Plan(Schema outputSchema, boolean changed) {
+            this.outputSchema = outputSchema;
+            this.changed = changed;
+        }
+
+        protected abstract Struct apply(Struct input);
+    }
+
+    /**
+     * envelope的计划：字段与输入一一对应，rowPlans[i]非空时该字段是before/after，值按行计划处理，其余原样拷贝
+     */
+    private static final class EnvelopePlan extends Plan {
+        final Field[] inputFields;
+        final Field[] outputFields;
+        final Plan[] rowPlans;
+
+        EnvelopePlan(Schema outputSchema, Field[] inputFields, Plan[] rowPlans) {
+            super(outputSchema, true);
+            this.inputFields = inputFields;
+            this.outputFields = outputSchema.fields().toArray(new Field[0]);
+            this.rowPlans = rowPlans;
+        }
+
+        @Override
+        protected Struct apply(Struct input) {
+            final Struct output = new Struct(outputSchema);
+            for (int i = 0; i < inputFields.length; i++) {
+                Object fieldValue = input.get(inputFields[i]);
+                if (fieldValue != null && rowPlans[i] != null) {
+                    fieldValue = rowPlans[i].apply((Struct) fieldValue);
+                }
+                output.put(outputFields[i], fieldValue);
+            }
+            return output;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.willowtech.debezium.transforms;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按表配置的规则：key可以写 表名、库.表名 或 server.库.表名，* 表示没有单独配置的表
+ * <p>
+ * 匹配对象是记录的schema名，Debezium的schema名为 server.库.表.Envelope 或 server.库.表.Value；
+ * 按key长度倒序匹配，越具体的配置越优先
+ *
+ * @param <T> 规则类型
+ */
+final class TableRules<T> {
+
+    static final String WILDCARD = "*";
+
+    private final List<Map.Entry<String, T>> rules = new ArrayList<>();
+    private T defaultRule;
+
+    void put(String table, T rule) {
+        if (WILDCARD.equals(table)) {
+            defaultRule = rule;
+            return;
+        }
+        rules.add(new AbstractMap.SimpleImmutableEntry<>(table, rule));
+        rules.sort((a, b) -> b.getKey().length() - a.getKey().length());
+    }
+
+    boolean isEmpty() {
+        return rules.isEmpty() && defaultRule == null;
+    }
+
+    /**
+     * 没有匹配的表时返回*的规则，没有配置*时返回null
+     */
+    T forSchema(String schemaName) {
+        if (schemaName != null) {
+            String table = schemaName;
+            if (table.endsWith(".Envelope") || table.endsWith(".Value")) {
+                table = table.substring(0, table.lastIndexOf('.'));
+            }
+            for (Map.Entry<String, T> rule : rules) {
+                if (table.equals(rule.getKey()) || table.endsWith("." + rule.getKey())) {
+                    return rule.getValue();
+                }
+            }
+        }
+        return defaultRule;
+    }
+}
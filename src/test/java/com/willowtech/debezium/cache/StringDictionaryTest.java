@@ -0,0 +1,123 @@
+package com.willowtech.debezium.cache;
+
+import org.junit.Test;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 高基数保护(统计窗口内未命中率超过上限时永久关闭)和字典的容量上限
+ */
+public class StringDictionaryTest {
+
+    @Test
+    public void equalValuesShareOneInstance() {
+        for (LongKeyCache.Eviction eviction : LongKeyCache.Eviction.values()) {
+            StringDictionary dictionary = StringDictionary.create(16, eviction, 100, 0.5);
+            String first = dictionary.intern(new String("paid"));
+            assertSame(eviction.name(), first, dictionary.intern(new String("paid")));
+            assertEquals(1, dictionary.hits());
+            assertEquals(1, dictionary.misses());
+        }
+    }
+
+    @Test
+    public void missRatioAtTheLimitKeepsDictionary() {
+        AtomicInteger disabled = new AtomicInteger();
+        StringDictionary dictionary = StringDictionary.create(256, LongKeyCache.Eviction.LRU, 100, 0.5)
+                .onDisabled(disabled::incrementAndGet);
+        // 一个窗口内恰好50次未命中，不超过0.5
+        for (int i = 0; i < 50; i++) {
+            dictionary.intern("v" + i);
+        }
+        for (int i = 0; i < 50; i++) {
+            dictionary.intern("v0");
+        }
+        assertTrue(dictionary.isEnabled());
+        assertEquals(0, disabled.get());
+    }
+
+    @Test
+    public void missRatioOverTheLimitDisablesDictionaryOnce() {
+        AtomicInteger disabled = new AtomicInteger();
+        StringDictionary dictionary = StringDictionary.create(256, LongKeyCache.Eviction.LRU, 100, 0.5)
+                .onDisabled(disabled::incrementAndGet);
+        String cached = dictionary.intern(new String("w0"));
+        for (int i = 1; i < 51; i++) {
+            dictionary.intern("w" + i);
+        }
+        for (int i = 0; i < 48; i++) {
+            dictionary.intern("w1");
+            assertTrue(dictionary.isEnabled());
+        }
+        // 第100次查找：51次未命中，关闭
+        dictionary.intern("w1");
+        assertFalse(dictionary.isEnabled());
+        assertEquals(1, disabled.get());
+
+        // 关闭后原样返回输入，已缓存的值被释放，不再计数
+        long lookups = dictionary.hits() + dictionary.misses();
+        String input = new String("w0");
+        assertSame(input, dictionary.intern(input));
+        assertNotSame(cached, input);
+        for (int i = 0; i < 1000; i++) {
+            dictionary.intern("x" + i);
+        }
+        assertEquals(lookups, dictionary.hits() + dictionary.misses());
+        assertEquals(1, disabled.get());
+    }
+
+    @Test
+    public void highCardinalityColumnIsDetectedWithDirectEviction() {
+        StringDictionary dictionary = StringDictionary.create(16, LongKeyCache.Eviction.DIRECT, 1000, 0.5);
+        for (int i = 0; i < 999; i++) {
+            dictionary.intern("order-" + i);
+        }
+        assertTrue(dictionary.isEnabled());
+        dictionary.intern("order-999");
+        assertFalse(dictionary.isEnabled());
+    }
+
+    @Test
+    public void lruKeepsAtMostCapacityValues() {
+        StringDictionary dictionary = StringDictionary.create(4, LongKeyCache.Eviction.LRU, 1000, 1);
+        String a = dictionary.intern(new String("a"));
+        String b = dictionary.intern(new String("b"));
+        dictionary.intern("c");
+        dictionary.intern("d");
+        // a最近使用过，淘汰最久未使用的b
+        assertSame(a, dictionary.intern(new String("a")));
+        dictionary.intern("e");
+        assertSame(a, dictionary.intern(new String("a")));
+        String bAgain = new String("b");
+        assertSame(bAgain, dictionary.intern(bAgain));
+        assertNotSame(b, bAgain);
+    }
+
+    @Test
+    public void directTableIsBounded() {
+        StringDictionary dictionary = StringDictionary.create(16, LongKeyCache.Eviction.DIRECT, 100_000, 1);
+        String[] values = new String[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = dictionary.intern(new String("city-" + i));
+        }
+        int kept = 0;
+        for (String value : values) {
+            if (dictionary.intern(new String(value)) == value) {
+                kept++;
+            }
+        }
+        // 槽位数为不小于容量2倍的2的幂，即32
+        assertTrue(String.valueOf(kept), kept <= 32);
+        assertTrue(dictionary.isEnabled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMissRatioAboveOne() {
+        StringDictionary.create(16, LongKeyCache.Eviction.DIRECT, 100, 1.5);
+    }
+}
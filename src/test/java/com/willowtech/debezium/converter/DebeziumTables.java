@@ -0,0 +1,100 @@
+package com.willowtech.debezium.converter;
+
+import io.debezium.relational.Column;
+import io.debezium.relational.CustomConverterRegistry;
+import io.debezium.relational.DefaultValueConverter;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import io.debezium.relational.TableSchema;
+import io.debezium.relational.TableSchemaBuilder;
+import io.debezium.relational.ValueConverter;
+import io.debezium.relational.ValueConverterProvider;
+import io.debezium.relational.mapping.ColumnMappers;
+import io.debezium.spi.converter.ConvertedField;
+import io.debezium.spi.converter.CustomConverter;
+import io.debezium.util.SchemaNameAdjuster;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 用Debezium自己的TableSchemaBuilder注册converter并生成行数据：列映射(propagate.source.type)、optional、列默认值
+ * 都由Debezium按运行时的顺序修改converter交出的SchemaBuilder，行数据经过envelope字段schema的校验
+ */
+final class DebeziumTables {
+
+    static final TableId TABLE_ID = new TableId("db", null, "t");
+    static final String SOURCE_TYPE_PARAMETER = "__debezium.source.column.type";
+
+    private static final Schema SOURCE_SCHEMA = SchemaBuilder.struct().name("source").build();
+
+    /**
+     * 没有被converter处理的列：INT映射为int32，其他映射为string，值原样输出
+     */
+    private static final ValueConverterProvider PLAIN_VALUES = new ValueConverterProvider() {
+        @Override
+        public SchemaBuilder schemaBuilder(Column column) {
+            return column.jdbcType() == Types.INTEGER ? SchemaBuilder.int32() : SchemaBuilder.string();
+        }
+
+        @Override
+        public ValueConverter converter(Column column, Field fieldDefn) {
+            return ValueConverter.passthrough();
+        }
+    };
+
+    private DebeziumTables() {
+    }
+
+    static Column column(String name, String type, boolean optional) {
+        return Column.editor().name(name).type(type).jdbcType(jdbcType(type)).optional(optional).create();
+    }
+
+    static Column column(String name, String type, boolean optional, String defaultValue) {
+        return Column.editor().name(name).type(type).jdbcType(jdbcType(type)).optional(optional)
+                .defaultValueExpression(defaultValue).create();
+    }
+
+    /**
+     * 第一列为主键
+     */
+    static Table table(Column... columns) {
+        return Table.editor().tableId(TABLE_ID).addColumns(columns).setPrimaryKeyNames(columns[0].name()).create();
+    }
+
+    /**
+     * 一个converter实例对应一个registry，多次调用相当于表结构刷新后重新注册
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static CustomConverterRegistry registry(CustomConverter<SchemaBuilder, ?> converter) {
+        List converters = Collections.singletonList(converter);
+        return new CustomConverterRegistry((List<CustomConverter<SchemaBuilder, ConvertedField>>) converters);
+    }
+
+    /**
+     * @param propagateSourceType 等同于连接器配置column.propagate.source.type=.*
+     */
+    static TableSchema schema(CustomConverterRegistry registry, Table table, boolean propagateSourceType) {
+        ColumnMappers.Builder mappers = ColumnMappers.build();
+        if (propagateSourceType) {
+            mappers.propagateSourceTypeToSchemaParameter(".*", ".*");
+        }
+        TableSchemaBuilder builder = new TableSchemaBuilder(PLAIN_VALUES, DefaultValueConverter.passthrough(), SchemaNameAdjuster.NO_OP,
+                registry, SOURCE_SCHEMA, false, false);
+        return builder.create("server", "server.db.t.Envelope", table, null, mappers.build(), null);
+    }
+
+    private static int jdbcType(String type) {
+        switch (type) {
+            case "INT":
+                return Types.INTEGER;
+            case "JSON":
+                return Types.OTHER;
+            default:
+                return Types.VARCHAR;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.willowtech.debezium.converter;
+
+import io.debezium.relational.Column;
+import io.debezium.relational.CustomConverterRegistry;
+import io.debezium.relational.ValueConverter;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.Test;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Types;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * 手写的parseScaled与 BigDecimal.setScale(scale, HALF_UP).unscaledValue().longValueExact() 逐个比较：
+ * 补0、HALF_UP舍入、负数、long边界两侧的溢出；以及解析失败、溢出按策略处理
+ */
+public class DecimalConverterTest {
+
+    private static final String[] EDGE_CASES = {
+            "0", "-0", "+0", "0.5", "-0.5", "0.49", "-0.49", "1.", ".5", "-.5", "+.5", "00012.3400", " 12.345 ", "\t-12.345\n",
+            "9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+            "9223372036854775807.4", "9223372036854775807.5", "-9223372036854775808.4", "-9223372036854775808.5",
+            "92233720368547758.07", "92233720368547758.08", "-92233720368547758.08", "-92233720368547758.09",
+            "92233720368547758.065", "92233720368547758.075", "-92233720368547758.075", "-92233720368547758.085",
+            "922337203685477580.7", "99999999999999999999", "0.000000000000000000001",
+            "", " ", "-", "+", ".", "-.", "1..2", "1.2.3", "--1", "1-", "12a", "a12", "1 2", "1,5"};
+
+    @Test
+    public void edgeCasesMatchBigDecimal() {
+        for (String text : EDGE_CASES) {
+            for (int scale = 0; scale <= 20; scale++) {
+                assertSameAsBigDecimal(text, scale);
+            }
+        }
+    }
+
+    @Test
+    public void randomNumbersMatchBigDecimal() {
+        Random random = new Random(20240611L);
+        for (int n = 0; n < 200_000; n++) {
+            StringBuilder text = new StringBuilder();
+            int sign = random.nextInt(4);
+            if (sign == 0) {
+                text.append('-');
+            } else if (sign == 1) {
+                text.append('+');
+            }
+            appendDigits(text, random, random.nextInt(21));
+            if (random.nextInt(4) != 0) {
+                text.append('.');
+                appendDigits(text, random, random.nextInt(12));
+            }
+            assertSameAsBigDecimal(text.toString(), random.nextInt(19));
+        }
+    }
+
+    @Test
+    public void exponentsAreNotSupported() {
+        assertNull(DecimalConverter.parseScaled("1e3", 0));
+        assertNull(DecimalConverter.parseScaled("1.5E-2", 2));
+    }
+
+    @Test
+    public void int64ModeFollowsOverflowAndErrorPolicy() {
+        ValueConverter nulls = register(props("decimal.mode", "int64", "decimal.overflow", "null"), 10, 2);
+        assertEquals(1234L, nulls.convert("12.34"));
+        assertEquals(1235L, nulls.convert(new BigDecimal("12.345")));
+        assertEquals(1200L, nulls.convert(12));
+        assertNull(nulls.convert("abc"));
+        assertNull(nulls.convert("92233720368547758.08"));
+        assertNull(nulls.convert(Long.MAX_VALUE));
+        assertNull(nulls.convert(Double.NaN));
+
+        ValueConverter overflowFails = register(props("decimal.mode", "int64"), 10, 2);
+        assertNull(overflowFails.convert("abc"));
+        try {
+            overflowFails.convert(Long.MAX_VALUE);
+            fail("Expected DataException");
+        } catch (DataException e) {
+            assertEquals("Cannot convert db.t.amount: Decimal value '" + Long.MAX_VALUE + "' does not fit in int64", e.getMessage());
+        }
+    }
+
+    @Test
+    public void doubleModeFollowsErrorPolicy() {
+        assertEquals(12.5, register(props("decimal.mode", "double"), 10, 2).convert(" 12.5 "));
+        assertNull(register(props("decimal.mode", "double"), 10, 2).convert("twelve"));
+        try {
+            register(props("decimal.mode", "double", "error.policy", "fail"), 10, 2).convert("twelve");
+            fail("Expected DataException");
+        } catch (DataException e) {
+            assertEquals("Cannot convert db.t.amount: For input string: \"twelve\"", e.getMessage());
+        }
+    }
+
+    private static void assertSameAsBigDecimal(String text, int scale) {
+        String expected;
+        try {
+            expected = String.valueOf(new BigDecimal(text.trim()).setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        } catch (NumberFormatException e) {
+            expected = "null";
+        } catch (ArithmeticException e) {
+            expected = "overflow";
+        }
+        String actual;
+        try {
+            actual = String.valueOf(DecimalConverter.parseScaled(text, scale));
+        } catch (ArithmeticException e) {
+            actual = "overflow";
+        }
+        assertEquals("'" + text + "' scale " + scale, expected, actual);
+    }
+
+    private static void appendDigits(StringBuilder text, Random random, int count) {
+        // 偏向9和0，让进位和long边界更常出现
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(4);
+            text.append(kind == 0 ? '9' : kind == 1 ? '0' : (char) ('0' + random.nextInt(10)));
+        }
+    }
+
+    private static ValueConverter register(Properties props, int precision, int scale) {
+        DecimalConverter converter = new DecimalConverter();
+        converter.configure(props);
+        CustomConverterRegistry registry = DebeziumTables.registry(converter);
+        Column amount = Column.editor().name("amount").type("decimal").jdbcType(Types.DECIMAL).length(precision).scale(scale)
+                .optional(true).create();
+        registry.registerConverterFor(DebeziumTables.TABLE_ID, amount, null);
+        return registry.getValueConverter(DebeziumTables.TABLE_ID, amount)
+                .orElseThrow(() -> new AssertionError("No converter registered for amount"));
+    }
+
+    private static Properties props(String... keyValues) {
+        Properties props = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            props.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        return props;
+    }
+}
@@ -0,0 +1,126 @@
+package com.willowtech.debezium.converter;
+
+import io.debezium.relational.Column;
+import io.debezium.relational.CustomConverterRegistry;
+import io.debezium.relational.ValueConverter;
+import org.junit.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * split的转义、多字符分隔符、空元素以及split.trim/split.drop.empty
+ */
+public class DelimitedString2ArrayConverterTest {
+
+    @Test
+    public void splitsOnSingleCharDelimiter() {
+        DelimitedString2ArrayConverter converter = converter();
+        assertEquals(Arrays.asList("aaa", "bbb", "ccc"), converter.split("aaa,bbb,ccc"));
+        assertEquals(Collections.singletonList("aaa"), converter.split("aaa"));
+        assertEquals(Collections.emptyList(), converter.split(""));
+    }
+
+    @Test
+    public void keepsEmptyTokensByDefault() {
+        DelimitedString2ArrayConverter converter = converter();
+        assertEquals(Arrays.asList("", "a", "", "b", ""), converter.split(",a,,b,"));
+        assertEquals(Arrays.asList("", ""), converter.split(","));
+        assertEquals(Arrays.asList(" a ", "  "), converter.split(" a ,  "));
+    }
+
+    @Test
+    public void trimAndDropEmpty() {
+        assertEquals(Arrays.asList("a", "", "b"), converter("split.trim", "true").split(" a , \t, b "));
+        assertEquals(Arrays.asList(" a ", "  "), converter("split.drop.empty", "true").split(",, a ,,  ,"));
+        assertEquals(Arrays.asList("a", "b"), converter("split.trim", "true", "split.drop.empty", "true").split(" a , \t, b ,"));
+        assertEquals(Collections.emptyList(), converter("split.trim", "true", "split.drop.empty", "true").split(" , "));
+    }
+
+    @Test
+    public void multiCharDelimiter() {
+        DelimitedString2ArrayConverter converter = converter("split.delimiter", "||");
+        assertEquals(Arrays.asList("a", "b|c", ""), converter.split("a||b|c||"));
+        // 重叠时从左到右取第一个完整的分隔符
+        assertEquals(Arrays.asList("a", "|b"), converter.split("a|||b"));
+        assertEquals(Collections.singletonList("a|"), converter.split("a|"));
+    }
+
+    @Test
+    public void escapedDelimiterAndEscape() {
+        DelimitedString2ArrayConverter converter = converter("split.escape", "\\");
+        assertEquals(Arrays.asList("a,b", "c"), converter.split("a\\,b,c"));
+        assertEquals(Arrays.asList("a\\", "b"), converter.split("a\\\\,b"));
+        // 转义普通字符等于该字符本身
+        assertEquals(Arrays.asList("ab", "c"), converter.split("a\\b,c"));
+        assertEquals(Arrays.asList("x", "a,b,c"), converter.split("x,a\\,b\\,c"));
+    }
+
+    @Test
+    public void escapeAtEndOfInputIsKept() {
+        DelimitedString2ArrayConverter converter = converter("split.escape", "\\");
+        assertEquals(Arrays.asList("a", "b\\"), converter.split("a,b\\"));
+        assertEquals(Collections.singletonList("\\"), converter.split("\\"));
+    }
+
+    @Test
+    public void escapeWithMultiCharDelimiterAndTrim() {
+        DelimitedString2ArrayConverter converter = converter("split.delimiter", "::", "split.escape", "\\", "split.trim", "true",
+                "split.drop.empty", "true");
+        assertEquals(Arrays.asList("a::b", "c"), converter.split(" a\\::b :: :: c "));
+        assertEquals(Arrays.asList("a:", "b"), converter.split("a\\:::b"));
+    }
+
+    @Test
+    public void convertsRegisteredColumn() {
+        DelimitedString2ArrayConverter converter = converter("split.cache.size", "0");
+        ValueConverter valueConverter = register(converter);
+        assertEquals(Arrays.asList("a", "b"), valueConverter.convert("a,b"));
+        assertEquals(Arrays.asList("a", "b"), valueConverter.convert("a,b".getBytes(StandardCharsets.UTF_8)));
+        assertNull(valueConverter.convert(null));
+
+        CustomConverterRegistry registry = DebeziumTables.registry(converter);
+        Column id = DebeziumTables.column("id", "INT", false);
+        registry.registerConverterFor(DebeziumTables.TABLE_ID, id, null);
+        assertFalse(registry.getValueConverter(DebeziumTables.TABLE_ID, id).isPresent());
+    }
+
+    @Test
+    public void whitespaceDelimitersDoNotShareCache() {
+        ValueConverter tabs = register(converter("split.delimiter", "\t"));
+        ValueConverter spaces = register(converter("split.delimiter", " "));
+        ValueConverter commas = register(converter());
+        assertEquals(Arrays.asList("a b", "c"), tabs.convert("a b\tc"));
+        assertEquals(Arrays.asList("a", "b\tc"), spaces.convert("a b\tc"));
+        assertEquals(Collections.singletonList("a b\tc"), commas.convert("a b\tc"));
+        assertEquals(Arrays.asList("a b", "c"), tabs.convert("a b\tc"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void escapeMustDifferFromDelimiter() {
+        converter("split.escape", ",");
+    }
+
+    private static ValueConverter register(DelimitedString2ArrayConverter converter) {
+        CustomConverterRegistry registry = DebeziumTables.registry(converter);
+        Column tags = DebeziumTables.column("tags", "varchar", true);
+        registry.registerConverterFor(DebeziumTables.TABLE_ID, tags, null);
+        return registry.getValueConverter(DebeziumTables.TABLE_ID, tags)
+                .orElseThrow(() -> new AssertionError("No converter registered for tags"));
+    }
+
+    private static DelimitedString2ArrayConverter converter(String... keyValues) {
+        Properties props = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            props.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        DelimitedString2ArrayConverter converter = new DelimitedString2ArrayConverter();
+        converter.configure(props);
+        return converter;
+    }
+}
@@ -0,0 +1,83 @@
+package com.willowtech.debezium.converter;
+
+import io.debezium.relational.Column;
+import io.debezium.relational.CustomConverterRegistry;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableSchema;
+import io.debezium.relational.ValueConverter;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.Test;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * struct格式通过Debezium的TableSchemaBuilder注册：开启column.propagate.source.type、列有默认值、重新注册时输出的Struct与envelope字段schema一致；
+ * 格式不对、超出范围的值按error.policy处理
+ */
+public class GeoPointConverterTest {
+
+    @Test
+    public void pointMatchesSchemaWithPropagatedSourceType() {
+        GeoPointConverter converter = new GeoPointConverter();
+        converter.configure(new Properties());
+        CustomConverterRegistry registry = DebeziumTables.registry(converter);
+        Table table = DebeziumTables.table(DebeziumTables.column("pk", "INT", false),
+                DebeziumTables.column("location", "VARCHAR", true, "0,0"));
+        TableSchema first = DebeziumTables.schema(registry, table, true);
+        TableSchema second = DebeziumTables.schema(registry, table, true);
+
+        for (TableSchema tableSchema : Arrays.asList(first, second)) {
+            assertEquals("VARCHAR", tableSchema.valueSchema().field("location").schema().parameters().get(DebeziumTables.SOURCE_TYPE_PARAMETER));
+            Struct row = tableSchema.valueFromColumnData(new Object[]{1, "31.23,121.47"});
+            row.validate();
+            Struct location = row.getStruct("location");
+            assertNotNull(location);
+            assertEquals(31.23, location.getFloat64("lat"), 0);
+            assertEquals(121.47, location.getFloat64("lon"), 0);
+        }
+    }
+
+    @Test
+    public void badValuesFollowErrorPolicy() {
+        ValueConverter nulls = register(props());
+        assertNull(nulls.convert("31.23"));
+        assertNull(nulls.convert("91,0"));
+        assertNull(nulls.convert("abc,1"));
+        assertEquals("wtw3sj5zb", register(props("geo.format", "geohash", "geo.geohash.precision", "9")).convert("31.23,121.47"));
+
+        ValueConverter passthrough = register(props("geo.format", "geohash", "error.policy", "passthrough"));
+        assertEquals("31.23;121.47", passthrough.convert("31.23;121.47"));
+
+        try {
+            register(props("error.policy", "fail")).convert("0,181");
+            fail("Expected DataException");
+        } catch (DataException e) {
+            assertEquals("Cannot convert db.t.location: Coordinate missing or out of range", e.getMessage());
+        }
+    }
+
+    private static ValueConverter register(Properties props) {
+        GeoPointConverter converter = new GeoPointConverter();
+        converter.configure(props);
+        CustomConverterRegistry registry = DebeziumTables.registry(converter);
+        Column location = DebeziumTables.column("location", "varchar", true);
+        // struct格式的Struct按Debezium build后的schema创建，由TableSchemaBuilder注册并build
+        DebeziumTables.schema(registry, DebeziumTables.table(DebeziumTables.column("pk", "INT", false), location), false);
+        return registry.getValueConverter(DebeziumTables.TABLE_ID, location)
+                .orElseThrow(() -> new AssertionError("No converter registered for location"));
+    }
+
+    private static Properties props(String... keyValues) {
+        Properties props = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            props.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        return props;
+    }
+}
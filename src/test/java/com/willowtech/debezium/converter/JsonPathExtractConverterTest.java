@@ -0,0 +1,90 @@
+package com.willowtech.debezium.converter;
+
+import io.debezium.relational.CustomConverterRegistry;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableSchema;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.junit.Test;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 通过Debezium的TableSchemaBuilder注册：开启column.propagate.source.type、列有默认值、表结构刷新重新注册时，
+ * 输出的Struct都必须与envelope字段schema一致
+ */
+public class JsonPathExtractConverterTest {
+
+    private static final String PATHS = "user_id=$.user.id:int64,$.tags[*]";
+
+    @Test
+    public void structMatchesSchemaWithPropagatedSourceType() {
+        TableSchema tableSchema = DebeziumTables.schema(DebeziumTables.registry(converter()), table(), true);
+
+        Schema extSchema = tableSchema.valueSchema().field("ext").schema();
+        assertEquals("JSON", extSchema.parameters().get(DebeziumTables.SOURCE_TYPE_PARAMETER));
+
+        Struct row = tableSchema.valueFromColumnData(new Object[]{1, "{\"user\":{\"id\":7},\"tags\":[\"a\",\"b\"]}"});
+        row.validate();
+        Struct ext = row.getStruct("ext");
+        assertNotNull(ext);
+        assertEquals(extSchema, ext.schema());
+        assertEquals(7L, (long) ext.getInt64("user_id"));
+        assertEquals(Arrays.asList("a", "b"), ext.getArray("tags"));
+    }
+
+    @Test
+    public void reRegistrationUsesFreshSchemaBuilders() {
+        CustomConverterRegistry registry = DebeziumTables.registry(converter());
+        Table table = DebeziumTables.table(DebeziumTables.column("pk", "INT", false),
+                DebeziumTables.column("ext", "JSON", true, "{\"user\":{\"id\":1}}"));
+        // 表结构刷新：同一个converter再注册一次，Debezium会再次调用parameter()和defaultValue()
+        TableSchema first = DebeziumTables.schema(registry, table, true);
+        TableSchema second = DebeziumTables.schema(registry, table, true);
+
+        assertNotSame(first.valueSchema().field("ext").schema(), second.valueSchema().field("ext").schema());
+        for (TableSchema tableSchema : Arrays.asList(first, second)) {
+            Struct row = tableSchema.valueFromColumnData(new Object[]{1, "{\"user\":{\"id\":7}}"});
+            row.validate();
+            assertEquals(7L, (long) row.getStruct("ext").getInt64("user_id"));
+        }
+    }
+
+    @Test
+    public void fallbackStructsMatchSchemaWithPropagatedSourceType() {
+        for (String policy : new String[]{"default", "passthrough"}) {
+            TableSchema tableSchema = DebeziumTables.schema(DebeziumTables.registry(converter("error.policy", policy)), table(), true);
+            Struct row = tableSchema.valueFromColumnData(new Object[]{1, "{\"user\":{\"id\":\"seven\"}}"});
+            row.validate();
+            Struct ext = row.getStruct("ext");
+            assertNotNull(policy, ext);
+            assertNull(policy, ext.getInt64("user_id"));
+            if ("passthrough".equals(policy)) {
+                assertEquals("{\"user\":{\"id\":\"seven\"}}", ext.getString("__raw"));
+            }
+        }
+    }
+
+    private static Table table() {
+        return DebeziumTables.table(DebeziumTables.column("pk", "INT", false), DebeziumTables.column("ext", "JSON", true));
+    }
+
+    /**
+     * extra为额外的 key, value 配置
+     */
+    private static JsonPathExtractConverter converter(String... extra) {
+        Properties props = new Properties();
+        props.setProperty("paths.ext", PATHS);
+        for (int i = 0; i < extra.length; i += 2) {
+            props.setProperty(extra[i], extra[i + 1]);
+        }
+        JsonPathExtractConverter converter = new JsonPathExtractConverter();
+        converter.configure(props);
+        return converter;
+    }
+}
@@ -0,0 +1,126 @@
+package com.willowtech.debezium.converter;
+
+import io.debezium.relational.CustomConverterRegistry;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableSchema;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.junit.Test;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 通过Debezium的TableSchemaBuilder注册：开启column.propagate.source.type后，Debezium会给converter交出的SchemaBuilder
+ * 加上__debezium.source.column.type等参数再build，输出的Struct必须与修改后的envelope字段schema一致
+ */
+public class JsonString2ObjectConverterTest {
+
+    private static final String SCHEMA = "id:int64,name:string,tags:array<string>,geo:struct<lat:float64,lon:float64>";
+
+    @Test
+    public void structMatchesSchemaWithPropagatedSourceType() {
+        CustomConverterRegistry registry = DebeziumTables.registry(converter(SCHEMA));
+        TableSchema tableSchema = DebeziumTables.schema(registry, table(), true);
+
+        Schema extSchema = tableSchema.valueSchema().field("ext").schema();
+        assertEquals("JSON", extSchema.parameters().get(DebeziumTables.SOURCE_TYPE_PARAMETER));
+
+        Struct row = tableSchema.valueFromColumnData(new Object[]{1, "{\"id\":7,\"name\":\"n\",\"tags\":[\"a\"],\"geo\":{\"lat\":1.5,\"lon\":2}}"});
+        row.validate();
+        Struct ext = row.getStruct("ext");
+        assertNotNull(ext);
+        assertEquals(extSchema, ext.schema());
+        assertEquals(7L, (long) ext.getInt64("id"));
+        assertEquals(Collections.singletonList("a"), ext.getArray("tags"));
+        assertEquals(1.5, ext.getStruct("geo").getFloat64("lat"), 0);
+    }
+
+    @Test
+    public void reRegistrationUsesFreshSchemaBuilders() {
+        JsonString2ObjectConverter converter = converter(SCHEMA);
+        CustomConverterRegistry registry = DebeziumTables.registry(converter);
+        Table table = DebeziumTables.table(DebeziumTables.column("pk", "INT", false),
+                DebeziumTables.column("ext", "JSON", true),
+                DebeziumTables.column("other", "VARCHAR", true, "{\"id\":1}"));
+        // 表结构刷新：同一个converter再注册一次，Debezium会再次调用parameter()和defaultValue()
+        TableSchema first = DebeziumTables.schema(registry, table, true);
+        TableSchema second = DebeziumTables.schema(registry, table, true);
+
+        assertNotSame(first.valueSchema().field("ext").schema(), second.valueSchema().field("ext").schema());
+        for (TableSchema tableSchema : Arrays.asList(first, second)) {
+            Struct row = tableSchema.valueFromColumnData(new Object[]{1, "{\"id\":7}", "{\"id\":8}"});
+            row.validate();
+            assertEquals(7L, (long) row.getStruct("ext").getInt64("id"));
+            assertEquals(8L, (long) row.getStruct("other").getInt64("id"));
+        }
+    }
+
+    @Test
+    public void fallbackStructsMatchSchemaWithPropagatedSourceType() {
+        for (String policy : new String[]{"default", "passthrough"}) {
+            JsonString2ObjectConverter converter = converter(SCHEMA, "error.policy", policy);
+            TableSchema tableSchema = DebeziumTables.schema(DebeziumTables.registry(converter), table(), true);
+            Struct row = tableSchema.valueFromColumnData(new Object[]{1, "{\"id\":\"not a number\"}"});
+            row.validate();
+            Struct ext = row.getStruct("ext");
+            assertNotNull(policy, ext);
+            assertNull(policy, ext.getInt64("id"));
+            if ("passthrough".equals(policy)) {
+                assertEquals("{\"id\":\"not a number\"}", ext.getString("__raw"));
+            }
+        }
+    }
+
+    @Test
+    public void oversizeStructMatchesSchemaWithPropagatedSourceType() {
+        JsonString2ObjectConverter converter = converter(SCHEMA, "transfer.max.size", "10", "transfer.oversize.policy", "truncate",
+                "transfer.oversize.prefix.length", "4");
+        TableSchema tableSchema = DebeziumTables.schema(DebeziumTables.registry(converter), table(), true);
+        Struct row = tableSchema.valueFromColumnData(new Object[]{1, "{\"id\":123456789}"});
+        row.validate();
+        Struct ext = row.getStruct("ext");
+        assertEquals(16L, (long) ext.getInt64(JsonString2ObjectConverter.OVERSIZE_SIZE_FIELD));
+        assertEquals("{\"id", ext.getString(JsonString2ObjectConverter.OVERSIZE_VALUE_FIELD));
+    }
+
+    @Test
+    public void mapModeWithPropagatedSourceType() {
+        JsonString2ObjectConverter converter = converter(null);
+        TableSchema tableSchema = DebeziumTables.schema(DebeziumTables.registry(converter), table(), true);
+        Struct row = tableSchema.valueFromColumnData(new Object[]{1, "{\"a\":\"x\",\"b\":1}"});
+        row.validate();
+        Map<Object, Object> ext = row.getMap("ext");
+        assertEquals("x", ext.get("a"));
+        assertEquals("1", ext.get("b"));
+    }
+
+    private static Table table() {
+        return DebeziumTables.table(DebeziumTables.column("pk", "INT", false), DebeziumTables.column("ext", "JSON", true));
+    }
+
+    /**
+     * struct模式，schema为null时转成map；extra为额外的 key, value 配置
+     */
+    private static JsonString2ObjectConverter converter(String schema, String... extra) {
+        Properties props = new Properties();
+        props.setProperty("transfer.mode", "struct");
+        props.setProperty("transfer.field", "ext,other");
+        if (schema != null) {
+            props.setProperty("transfer.schema.ext", schema);
+            props.setProperty("transfer.schema.other", "id:int64");
+        }
+        for (int i = 0; i < extra.length; i += 2) {
+            props.setProperty(extra[i], extra[i + 1]);
+        }
+        JsonString2ObjectConverter converter = new JsonString2ObjectConverter();
+        converter.configure(props);
+        return converter;
+    }
+}
@@ -0,0 +1,153 @@
+package com.willowtech.debezium.converter;
+
+import io.debezium.relational.Column;
+import io.debezium.relational.CustomConverterRegistry;
+import io.debezium.relational.ValueConverter;
+import io.debezium.spi.converter.CustomConverter;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.junit.Test;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 多个task线程同时configure、注册并调用配置相同的converter实例：它们共用{@link com.willowtech.debezium.cache.SharedRegistry}中的Core
+ * (格式化器、时区表、格式化结果缓存)，每个线程的输出必须与单线程的结果逐个相同
+ * <p>
+ * 单线程结果用另一份配置(不共用Core、不开缓存)算出，缓存设得很小，让并发的淘汰和覆盖尽量频繁
+ */
+public class SharedTemporalConvertersConcurrencyTest {
+
+    private static final String[] TYPES = {"DATE", "TIME", "DATETIME", "TIMESTAMP"};
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 3;
+    private static final int VALUES = 2000;
+
+    @Test
+    public void sharedDateTimeConverterMatchesSingleThreadedOutput() throws Exception {
+        Properties reference = props("format.datetime", "yyyy-MM-dd HH:mm:ss", "format.timestamp", "yyyy-MM-dd HH:mm:ss.SSS",
+                "format.timestamp.zone", "America/New_York");
+        for (String eviction : new String[]{"direct", "lru"}) {
+            Properties shared = new Properties();
+            shared.putAll(reference);
+            shared.setProperty("cache.size", "16");
+            shared.setProperty("cache.eviction", eviction);
+            assertSameOutput(MySqlDateTimeConverter::new, reference, shared);
+        }
+    }
+
+    @Test
+    public void sharedDateTime2TimestampConverterMatchesSingleThreadedOutput() throws Exception {
+        // format.date不影响时间戳输出，只让参照实例用另一份Core
+        Properties reference = props("format.timestamp.zone", "Europe/London", "format.date", "yyyy-MM-dd");
+        Properties shared = props("format.timestamp.zone", "Europe/London");
+        assertSameOutput(MySqlDateTime2TimestampConverter::new, reference, shared);
+    }
+
+    private static void assertSameOutput(Supplier<CustomConverter<SchemaBuilder, ?>> factory, Properties reference,
+                                         Properties shared) throws Exception {
+        final Object[][] inputs = inputs(new Random(20240315L));
+        final Object[][] expected = convertAll(converters(factory, reference), inputs);
+        final CountDownLatch start = new CountDownLatch(1);
+        final Queue<String> mismatches = new ConcurrentLinkedQueue<>();
+        final Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int offset = t * VALUES / THREADS;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    // 每个线程一个实例，并发configure时共用的Core可能被创建多次，最终只用一份
+                    ValueConverter[] converters = converters(factory, shared);
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (int i = 0; i < VALUES; i++) {
+                            int index = (offset + i) % VALUES;
+                            for (int type = 0; type < TYPES.length; type++) {
+                                Object actual = converters[type].convert(inputs[type][index]);
+                                if (!Objects.equals(expected[type][index], actual)) {
+                                    mismatches.add(TYPES[type] + " " + inputs[type][index] + ": expected " + expected[type][index] + " but was " + actual);
+                                }
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }, "task-" + t);
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(String.valueOf(errors.peek()), errors.isEmpty());
+        assertEquals("", mismatches.isEmpty() ? "" : mismatches.size() + " mismatches, first: " + mismatches.peek());
+    }
+
+    /**
+     * 按{@link #TYPES}的顺序注册四个时间类型的列，返回Debezium包装后的转换函数
+     */
+    private static ValueConverter[] converters(Supplier<CustomConverter<SchemaBuilder, ?>> factory, Properties props) {
+        CustomConverter<SchemaBuilder, ?> converter = factory.get();
+        converter.configure(props);
+        CustomConverterRegistry registry = DebeziumTables.registry(converter);
+        ValueConverter[] converters = new ValueConverter[TYPES.length];
+        for (int type = 0; type < TYPES.length; type++) {
+            Column column = DebeziumTables.column(TYPES[type].toLowerCase() + "_col", TYPES[type], true);
+            registry.registerConverterFor(DebeziumTables.TABLE_ID, column, null);
+            converters[type] = registry.getValueConverter(DebeziumTables.TABLE_ID, column)
+                    .orElseThrow(() -> new AssertionError("No converter registered for " + column.typeName()));
+        }
+        return converters;
+    }
+
+    private static Object[][] convertAll(ValueConverter[] converters, Object[][] inputs) {
+        Object[][] outputs = new Object[TYPES.length][VALUES];
+        for (int type = 0; type < TYPES.length; type++) {
+            for (int i = 0; i < VALUES; i++) {
+                outputs[type][i] = converters[type].convert(inputs[type][i]);
+            }
+        }
+        return outputs;
+    }
+
+    /**
+     * DATE、DATETIME集中在少数几天/几秒，让缓存的命中和淘汰同时发生；TIMESTAMP覆盖夏令时切换前后
+     */
+    private static Object[][] inputs(Random random) {
+        Object[][] inputs = new Object[TYPES.length][VALUES];
+        LocalDateTime base = LocalDateTime.of(2021, 3, 14, 0, 0);
+        for (int i = 0; i < VALUES; i++) {
+            inputs[0][i] = random.nextBoolean() ? LocalDate.of(2021, 1, 1).plusDays(random.nextInt(40))
+                    : (Object) (18_600 + random.nextInt(40));
+            inputs[1][i] = Duration.ofSeconds(random.nextInt(86_400), random.nextInt(1000) * 1_000_000L);
+            LocalDateTime datetime = base.plusSeconds(random.nextInt(64));
+            inputs[2][i] = random.nextInt(4) == 0 ? datetime.withNano(random.nextInt(1000) * 1_000_000) : datetime;
+            inputs[3][i] = ZonedDateTime.of(base.plusMinutes(random.nextInt(60 * 24 * 366)), ZoneOffset.UTC);
+        }
+        return inputs;
+    }
+
+    private static Properties props(String... keyValues) {
+        Properties props = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            props.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        return props;
+    }
+}
@@ -0,0 +1,70 @@
+package com.willowtech.debezium.converter;
+
+import io.debezium.relational.Column;
+import io.debezium.relational.CustomConverterRegistry;
+import io.debezium.relational.ValueConverter;
+import org.junit.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 低基数列共用实例；高基数列的字典自动关闭，表结构刷新重新注册后保持关闭
+ */
+public class StringInternConverterTest {
+
+    @Test
+    public void lowCardinalityValuesShareInstances() {
+        ValueConverter status = register(converter(), DebeziumTables.column("status", "varchar", true));
+        Object paid = status.convert(new String("paid"));
+        assertSame(paid, status.convert(new String("paid")));
+        assertSame(paid, status.convert("paid".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("refunded", status.convert("refunded"));
+    }
+
+    @Test
+    public void highCardinalityColumnStaysDisabledAfterReRegistration() {
+        StringInternConverter converter = converter();
+        Column orderNo = DebeziumTables.column("order_no", "VARCHAR", true);
+        ValueConverter first = register(converter, orderNo);
+        // 一个窗口(10次)全部未命中，超过0.5，字典关闭
+        for (int i = 0; i < 10; i++) {
+            first.convert("order-" + i);
+        }
+        String input = new String("order-9");
+        assertSame(input, first.convert(input));
+
+        ValueConverter second = register(converter, orderNo);
+        Object repeated = second.convert(new String("order-1"));
+        assertNotSame(repeated, second.convert(new String("order-1")));
+    }
+
+    @Test
+    public void otherTypesAreNotRegistered() {
+        CustomConverterRegistry registry = DebeziumTables.registry(converter());
+        Column id = DebeziumTables.column("id", "INT", false);
+        registry.registerConverterFor(DebeziumTables.TABLE_ID, id, null);
+        assertFalse(registry.getValueConverter(DebeziumTables.TABLE_ID, id).isPresent());
+    }
+
+    private static ValueConverter register(StringInternConverter converter, Column column) {
+        CustomConverterRegistry registry = DebeziumTables.registry(converter);
+        registry.registerConverterFor(DebeziumTables.TABLE_ID, column, null);
+        return registry.getValueConverter(DebeziumTables.TABLE_ID, column)
+                .orElseThrow(() -> new AssertionError("No converter registered for " + column.name()));
+    }
+
+    private static StringInternConverter converter() {
+        Properties props = new Properties();
+        props.setProperty("dictionary.size", "16");
+        props.setProperty("dictionary.sample.size", "10");
+        props.setProperty("dictionary.max.miss.ratio", "0.5");
+        StringInternConverter converter = new StringInternConverter();
+        converter.configure(props);
+        return converter;
+    }
+}
@@ -0,0 +1,99 @@
+package com.willowtech.debezium.converter;
+
+import io.debezium.relational.Column;
+import io.debezium.relational.CustomConverterRegistry;
+import org.junit.Test;
+import java.sql.Types;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 手写扫描的字符串解析，以及selector保持Predicates.includes的正则语义
+ */
+public class TinyIntOneToBooleanConverterTest {
+
+    @Test
+    public void parsesIntegersAndWords() {
+        assertSame(Boolean.TRUE, TinyIntOneToBooleanConverter.parseBoolean("1"));
+        assertSame(Boolean.TRUE, TinyIntOneToBooleanConverter.parseBoolean(" 007 "));
+        assertSame(Boolean.TRUE, TinyIntOneToBooleanConverter.parseBoolean("+2"));
+        assertSame(Boolean.FALSE, TinyIntOneToBooleanConverter.parseBoolean("0"));
+        assertSame(Boolean.FALSE, TinyIntOneToBooleanConverter.parseBoolean("-0"));
+        assertSame(Boolean.FALSE, TinyIntOneToBooleanConverter.parseBoolean("-1"));
+        assertSame(Boolean.TRUE, TinyIntOneToBooleanConverter.parseBoolean("TRUE"));
+        assertSame(Boolean.FALSE, TinyIntOneToBooleanConverter.parseBoolean("\tFalse"));
+        assertSame(Boolean.TRUE, TinyIntOneToBooleanConverter.parseBoolean("y"));
+        assertSame(Boolean.FALSE, TinyIntOneToBooleanConverter.parseBoolean("N"));
+    }
+
+    @Test
+    public void rejectsOtherText() {
+        for (String text : new String[]{"", "  ", "-", "+", "1a", "1 0", "yes", "tru", "truex", "fals3"}) {
+            assertNull(text, TinyIntOneToBooleanConverter.parseBoolean(text));
+        }
+    }
+
+    @Test
+    public void numbersAgreeWithText() {
+        assertSame(Boolean.TRUE, TinyIntOneToBooleanConverter.toBoolean((short) 2));
+        assertSame(Boolean.FALSE, TinyIntOneToBooleanConverter.toBoolean(0));
+        assertSame(Boolean.FALSE, TinyIntOneToBooleanConverter.toBoolean(-1L));
+        assertSame(Boolean.TRUE, TinyIntOneToBooleanConverter.toBoolean(Boolean.TRUE));
+        assertNull(TinyIntOneToBooleanConverter.toBoolean(new Object()));
+    }
+
+    @Test
+    public void selectorIsAFullNameRegex() {
+        assertTrue(registers("db.t.flag"));
+        assertTrue(registers("db\\.t\\..*"));
+        assertTrue(registers(null));
+        // 与Predicates.includes相同：只写列名或表.列不匹配
+        assertFalse(registers("flag"));
+        assertFalse(registers("t.flag"));
+    }
+
+    @Test
+    public void typeNameIsCaseInsensitive() {
+        CustomConverterRegistry registry = DebeziumTables.registry(converter(null));
+        Column flag = Column.editor().name("flag").type("tinyint unsigned").jdbcType(Types.TINYINT).length(1).optional(true).create();
+        registry.registerConverterFor(DebeziumTables.TABLE_ID, flag, null);
+        assertTrue(registry.getValueConverter(DebeziumTables.TABLE_ID, flag).isPresent());
+    }
+
+    @Test
+    public void convertsRegisteredColumn() {
+        TinyIntOneToBooleanConverter converter = converter(null);
+        CustomConverterRegistry registry = DebeziumTables.registry(converter);
+        Column flag = flag();
+        registry.registerConverterFor(DebeziumTables.TABLE_ID, flag, null);
+        assertEquals(Boolean.TRUE, registry.getValueConverter(DebeziumTables.TABLE_ID, flag).get().convert((byte) 1));
+        assertEquals(Boolean.FALSE, registry.getValueConverter(DebeziumTables.TABLE_ID, flag).get().convert("oops"));
+        assertNull(registry.getValueConverter(DebeziumTables.TABLE_ID, flag).get().convert(null));
+    }
+
+    private static boolean registers(String selector) {
+        CustomConverterRegistry registry = DebeziumTables.registry(converter(selector));
+        Column flag = flag();
+        registry.registerConverterFor(DebeziumTables.TABLE_ID, flag, null);
+        return registry.getValueConverter(DebeziumTables.TABLE_ID, flag).isPresent();
+    }
+
+    private static Column flag() {
+        return Column.editor().name("flag").type("TINYINT").jdbcType(Types.TINYINT).length(1).optional(true).create();
+    }
+
+    private static TinyIntOneToBooleanConverter converter(String selector) {
+        Properties props = new Properties();
+        if (selector != null) {
+            props.setProperty(TinyIntOneToBooleanConverter.SELECTOR_PROPERTY, selector);
+        }
+        TinyIntOneToBooleanConverter converter = new TinyIntOneToBooleanConverter();
+        converter.configure(props);
+        return converter;
+    }
+}
@@ -0,0 +1,71 @@
+package com.willowtech.debezium.error;
+
+import com.willowtech.debezium.metrics.ColumnMetrics;
+import com.willowtech.debezium.metrics.PluginMetrics;
+import io.debezium.spi.converter.CustomConverter;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.Test;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * 处理掉的失败只记入列指标的failures，一行只计一次；fail策略抛出的异常留给PluginMetrics.instrument计数
+ */
+public class ErrorHandlerTest {
+
+    private static final Exception ERROR = new StacklessDataException("bad value");
+
+    @Test
+    public void handledFailuresAreRecordedInColumnMetrics() {
+        ColumnMetrics metrics = new ColumnMetrics();
+        ErrorHandler nullHandler = handler("null", metrics);
+        assertNull(nullHandler.onError("x", ERROR));
+        assertNull(nullHandler.onError("y", ERROR));
+        assertEquals(2, metrics.getFailures());
+        assertEquals(0, metrics.getFallbacks());
+
+        assertSame(Collections.emptyList(), handler("default", metrics).onError("z", ERROR));
+        assertEquals(3, metrics.getFailures());
+        assertEquals(0, metrics.getFallbacks());
+    }
+
+    @Test
+    public void handledRowIsNotCountedAgainByInstrument() {
+        ColumnMetrics metrics = new ColumnMetrics();
+        ErrorHandler handler = handler("null", metrics);
+        CustomConverter.Converter converter = PluginMetrics.instrument(metrics,
+                input -> "bad".equals(input) ? handler.onError(input, ERROR) : null);
+        assertNull(converter.convert("bad"));
+        assertEquals(1, metrics.getFailures());
+        assertEquals(0, metrics.getFallbacks());
+        // 没有经过ErrorHandler的null输出仍然是fallback
+        assertNull(converter.convert("empty"));
+        assertEquals(1, metrics.getFailures());
+        assertEquals(1, metrics.getFallbacks());
+        assertEquals(2, metrics.getInvocations());
+    }
+
+    @Test
+    public void failPolicyLeavesCountingToTheCaller() {
+        ColumnMetrics metrics = new ColumnMetrics();
+        try {
+            handler("fail", metrics).onError("x", ERROR);
+            fail("Expected DataException");
+        } catch (DataException e) {
+            assertEquals("Cannot convert db.t.c: bad value", e.getMessage());
+        }
+        assertEquals(0, metrics.getFailures());
+    }
+
+    private static ErrorHandler handler(String policy, ColumnMetrics metrics) {
+        Properties props = new Properties();
+        props.setProperty(ErrorPolicy.POLICY_CONFIG, policy);
+        return ErrorPolicy.fromProperties(props, ErrorPolicy.Mode.NULL)
+                .handler("db.t.c", metrics, Collections::emptyList, null);
+    }
+}
@@ -0,0 +1,62 @@
+package com.willowtech.debezium.json;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.Test;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class JsonStructReaderTest {
+
+    private final JsonStructReader reader = new JsonStructReader(
+            JsonSchemas.parse("b:int8,s:int16,i:int32,l:int64,tags:array<int32>,geo:struct<lat:float64>", "t").build(),
+            StandardCharsets.UTF_8);
+
+    @Test
+    public void readsIntegersAtTheirBounds() throws Exception {
+        Struct struct = (Struct) reader.read("{\"b\":-128,\"s\":32767,\"i\":\"-2147483648\",\"l\":9223372036854775807,\"tags\":[1,2.9]}");
+        assertEquals((byte) -128, (byte) struct.getInt8("b"));
+        assertEquals((short) 32767, (short) struct.getInt16("s"));
+        assertEquals(Integer.MIN_VALUE, (int) struct.getInt32("i"));
+        assertEquals(Long.MAX_VALUE, (long) struct.getInt64("l"));
+        assertEquals(2, struct.getArray("tags").get(1));
+    }
+
+    @Test
+    public void rejectsOutOfRangeIntegersInsteadOfWrapping() throws Exception {
+        assertFails("{\"b\":128}", "Value 128 at '/b' is out of range for int8");
+        assertFails("{\"s\":\"-32769\"}", "Value -32769 at '/s' is out of range for int16");
+        assertFails("{\"i\":2147483648}", "Value 2147483648 at '/i' is out of range for int32");
+        assertFails("{\"l\":9223372036854775808}", "Value 9223372036854775808 at '/l' is out of range for int64");
+        assertFails("{\"l\":1e19}", "Value 1e19 at '/l' is out of range for int64");
+        assertFails("{\"tags\":[1,4294967296]}", "Value 4294967296 at '/tags/1' is out of range for int32");
+    }
+
+    @Test
+    public void reportsLocationOfTypeMismatches() throws Exception {
+        assertFails("{\"geo\":{\"lat\":\"north\"}}", "Expected number at '/geo/lat' but found VALUE_STRING");
+        assertFails("{\"geo\":[1]}", "Expected START_OBJECT at '/geo' but found START_ARRAY");
+        assertFails("[1]", "Expected START_OBJECT at '' but found START_ARRAY");
+    }
+
+    @Test
+    public void readsAgainstGivenRootSchema() throws Exception {
+        Schema root = JsonSchemas.parse("l:int64", "t").parameter("__debezium.source.column.type", "JSON").build();
+        Struct struct = (Struct) new JsonStructReader(JsonSchemas.parse("l:int64", "t").build(), StandardCharsets.UTF_8)
+                .read("{\"l\":1}", root);
+        assertEquals(root, struct.schema());
+    }
+
+    private void assertFails(String json, String message) throws Exception {
+        try {
+            reader.read(json);
+            fail("Expected failure for " + json);
+        } catch (DataException e) {
+            assertEquals(message, e.getMessage());
+            assertEquals(0, e.getStackTrace().length);
+        }
+    }
+}
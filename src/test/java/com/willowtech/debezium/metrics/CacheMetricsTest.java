@@ -0,0 +1,50 @@
+package com.willowtech.debezium.metrics;
+
+import com.willowtech.debezium.cache.LongKeyCache;
+import org.junit.Test;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * 缓存的命中/未命中计数通过MBean读取，指标关闭时不注册
+ */
+public class CacheMetricsTest {
+
+    @Test
+    public void publishesCacheCountersThroughJmx() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(PluginMetrics.ENABLED_CONFIG, "true");
+        props.setProperty(PluginMetrics.CONNECTOR_CONFIG, "cache-test");
+        props.setProperty(PluginMetrics.NAME_CONFIG, "cached");
+        PluginMetrics metrics = PluginMetrics.forConverter(props, getClass());
+        LongKeyCache<String> cache = LongKeyCache.create(8, LongKeyCache.Eviction.DIRECT);
+        metrics.registerCache("date", cache.capacity(), cache::hits, cache::misses);
+        ObjectName name = new ObjectName(PluginMetrics.DOMAIN + ":type=converter,connector=cache-test,name=cached,cache=date");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            cache.get(1, Long::toString);
+            cache.get(1, Long::toString);
+            cache.get(1, Long::toString);
+            cache.get(2, Long::toString);
+            assertEquals(8, server.getAttribute(name, "Capacity"));
+            assertEquals(2L, server.getAttribute(name, "Hits"));
+            assertEquals(2L, server.getAttribute(name, "Misses"));
+            assertEquals(0.5, (Double) server.getAttribute(name, "HitRatio"), 0);
+        } finally {
+            metrics.close();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void disabledMetricsRegisterNothing() throws Exception {
+        PluginMetrics.DISABLED.registerCache("date", 8, () -> 1, () -> 1);
+        assertEquals(0, ManagementFactory.getPlatformMBeanServer()
+                .queryNames(new ObjectName(PluginMetrics.DOMAIN + ":cache=date,*"), null).size());
+    }
+}
@@ -0,0 +1,52 @@
+package com.willowtech.debezium.metrics;
+
+import com.willowtech.debezium.converter.MySqlDateTimeConverter;
+import org.junit.Test;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 没有配置metrics.name时，同一连接器里同一个类的两个实例按配置区分ObjectName，配置相同(task重启)时名字不变
+ */
+public class PluginMetricsTest {
+
+    @Test
+    public void defaultNamesOfDifferentlyConfiguredInstancesDoNotCollide() throws Exception {
+        PluginMetrics dates = PluginMetrics.forConverter(props("selector", "db.t.created"), MySqlDateTimeConverter.class);
+        PluginMetrics times = PluginMetrics.forConverter(props("selector", "db.t.updated"), MySqlDateTimeConverter.class);
+        try {
+            dates.column("db.t.c").recordFailure();
+            times.column("db.t.c");
+            ObjectName pattern = new ObjectName(PluginMetrics.DOMAIN + ":type=converter,connector=test-connector,column=db.t.c,*");
+            assertEquals(2, ManagementFactory.getPlatformMBeanServer().queryNames(pattern, null).size());
+        } finally {
+            dates.close();
+            times.close();
+        }
+    }
+
+    @Test
+    public void defaultNameIsStableForTheSameConfiguration() {
+        Properties first = props("selector", "db.t.created", "format.date", "yyyy-MM-dd");
+        Properties second = props("format.date", "yyyy-MM-dd", "selector", "db.t.created");
+        String name = PluginMetrics.defaultName(MySqlDateTimeConverter.class, first);
+        assertEquals(name, PluginMetrics.defaultName(MySqlDateTimeConverter.class, second));
+        assertTrue(name, name.startsWith("MySqlDateTimeConverter-"));
+        assertNotEquals(name, PluginMetrics.defaultName(MySqlDateTimeConverter.class, props("selector", "db.t.updated")));
+    }
+
+    private static Properties props(String... keyValues) {
+        Properties props = new Properties();
+        props.setProperty(PluginMetrics.ENABLED_CONFIG, "true");
+        props.setProperty(PluginMetrics.CONNECTOR_CONFIG, "test-connector");
+        for (int i = 0; i < keyValues.length; i += 2) {
+            props.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        return props;
+    }
+}
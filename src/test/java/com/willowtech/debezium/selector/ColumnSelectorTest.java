@@ -0,0 +1,89 @@
+package com.willowtech.debezium.selector;
+
+import org.junit.Test;
+import java.util.Properties;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 精确名称、通配符、正则三种写法和排除列表；regexesFromProperties与Debezium的Predicates.includes语义相同
+ */
+public class ColumnSelectorTest {
+
+    @Test
+    public void exactNamesMatchColumnTableColumnOrFullName() {
+        ColumnSelector column = ColumnSelector.of("Flag", null);
+        assertTrue(column.matches("db.t", "flag"));
+        assertTrue(column.matches("db.other", "FLAG"));
+
+        ColumnSelector tableColumn = ColumnSelector.of("t.flag", null);
+        assertTrue(tableColumn.matches("db.t", "flag"));
+        assertFalse(tableColumn.matches("db.other", "flag"));
+
+        ColumnSelector fullName = ColumnSelector.of("db.t.flag", null);
+        assertTrue(fullName.matches("DB.T", "flag"));
+        assertFalse(fullName.matches("db2.t", "flag"));
+        // 精确名称中的'.'不是正则
+        assertFalse(fullName.matches("dbxt", "flag"));
+    }
+
+    @Test
+    public void globsAndRegexes() {
+        ColumnSelector selector = ColumnSelector.of("goods.t_*.is_?,regex:db\\.t\\.(a|b),db.t.c{1,3}", null);
+        assertTrue(selector.matches("goods.t_mountain", "is_x"));
+        assertFalse(selector.matches("goods.t_mountain", "is_xy"));
+        assertTrue(selector.matches("db.t", "b"));
+        assertFalse(selector.matches("db.t", "ab"));
+        // 括号内的逗号不拆分
+        assertTrue(selector.matches("db.t", "ccc"));
+        assertFalse(selector.matches("db.t", "cccc"));
+    }
+
+    @Test
+    public void excludeWinsOverInclude() {
+        ColumnSelector selector = ColumnSelector.of("goods.*", "goods.t_archive.*");
+        assertTrue(selector.matches("goods.t_mountain", "name"));
+        assertFalse(selector.matches("goods.t_archive", "name"));
+        assertFalse(selector.matches("other.t", "name"));
+
+        ColumnSelector excludeOnly = ColumnSelector.of(null, "secret");
+        assertTrue(excludeOnly.matches("db.t", "name"));
+        assertFalse(excludeOnly.matches("db.t", "secret"));
+    }
+
+    @Test
+    public void emptyListsMatchAll() {
+        assertSame(ColumnSelector.ALL, ColumnSelector.of(" ", null));
+        assertSame(ColumnSelector.ALL, ColumnSelector.regexesFromProperties(new Properties()));
+        assertTrue(ColumnSelector.ALL.matches("db.t", "c"));
+    }
+
+    @Test
+    public void regexesMatchTheWholeName() {
+        ColumnSelector selector = ColumnSelector.regexesFromProperties(props("db.t.flag,db.t2.is_.*", null));
+        assertTrue(selector.matches("db.t", "flag"));
+        assertTrue(selector.matches("DB.T2", "is_deleted"));
+        // 不按列名或表.列匹配
+        assertFalse(ColumnSelector.regexesFromProperties(props("flag", null)).matches("db.t", "flag"));
+        assertFalse(ColumnSelector.regexesFromProperties(props("t.flag", null)).matches("db.t", "flag"));
+        // '?'是正则的量词，不是通配符
+        assertTrue(ColumnSelector.regexesFromProperties(props("db.t.flags?", null)).matches("db.t", "flag"));
+
+        ColumnSelector excluded = ColumnSelector.regexesFromProperties(props("db.t.*", "db.t.flag"));
+        assertTrue(excluded.matches("db.t", "is_deleted"));
+        assertFalse(excluded.matches("db.t", "flag"));
+    }
+
+    private static Properties props(String include, String exclude) {
+        Properties props = new Properties();
+        if (include != null) {
+            props.setProperty(ColumnSelector.SELECTOR_PROPERTY, include);
+        }
+        if (exclude != null) {
+            props.setProperty(ColumnSelector.EXCLUDE_PROPERTY, exclude);
+        }
+        return props;
+    }
+}
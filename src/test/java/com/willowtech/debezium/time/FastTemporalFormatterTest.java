@@ -0,0 +1,167 @@
+package com.willowtech.debezium.time;
+
+import org.junit.Test;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 与java.time的差分测试：随机的日期、时间和小数秒，快速路径的输出必须与{@link DateTimeFormatter}逐字相同
+ */
+public class FastTemporalFormatterTest {
+
+    private static final long SEED = 20240315L;
+    private static final int ROUNDS = 20_000;
+
+    private static final String[] DATE_PATTERNS = {"yyyy-MM-dd", "uuuu-MM-dd", "yyyy/MM/dd", "yyyyMMdd", "dd.MM.yyyy", "yyyy'年'MM'月'dd'日'"};
+    private static final String[] TIME_PATTERNS = {"HH:mm:ss", "HH:mm", "HH:mm:ss.SSS", "HH:mm:ss.SSSSSS", "HH:mm:ss[.SSS]", "HHmmss", "HH'h'mm''"};
+    private static final String[] DATE_TIME_PATTERNS = {"yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd HH:mm:ss.SSS", "yyyy-MM-dd'T'HH:mm:ss",
+            "yyyy-MM-dd HH:mm:ss[.SSS]", "yyyy-MM-dd'T'HH:mm:ss.SSSSSSSSS", "yyyyMMddHHmmssS"};
+    private static final DateTimeFormatter[] ISO_DATE = {DateTimeFormatter.ISO_DATE, DateTimeFormatter.ISO_LOCAL_DATE};
+    private static final DateTimeFormatter[] ISO_TIME = {DateTimeFormatter.ISO_TIME, DateTimeFormatter.ISO_LOCAL_TIME};
+    private static final DateTimeFormatter[] ISO_DATE_TIME = {DateTimeFormatter.ISO_DATE_TIME, DateTimeFormatter.ISO_LOCAL_DATE_TIME};
+
+    private final Random random = new Random(SEED);
+
+    @Test
+    public void commonPatternsAreCompiled() {
+        for (String pattern : concat(DATE_PATTERNS, TIME_PATTERNS, DATE_TIME_PATTERNS)) {
+            assertTrue(pattern, FastTemporalFormatter.ofPattern(pattern).isCompiled());
+        }
+        for (DateTimeFormatter formatter : new DateTimeFormatter[]{ISO_DATE[0], ISO_DATE[1], ISO_TIME[0], ISO_TIME[1], ISO_DATE_TIME[0], ISO_DATE_TIME[1]}) {
+            assertTrue(formatter.toString(), FastTemporalFormatter.of(formatter).isCompiled());
+        }
+        for (String pattern : new String[]{"yy-MM-dd", "yyyy-MMM-dd", "EEE yyyy-MM-dd", "hh:mm a", "HH:mm:ss VV", "yyyy-MM-dd G"}) {
+            assertFalse(pattern, FastTemporalFormatter.ofPattern(pattern).isCompiled());
+        }
+        assertFalse(FastTemporalFormatter.of(DateTimeFormatter.RFC_1123_DATE_TIME).isCompiled());
+    }
+
+    @Test
+    public void datesMatchJavaTime() {
+        for (String pattern : DATE_PATTERNS) {
+            checkDates(FastTemporalFormatter.ofPattern(pattern));
+        }
+        for (DateTimeFormatter formatter : ISO_DATE) {
+            checkDates(FastTemporalFormatter.of(formatter));
+        }
+    }
+
+    @Test
+    public void timesMatchJavaTime() {
+        for (String pattern : TIME_PATTERNS) {
+            checkTimes(FastTemporalFormatter.ofPattern(pattern));
+        }
+        for (DateTimeFormatter formatter : ISO_TIME) {
+            checkTimes(FastTemporalFormatter.of(formatter));
+        }
+    }
+
+    @Test
+    public void dateTimesMatchJavaTime() {
+        for (String pattern : DATE_TIME_PATTERNS) {
+            checkDateTimes(FastTemporalFormatter.ofPattern(pattern));
+        }
+        for (DateTimeFormatter formatter : ISO_DATE_TIME) {
+            checkDateTimes(FastTemporalFormatter.of(formatter));
+        }
+        // 不支持的pattern走fallback，结果同样一致
+        checkDateTimes(FastTemporalFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss"));
+    }
+
+    @Test
+    public void civilFromDaysMatchesLocalDate() {
+        for (long epochDay = LocalDate.of(0, 1, 1).toEpochDay(); epochDay <= LocalDate.of(9999, 12, 31).toEpochDay(); epochDay += 7) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            int packed = FastTemporalFormatter.civilFromDays(epochDay);
+            assertEquals(date.toString(), date.getYear(), packed >>> 9);
+            assertEquals(date.toString(), date.getMonthValue(), (packed >>> 5) & 0xF);
+            assertEquals(date.toString(), date.getDayOfMonth(), packed & 0x1F);
+        }
+        assertEquals(-1, FastTemporalFormatter.civilFromDays(LocalDate.of(10000, 1, 1).toEpochDay()));
+        assertEquals(-1, FastTemporalFormatter.civilFromDays(LocalDate.of(-1, 12, 31).toEpochDay()));
+    }
+
+    private void checkDates(FastTemporalFormatter formatter) {
+        DateTimeFormatter expected = formatter.formatter();
+        for (int i = 0; i < ROUNDS; i++) {
+            LocalDate date = LocalDate.ofEpochDay(randomEpochDay());
+            String message = formatter + " " + date;
+            assertEquals(message, expected.format(date), formatter.formatDate(date));
+            assertEquals(message, expected.format(date), formatter.formatEpochDay(date.toEpochDay()));
+        }
+    }
+
+    private void checkTimes(FastTemporalFormatter formatter) {
+        DateTimeFormatter expected = formatter.formatter();
+        for (int i = 0; i < ROUNDS; i++) {
+            long secondOfDay = random.nextInt(86400);
+            int nano = randomNano();
+            LocalTime time = LocalTime.ofSecondOfDay(secondOfDay).withNano(nano);
+            assertEquals(formatter + " " + time, expected.format(time), formatter.formatTime(secondOfDay, nano));
+        }
+    }
+
+    private void checkDateTimes(FastTemporalFormatter formatter) {
+        DateTimeFormatter expected = formatter.formatter();
+        for (int i = 0; i < ROUNDS; i++) {
+            long localEpochSecond = randomEpochDay() * 86400L + random.nextInt(86400);
+            int nano = randomNano();
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(localEpochSecond, nano, ZoneOffset.UTC);
+            String message = formatter + " " + dateTime;
+            assertEquals(message, expected.format(dateTime), formatter.formatDateTime(dateTime));
+            assertEquals(message, expected.format(dateTime), formatter.formatLocalEpochSecond(localEpochSecond, nano));
+        }
+    }
+
+    /**
+     * 大部分落在常见范围，少量落在快速路径不覆盖的年份(0以前、9999以后)以覆盖fallback
+     */
+    private long randomEpochDay() {
+        int kind = random.nextInt(10);
+        if (kind == 0) {
+            return LocalDate.of(-2000, 1, 1).toEpochDay() + random.nextInt(2001 * 366);
+        }
+        if (kind == 1) {
+            return LocalDate.of(9990, 1, 1).toEpochDay() + random.nextInt(20 * 366);
+        }
+        return LocalDate.of(1, 1, 1).toEpochDay() + (long) random.nextInt(9999 * 365);
+    }
+
+    /**
+     * 0、整毫秒、整微秒和任意纳秒各占一部分，覆盖ISO格式去掉末尾0的各种宽度
+     */
+    private int randomNano() {
+        switch (random.nextInt(4)) {
+            case 0:
+                return 0;
+            case 1:
+                return random.nextInt(1000) * 1_000_000;
+            case 2:
+                return random.nextInt(1_000_000) * 1000;
+            default:
+                return random.nextInt(1_000_000_000);
+        }
+    }
+
+    private static String[] concat(String[]... parts) {
+        int size = 0;
+        for (String[] part : parts) {
+            size += part.length;
+        }
+        String[] result = new String[size];
+        int pos = 0;
+        for (String[] part : parts) {
+            System.arraycopy(part, 0, result, pos, part.length);
+            pos += part.length;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+package com.willowtech.debezium.transforms;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * toArray解析失败按error.policy处理，不再逐条打日志、每次分配新的空数组
+ */
+public class FieldPipelineTransformTest {
+
+    private static final Schema ROW_SCHEMA = SchemaBuilder.struct().name("server.db.t.Value").optional()
+            .field("id", Schema.INT64_SCHEMA)
+            .field("tags", Schema.OPTIONAL_STRING_SCHEMA)
+            .build();
+
+    @Test
+    public void defaultPolicyOutputsEmptyArray() {
+        assertEquals(Arrays.asList("a", "b"), apply(null, "[\"a\",\"b\"]").getArray("labels"));
+        assertEquals(Collections.emptyList(), apply(null, "[\"a\"]", "not an array").getArray("labels"));
+    }
+
+    @Test
+    public void passthroughPolicyKeepsRawValueNextToField() {
+        Struct failed = apply("passthrough", "not an array");
+        assertEquals(Arrays.asList("id", "labels", "tags_raw"), fieldNames(failed.schema()));
+        assertNull(failed.getArray("labels"));
+        assertEquals("not an array", failed.getString("tags_raw"));
+
+        Struct converted = apply("passthrough", "[\"a\"]");
+        assertEquals(Collections.singletonList("a"), converted.getArray("labels"));
+        assertNull(converted.getString("tags_raw"));
+    }
+
+    /**
+     * operations为 toArray:tags,rename:tags:labels，返回最后一个值的输出
+     */
+    private static Struct apply(String policy, String... values) {
+        Map<String, String> configs = new HashMap<>();
+        configs.put(FieldPipelineTransform.OPERATIONS_PREFIX + "t", "toArray:tags,rename:tags:labels");
+        if (policy != null) {
+            configs.put("error.policy", policy);
+        }
+        FieldPipelineTransform<SourceRecord> transform = new FieldPipelineTransform<>();
+        transform.configure(configs);
+        try {
+            Struct output = null;
+            for (String value : values) {
+                Struct row = new Struct(ROW_SCHEMA).put("id", 1L).put("tags", value);
+                SourceRecord record = new SourceRecord(null, null, "server.db.t", 0, ROW_SCHEMA, row);
+                output = (Struct) transform.apply(record).value();
+                output.validate();
+            }
+            return output;
+        } finally {
+            transform.close();
+        }
+    }
+
+    private static List<String> fieldNames(Schema schema) {
+        List<String> names = new ArrayList<>();
+        schema.fields().forEach(field -> names.add(field.name()));
+        return names;
+    }
+}
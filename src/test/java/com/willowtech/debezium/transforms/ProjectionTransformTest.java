@@ -0,0 +1,71 @@
+package com.willowtech.debezium.transforms;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.Test;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * envelope的before/after按表投影，没有匹配的表原样输出
+ */
+public class ProjectionTransformTest {
+
+    private static final Schema ROW_SCHEMA = SchemaBuilder.struct().name("server.db.t.Value").optional()
+            .field("id", Schema.INT64_SCHEMA)
+            .field("name", Schema.OPTIONAL_STRING_SCHEMA)
+            .field("desc", Schema.OPTIONAL_STRING_SCHEMA)
+            .build();
+    private static final Schema ENVELOPE_SCHEMA = SchemaBuilder.struct().name("server.db.t.Envelope")
+            .field("before", ROW_SCHEMA)
+            .field("after", ROW_SCHEMA)
+            .field("op", Schema.STRING_SCHEMA)
+            .build();
+
+    @Test
+    public void projectsBeforeAndAfterOfEnvelope() {
+        Struct row = new Struct(ROW_SCHEMA).put("id", 1L).put("name", "n").put("desc", "long text");
+        Struct envelope = new Struct(ENVELOPE_SCHEMA).put("after", row).put("op", "c");
+        Struct output = (Struct) apply("exclude.t", envelope).value();
+        output.validate();
+        assertNull(output.get("before"));
+        assertNull(output.getStruct("after").schema().field("desc"));
+        assertEquals("n", output.getStruct("after").getString("name"));
+        assertEquals("c", output.getString("op"));
+    }
+
+    @Test
+    public void otherTablesAreUnchanged() {
+        Struct envelope = new Struct(ENVELOPE_SCHEMA).put("op", "d");
+        SourceRecord record = new SourceRecord(null, null, "server.db.t", 0, ENVELOPE_SCHEMA, envelope);
+        ProjectionTransform<SourceRecord> transform = transform("exclude.other");
+        try {
+            assertSame(record, transform.apply(record));
+        } finally {
+            transform.close();
+        }
+    }
+
+    private static SourceRecord apply(String key, Struct value) {
+        ProjectionTransform<SourceRecord> transform = transform(key);
+        try {
+            return transform.apply(new SourceRecord(null, null, "server.db.t", 0, value.schema(), value));
+        } finally {
+            transform.close();
+        }
+    }
+
+    private static ProjectionTransform<SourceRecord> transform(String key) {
+        Map<String, String> configs = new HashMap<>();
+        configs.put(key, "desc");
+        ProjectionTransform<SourceRecord> transform = new ProjectionTransform<>();
+        transform.configure(configs);
+        return transform;
+    }
+}
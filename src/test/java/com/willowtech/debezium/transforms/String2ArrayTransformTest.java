@@ -0,0 +1,96 @@
+package com.willowtech.debezium.transforms;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.Test;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * envelope的before/after、扁平记录、无schema记录，以及passthrough时的原始值字段
+ */
+public class String2ArrayTransformTest {
+
+    private static final Schema ROW_SCHEMA = SchemaBuilder.struct().name("server.db.t.Value").optional()
+            .field("id", Schema.INT64_SCHEMA)
+            .field("tags", Schema.OPTIONAL_STRING_SCHEMA)
+            .build();
+    private static final Schema ENVELOPE_SCHEMA = SchemaBuilder.struct().name("server.db.t.Envelope")
+            .field("before", ROW_SCHEMA)
+            .field("after", ROW_SCHEMA)
+            .field("op", Schema.STRING_SCHEMA)
+            .build();
+
+    @Test
+    public void convertsBeforeAndAfterOfEnvelope() {
+        Struct envelope = new Struct(ENVELOPE_SCHEMA)
+                .put("before", row("[\"a\"]"))
+                .put("after", row("[\"a\",\"b\"]"))
+                .put("op", "u");
+        Struct output = (Struct) apply(transform(null), ENVELOPE_SCHEMA, envelope).value();
+        output.validate();
+        assertEquals(Collections.singletonList("a"), output.getStruct("before").getArray("tags"));
+        assertEquals(Arrays.asList("a", "b"), output.getStruct("after").getArray("tags"));
+        assertEquals("u", output.getString("op"));
+        // 第二条记录复用缓存的计划
+        Struct next = (Struct) apply(transform(null), ENVELOPE_SCHEMA, envelope.put("before", null)).value();
+        assertNull(next.getStruct("before"));
+        assertEquals(Arrays.asList("a", "b"), next.getStruct("after").getArray("tags"));
+    }
+
+    @Test
+    public void passthroughKeepsRawValueOfFlatRecord() {
+        Struct output = (Struct) apply(transform("passthrough"), ROW_SCHEMA, row("oops")).value();
+        output.validate();
+        assertNull(output.getArray("tags"));
+        assertEquals("oops", output.getString("tags_raw"));
+    }
+
+    @Test
+    public void convertsSchemalessRecordAndPassesNullValueThrough() {
+        Map<String, Object> after = new LinkedHashMap<>();
+        after.put("id", 1L);
+        after.put("tags", "[\"x\"]");
+        Map<String, Object> value = new HashMap<>();
+        value.put("after", after);
+        String2ArrayTransform<SourceRecord> transform = transform(null);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> output = (Map<String, Object>) ((Map<String, Object>) apply(transform, null, value).value()).get("after");
+        assertEquals(Collections.singletonList("x"), output.get("tags"));
+
+        SourceRecord tombstone = new SourceRecord(null, null, "server.db.t", 0, null, null);
+        assertSame(tombstone, transform.apply(tombstone));
+    }
+
+    private static Struct row(String tags) {
+        return new Struct(ROW_SCHEMA).put("id", 1L).put("tags", tags);
+    }
+
+    private static SourceRecord apply(String2ArrayTransform<SourceRecord> transform, Schema schema, Object value) {
+        try {
+            return transform.apply(new SourceRecord(null, null, "server.db.t", 0, schema, value));
+        } finally {
+            transform.close();
+        }
+    }
+
+    private static String2ArrayTransform<SourceRecord> transform(String policy) {
+        Map<String, String> configs = new HashMap<>();
+        configs.put(String2ArrayTransform.FIELDS_CONFIG, "tags");
+        if (policy != null) {
+            configs.put("error.policy", policy);
+        }
+        String2ArrayTransform<SourceRecord> transform = new String2ArrayTransform<>();
+        transform.configure(configs);
+        return transform;
+    }
+}